@@ -0,0 +1,281 @@
+package blogbuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import logging.LogSink;
+
+/**
+ * Position of a sweep that can be resumed (option <code>--resume</code>).
+ *
+ * A checkpoint is taken after world #counter has been committed (see
+ * {@link SweepExecutor#commit(Runnable)}), i.e. when all worlds up to #counter
+ * have been written and no later world has been added to the summary files.
+ * It contains:
+ * <ul>
+ * <li>the strategy, the seed and the counter of the last written world,</li>
+ * <li>the state of the series of that world (the world itself and what else
+ * the series keeps, see strategies.WorldSeries#writeState), so the series
+ * can continue without creating its previous worlds again,</li>
+ * <li>the lengths of the summary files (they are cut to these lengths when
+ * resuming) and the entries of the final report,</li>
+ * <li>the fingerprints of the written worlds if duplicates are rejected (see
+ * {@link DuplicateFilter}).</li>
+ * </ul>
+ * The random streams need not be saved: every world gets a fresh stream that
+ * only depends on its key and the seed (see {@link WorldRandom}). Thus a
+ * resumed sweep writes exactly the files of an uninterrupted one.
+ *
+ * The checkpoint file is a gzipped binary file that is replaced atomically.
+ */
+public class Checkpoint {
+
+	private static final int MAGIC = 0x424c4243; // "BLBC"
+	private static final int VERSION = 5;
+
+	private final String strategy;
+	private final long seed;
+	private final int counter;
+
+	/**
+	 * State of the series of world #counter (null if it was the last world of
+	 * its series).
+	 */
+	private final byte[] seriesState;
+
+	private Map<String, Long> logLengths = new LinkedHashMap<String, Long>();
+	private List<String> allMentionedFalseFiles = new ArrayList<String>();
+	private List<String> specDeviationFiles = new ArrayList<String>();
+	private List<String> duplicateFiles = new ArrayList<String>();
+	private int regeneratedDuplicates;
+
+	/**
+	 * @param strategy    class name of the strategy.
+	 * @param counter     number of the last written world.
+	 * @param seriesState state of the series of that world (null if the series
+	 *                    is complete).
+	 */
+	public Checkpoint(String strategy, int counter, byte[] seriesState) {
+		this(strategy, ConfigSingle.getInstance().getSeed(), counter, seriesState);
+	}
+
+	private Checkpoint(String strategy, long seed, int counter, byte[] seriesState) {
+		this.strategy = strategy;
+		this.seed = seed;
+		this.counter = counter;
+		this.seriesState = seriesState;
+	}
+
+	/**
+	 * @return path of the checkpoint file (of this shard) in the output path.
+	 */
+	public static String getPath() {
+		return Main.outputPath + "/" + ConfigSingle.getInstance().shardFileName("checkpoint.bin");
+	}
+
+	/**
+	 * Checks whether a checkpoint shall be taken after the given world.
+	 *
+	 * @param counter number of the world.
+	 * @return true every {@link ConfigSingle#checkpointInterval} worlds.
+	 */
+	public static boolean isDue(int counter) {
+		int interval = ConfigSingle.getInstance().checkpointInterval;
+		return interval > 0 && Main.mfw != null && counter % interval == 0;
+	}
+
+	/**
+	 * Saves this checkpoint. Has to be called when world #counter has been
+	 * committed: waits until all queued model files are written, writes the
+	 * summary files (and the manifest of the model store) and records their
+	 * lengths.
+	 */
+	public void save() {
+		Main.mfw.flush();
+		if (Main.store != null) {
+			Main.store.saveManifest();
+		}
+		this.logLengths = LogSink.flushOpenSinks();
+		ProgressLogger pl = ConfigSingle.getInstance().getProgressLogger();
+		this.allMentionedFalseFiles = pl.getAllMentionedFalseFiles();
+		this.specDeviationFiles = pl.getSpecDeviationFiles();
+		this.duplicateFiles = pl.getDuplicateFiles();
+		this.regeneratedDuplicates = pl.getRegeneratedDuplicates();
+
+		String path = getPath();
+		File tmp = new File(path + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmp))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(this.strategy);
+			out.writeLong(this.seed);
+			out.writeInt(this.counter);
+
+			out.writeInt(this.logLengths.size());
+			for (Map.Entry<String, Long> e : this.logLengths.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeLong(e.getValue());
+			}
+			writeStrings(out, this.allMentionedFalseFiles);
+			writeStrings(out, this.specDeviationFiles);
+			writeStrings(out, this.duplicateFiles);
+			out.writeInt(this.regeneratedDuplicates);
+			DuplicateFilter duplicates = ConfigSingle.getInstance().duplicates;
+			out.writeBoolean(duplicates != null);
+			if (duplicates != null) {
+				duplicates.write(out);
+			}
+
+			if (this.seriesState == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(this.seriesState.length);
+				out.write(this.seriesState);
+			}
+		} catch (IOException e) {
+			System.err.println("   Cannot write checkpoint: " + tmp.getPath());
+			System.err.println(e);
+			System.exit(1);
+		}
+
+		try {
+			Files.move(tmp.toPath(), Paths.get(path), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("   Cannot replace checkpoint: " + path);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Reads the checkpoint of the output path and restores the entries of the
+	 * final report.
+	 *
+	 * @return checkpoint (null if there is none).
+	 */
+	public static Checkpoint load() {
+		String path = getPath();
+		if (!new File(path).exists()) {
+			return null;
+		}
+
+		Checkpoint cp = null;
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(new FileInputStream(path))))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("not a checkpoint of this version");
+			}
+			String strategy = in.readUTF();
+			long seed = in.readLong();
+			int counter = in.readInt();
+
+			Map<String, Long> logLengths = new LinkedHashMap<String, Long>();
+			for (int n = in.readInt(), i = 0; i < n; i++) {
+				logLengths.put(in.readUTF(), in.readLong());
+			}
+			List<String> allMentionedFalseFiles = readStrings(in);
+			List<String> specDeviationFiles = readStrings(in);
+			List<String> duplicateFiles = readStrings(in);
+			int regeneratedDuplicates = in.readInt();
+			if (in.readBoolean()) {
+				DuplicateFilter duplicates = ConfigSingle.getInstance().duplicates;
+				(duplicates != null ? duplicates : new DuplicateFilter(0)).read(in);
+			}
+
+			int stateLength = in.readInt();
+			byte[] seriesState = null;
+			if (stateLength >= 0) {
+				seriesState = new byte[stateLength];
+				in.readFully(seriesState);
+			}
+
+			cp = new Checkpoint(strategy, seed, counter, seriesState);
+			cp.logLengths = logLengths;
+			cp.allMentionedFalseFiles = allMentionedFalseFiles;
+			cp.specDeviationFiles = specDeviationFiles;
+			cp.duplicateFiles = duplicateFiles;
+			cp.regeneratedDuplicates = regeneratedDuplicates;
+		} catch (IOException e) {
+			System.err.println("   Cannot read checkpoint: " + path);
+			System.err.println(e);
+			System.exit(1);
+		}
+
+		if (cp.seed != ConfigSingle.getInstance().getSeed()) {
+			System.err.println("   Checkpoint was created with another seed: " + cp.seed);
+			System.exit(1);
+		}
+		ProgressLogger pl = ConfigSingle.getInstance().getProgressLogger();
+		pl.setAllMentionedFalseFiles(cp.allMentionedFalseFiles);
+		pl.setSpecDeviationFiles(cp.specDeviationFiles);
+		pl.setDuplicateFiles(cp.duplicateFiles);
+		pl.setRegeneratedDuplicates(cp.regeneratedDuplicates);
+		return cp;
+	}
+
+	/**
+	 * Deletes the checkpoint (after the sweep is complete).
+	 */
+	public static void delete() {
+		new File(getPath()).delete();
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String s : strings) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream in) throws IOException {
+		List<String> strings = new ArrayList<String>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			strings.add(in.readUTF());
+		}
+		return strings;
+	}
+
+	public String getStrategy() {
+		return this.strategy;
+	}
+
+	public int getCounter() {
+		return this.counter;
+	}
+
+	/**
+	 * @return stream of the state of the series of the last written world (null
+	 *         if that series is complete).
+	 */
+	public DataInputStream getSeriesState() {
+		return this.seriesState == null ? null
+				: new DataInputStream(new ByteArrayInputStream(this.seriesState));
+	}
+
+	/**
+	 * @param path path of a summary file.
+	 * @return length of the file at the checkpoint (-1 if unknown).
+	 */
+	public long getLogLength(String path) {
+		Long length = this.logLengths.get(path);
+		return length == null ? -1 : length;
+	}
+}
@@ -0,0 +1,257 @@
+package blogbuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Sparse randvar co-occurrence graph of a world: two randvars are connected if
+ * they occur together in at least one factor, the weight of the edge is the
+ * number of factors they share.
+ *
+ * The adjacency is stored in CSR form (neighbours sorted by randvar), so the
+ * memory grows with the number of edges instead of the square of the number of
+ * randvars (as the matrix in the world summary does). Degree distribution and
+ * clustering statistics are computed on the sparse graph.
+ */
+public class CoOccurrenceGraph {
+
+	private final int randVarCount;
+
+	/**
+	 * Neighbours of randvar #r: <code>neighbours[start[r] .. start[r+1]-1]</code>
+	 * (sorted), with the number of shared factors in <code>weights</code>.
+	 */
+	private final int[] start;
+	private final int[] neighbours;
+	private final int[] weights;
+
+	/**
+	 * Number of triangles each randvar is part of (computed on demand).
+	 */
+	private long[] triangles;
+
+	private CoOccurrenceGraph(int randVarCount, int[] start, int[] neighbours, int[] weights) {
+		this.randVarCount = randVarCount;
+		this.start = start;
+		this.neighbours = neighbours;
+		this.weights = weights;
+	}
+
+	/**
+	 * Creates the co-occurrence graph of a compact world. Goes through the factors
+	 * of each randvar, i.e. needs O(sum of squared factor arities) time.
+	 *
+	 * @param c world.
+	 * @return co-occurrence graph.
+	 */
+	public static CoOccurrenceGraph of(CompactWorld c) {
+		int rvCount = c.getRandVarCount();
+		int[] start = new int[rvCount + 1];
+		int[] neighbours = new int[16];
+		int[] weights = new int[16];
+		int size = 0;
+
+		// shared factor count of each randvar with the current randvar (0 = none)
+		int[] shared = new int[rvCount];
+		int[] found = new int[16];
+		// visit in which each randvar was counted last (a randvar can be an argument
+		// of a factor more than once, the factor is shared only once)
+		int[] counted = new int[rvCount];
+		int visit = 0;
+
+		for (int rv = 0; rv < rvCount; rv++) {
+			int foundCount = 0;
+			int previousFac = -1;
+			for (int i = 0; i < c.getOccurrences(rv); i++) {
+				int fac = c.getOccurrenceFactor(rv, i);
+				if (fac == previousFac) {
+					continue;
+				}
+				previousFac = fac;
+				visit++;
+				for (int k = 0; k < c.getFactorArgCount(fac); k++) {
+					int other = c.getFactorArg(fac, k);
+					if (other == rv || counted[other] == visit) {
+						continue;
+					}
+					counted[other] = visit;
+					if (shared[other]++ == 0) {
+						if (foundCount == found.length) {
+							found = Arrays.copyOf(found, foundCount * 2);
+						}
+						found[foundCount++] = other;
+					}
+				}
+			}
+
+			Arrays.sort(found, 0, foundCount);
+			if (size + foundCount > neighbours.length) {
+				int capacity = Math.max(size + foundCount, neighbours.length * 2);
+				neighbours = Arrays.copyOf(neighbours, capacity);
+				weights = Arrays.copyOf(weights, capacity);
+			}
+			for (int i = 0; i < foundCount; i++) {
+				neighbours[size] = found[i];
+				weights[size++] = shared[found[i]];
+				shared[found[i]] = 0;
+			}
+			start[rv + 1] = size;
+		}
+
+		return new CoOccurrenceGraph(rvCount, start, Arrays.copyOf(neighbours, size), Arrays.copyOf(weights, size));
+	}
+
+	public int getRandVarCount() {
+		return this.randVarCount;
+	}
+
+	/**
+	 * @return number of (undirected) edges.
+	 */
+	public int getEdgeCount() {
+		return this.neighbours.length / 2;
+	}
+
+	public int getDegree(int rv) {
+		return this.start[rv + 1] - this.start[rv];
+	}
+
+	/**
+	 * @return neighbour #i of randvar #rv (neighbours are sorted by randvar).
+	 */
+	public int getNeighbour(int rv, int i) {
+		return this.neighbours[this.start[rv] + i];
+	}
+
+	/**
+	 * @return degree distribution (entry #i = number of randvars with i
+	 *         neighbours).
+	 */
+	public int[] getDegreeCounts() {
+		int maxDegree = 0;
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			maxDegree = Math.max(maxDegree, this.getDegree(rv));
+		}
+		int[] counts = new int[maxDegree + 1];
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			counts[this.getDegree(rv)]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * @return average number of neighbours of a randvar.
+	 */
+	public double getAverageDegree() {
+		return this.randVarCount == 0 ? 0 : (double) this.neighbours.length / this.randVarCount;
+	}
+
+	/**
+	 * Global clustering coefficient (transitivity): share of the paths of length
+	 * 2 that are closed to a triangle.
+	 *
+	 * @return 3 * triangles / connected triples (0 if there are no triples).
+	 */
+	public double getGlobalClustering() {
+		long[] t = this.countTriangles();
+		long closed = 0;
+		long triples = 0;
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			long d = this.getDegree(rv);
+			closed += t[rv];
+			triples += d * (d - 1) / 2;
+		}
+		return triples == 0 ? 0 : (double) closed / triples;
+	}
+
+	/**
+	 * Average local clustering coefficient (randvars with less than 2 neighbours
+	 * count as 0).
+	 *
+	 * @return average share of connected neighbour pairs.
+	 */
+	public double getAverageLocalClustering() {
+		if (this.randVarCount == 0) {
+			return 0;
+		}
+		long[] t = this.countTriangles();
+		double sum = 0;
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			long d = this.getDegree(rv);
+			if (d > 1) {
+				sum += (double) t[rv] / (d * (d - 1) / 2);
+			}
+		}
+		return sum / this.randVarCount;
+	}
+
+	/**
+	 * Counts the triangles of each randvar. Edges are directed from lower to
+	 * higher (degree, index), so each triangle is found once and the work is
+	 * bounded by O(edges^1.5) also for hubs.
+	 */
+	private long[] countTriangles() {
+		if (this.triangles != null) {
+			return this.triangles;
+		}
+		long[] t = new long[this.randVarCount];
+		int[] mark = new int[this.randVarCount];
+		Arrays.fill(mark, -1);
+
+		for (int u = 0; u < this.randVarCount; u++) {
+			for (int i = this.start[u]; i < this.start[u + 1]; i++) {
+				if (this.isForward(u, this.neighbours[i])) {
+					mark[this.neighbours[i]] = u;
+				}
+			}
+			for (int i = this.start[u]; i < this.start[u + 1]; i++) {
+				int v = this.neighbours[i];
+				if (!this.isForward(u, v)) {
+					continue;
+				}
+				for (int j = this.start[v]; j < this.start[v + 1]; j++) {
+					int w = this.neighbours[j];
+					if (mark[w] == u && this.isForward(v, w)) {
+						t[u]++;
+						t[v]++;
+						t[w]++;
+					}
+				}
+			}
+		}
+		this.triangles = t;
+		return t;
+	}
+
+	private boolean isForward(int u, int v) {
+		int du = this.getDegree(u);
+		int dv = this.getDegree(v);
+		return du < dv || (du == dv && u < v);
+	}
+
+	/**
+	 * Writes each edge once (lower randvar first) as
+	 * <code>prefix;RV a;RV b;shared factors</code> lines (1-based randvar
+	 * numbers).
+	 *
+	 * @param out    writer.
+	 * @param prefix first column of each line (e.g. the file name of the world).
+	 */
+	public void writeEdges(Writer out, String prefix) throws IOException {
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			for (int i = this.start[rv]; i < this.start[rv + 1]; i++) {
+				if (this.neighbours[i] > rv) {
+					out.write(prefix);
+					out.write(';');
+					out.write(Integer.toString(rv + 1));
+					out.write(';');
+					out.write(Integer.toString(this.neighbours[i] + 1));
+					out.write(';');
+					out.write(Integer.toString(this.weights[i]));
+					out.write('\n');
+				}
+			}
+		}
+	}
+}
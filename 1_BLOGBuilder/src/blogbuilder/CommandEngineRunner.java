@@ -0,0 +1,69 @@
+package blogbuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an engine as external command (e.g.
+ * <code>java -jar fojt.jar -e fojt.LiftedJTEngine {file}</code>): the
+ * placeholder <code>{file}</code> is replaced by the model file (the file is
+ * appended if there is no placeholder). A run is ok if the command exits with
+ * 0 within the timeout. The output of the command is appended to a log file.
+ */
+public class CommandEngineRunner implements EngineRunner {
+
+	private String[] command;
+
+	private File log;
+
+	/**
+	 * @param command command line (split at white space).
+	 * @param logPath file the output of the command is appended to.
+	 */
+	public CommandEngineRunner(String command, String logPath) {
+		this.command = command.trim().split("\\s+");
+		try {
+			this.log = Helpers.prepareOutputFile(logPath);
+		} catch (Exception e) {
+			System.err.println("   Cannot create/open a file for output: " + logPath);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	@Override
+	public Result run(String file, long timeoutMs) {
+		List<String> cmd = new ArrayList<String>();
+		boolean placed = false;
+		for (String part : this.command) {
+			placed |= part.contains("{file}");
+			cmd.add(part.replace("{file}", file));
+		}
+		if (!placed) {
+			cmd.add(file);
+		}
+
+		ProcessBuilder pb = new ProcessBuilder(cmd).redirectErrorStream(true)
+				.redirectOutput(Redirect.appendTo(this.log));
+		try {
+			Process p = pb.start();
+			if (!p.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+				p.destroyForcibly().waitFor();
+				return Result.TIMEOUT;
+			}
+			return p.exitValue() == 0 ? Result.OK : Result.ERROR;
+		} catch (IOException e) {
+			System.err.println("   Cannot run engine: " + String.join(" ", cmd));
+			System.err.println(e);
+			System.exit(1);
+		} catch (InterruptedException e) {
+			System.err.println("   Engine run interrupted: " + String.join(" ", cmd));
+			System.exit(1);
+		}
+		return Result.ERROR;
+	}
+}
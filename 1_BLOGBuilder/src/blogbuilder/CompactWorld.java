@@ -0,0 +1,404 @@
+package blogbuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import elements.Factor;
+import elements.LogVar;
+import elements.RandVar;
+
+/**
+ * Compact, immutable representation of a world's structure in int arrays.
+ *
+ * Elements are numbered by position (0-based; the names in the model file
+ * are 1-based, e.g. randvar #0 is <code>RV1</code>). The adjacency is stored
+ * in CSR form: the arguments of factor #f are
+ * <code>facArgs[facArgStart[f] .. facArgStart[f+1]-1]</code>, the logvar
+ * arguments of randvar #r and the factors randvar #r occurs in are stored the
+ * same way. A world with a million factors thus needs a few int arrays
+ * instead of millions of objects, lists and hash sets.
+ *
+ * Statistics and rendering work directly on the arrays. A {@link World} can be
+ * backed by a CompactWorld (see {@link World#fillCompact(CompactWorld)}); its
+ * object model is then only created when it is accessed.
+ */
+public class CompactWorld {
+
+	private final int logVarCount;
+
+	/**
+	 * RandVar -> LogVar arguments (CSR).
+	 */
+	private final int[] rvArgStart;
+	private final int[] rvArgs;
+
+	/**
+	 * Factor -> RandVar arguments (CSR).
+	 */
+	private final int[] facArgStart;
+	private final int[] facArgs;
+
+	/**
+	 * RandVar -> Factors it occurs in (CSR, transposed factor arguments).
+	 */
+	private final int[] rvFacStart;
+	private final int[] rvFacs;
+
+	/**
+	 * Statistics (computed once, see {@link #computeStatistics()}).
+	 */
+	private int[] occurrenceCounts;
+	private int maxLogVarOccurrence;
+	private int maxRandVarArgs;
+	private int maxFactorArgCount;
+	private int realFactors;
+
+	/**
+	 * @param logVarCount number of logvars.
+	 * @param rvArgStart  start of each randvar's arguments in rvArgs (length =
+	 *                    randvar count + 1).
+	 * @param rvArgs      logvar arguments of all randvars.
+	 * @param facArgStart start of each factor's arguments in facArgs (length =
+	 *                    factor count + 1).
+	 * @param facArgs     randvar arguments of all factors.
+	 */
+	public CompactWorld(int logVarCount, int[] rvArgStart, int[] rvArgs, int[] facArgStart, int[] facArgs) {
+		this.logVarCount = logVarCount;
+		this.rvArgStart = rvArgStart;
+		this.rvArgs = rvArgs;
+		this.facArgStart = facArgStart;
+		this.facArgs = facArgs;
+
+		// Transpose factor arguments (counting sort by randvar).
+		int rvCount = rvArgStart.length - 1;
+		this.rvFacStart = new int[rvCount + 1];
+		for (int rv : facArgs) {
+			this.rvFacStart[rv + 1]++;
+		}
+		for (int r = 0; r < rvCount; r++) {
+			this.rvFacStart[r + 1] += this.rvFacStart[r];
+		}
+		this.rvFacs = new int[facArgs.length];
+		int[] fill = new int[rvCount];
+		for (int f = 0; f < this.getFactorCount(); f++) {
+			for (int i = facArgStart[f]; i < facArgStart[f + 1]; i++) {
+				int rv = facArgs[i];
+				this.rvFacs[this.rvFacStart[rv] + fill[rv]++] = f;
+			}
+		}
+
+		this.computeStatistics();
+	}
+
+	/**
+	 * Creates the compact representation of the given world's elements (which are
+	 * expected to be numbered by position, as done by the factories).
+	 *
+	 * @param w world to be converted.
+	 * @return CompactWorld with the same structure.
+	 */
+	public static CompactWorld of(World w) {
+		List<RandVar> randVars = w.getRandVars();
+		List<Factor> factors = w.getFactors();
+
+		int[] rvArgStart = new int[randVars.size() + 1];
+		for (int r = 0; r < randVars.size(); r++) {
+			rvArgStart[r + 1] = rvArgStart[r] + randVars.get(r).getArgs().size();
+		}
+		int[] rvArgs = new int[rvArgStart[randVars.size()]];
+		for (int r = 0; r < randVars.size(); r++) {
+			List<LogVar> args = randVars.get(r).getArgs();
+			for (int i = 0; i < args.size(); i++) {
+				rvArgs[rvArgStart[r] + i] = args.get(i).getIndex() - 1;
+			}
+		}
+
+		int[] facArgStart = new int[factors.size() + 1];
+		for (int f = 0; f < factors.size(); f++) {
+			facArgStart[f + 1] = facArgStart[f] + factors.get(f).getArgs().size();
+		}
+		int[] facArgs = new int[facArgStart[factors.size()]];
+		for (int f = 0; f < factors.size(); f++) {
+			List<RandVar> args = factors.get(f).getArgs();
+			for (int i = 0; i < args.size(); i++) {
+				facArgs[facArgStart[f] + i] = args.get(i).getIndex() - 1;
+			}
+		}
+
+		return new CompactWorld(w.getLogVars().size(), rvArgStart, rvArgs, facArgStart, facArgs);
+	}
+
+	// ####################################
+	// STRUCTURE
+	// ####################################
+
+	public int getLogVarCount() {
+		return this.logVarCount;
+	}
+
+	public int getRandVarCount() {
+		return this.rvArgStart.length - 1;
+	}
+
+	public int getFactorCount() {
+		return this.facArgStart.length - 1;
+	}
+
+	public int getRandVarArgCount(int rv) {
+		return this.rvArgStart[rv + 1] - this.rvArgStart[rv];
+	}
+
+	/**
+	 * @return logvar #i of the arguments of randvar #rv.
+	 */
+	public int getRandVarArg(int rv, int i) {
+		return this.rvArgs[this.rvArgStart[rv] + i];
+	}
+
+	public int getFactorArgCount(int fac) {
+		return this.facArgStart[fac + 1] - this.facArgStart[fac];
+	}
+
+	/**
+	 * @return randvar #i of the arguments of factor #fac.
+	 */
+	public int getFactorArg(int fac, int i) {
+		return this.facArgs[this.facArgStart[fac] + i];
+	}
+
+	public int getOccurrences(int rv) {
+		return this.rvFacStart[rv + 1] - this.rvFacStart[rv];
+	}
+
+	/**
+	 * @return factor #i of the factors randvar #rv occurs in.
+	 */
+	public int getOccurrenceFactor(int rv, int i) {
+		return this.rvFacs[this.rvFacStart[rv] + i];
+	}
+
+	// ####################################
+	// STATISTICS
+	// ####################################
+
+	public int searchRealMaxRVOccurence() {
+		return this.occurrenceCounts.length - 1;
+	}
+
+	public int searchRealMaxLVOccurence() {
+		return this.maxLogVarOccurrence;
+	}
+
+	public int searchRealMaxRVArgs() {
+		return this.maxRandVarArgs;
+	}
+
+	public int searchRealMaxFactorArgCount() {
+		return this.maxFactorArgCount;
+	}
+
+	public int searchRealFactors() {
+		return this.realFactors;
+	}
+
+	/**
+	 * @return number of randvars that do not occur in any factor.
+	 */
+	public int countNonMentionedRandVars() {
+		return this.occurrenceCounts[0];
+	}
+
+	/**
+	 * @return histogram of randvar occurrences (entry #i = number of randvars
+	 *         that occur in exactly i factors).
+	 */
+	public int[] getRandVarOccurrenceCounts() {
+		return this.occurrenceCounts.clone();
+	}
+
+	/**
+	 * Computes the statistics (once, the world does not change).
+	 */
+	private void computeStatistics() {
+		int maxOcc = 0;
+		for (int r = 0; r < this.getRandVarCount(); r++) {
+			maxOcc = Math.max(maxOcc, this.getOccurrences(r));
+			this.maxRandVarArgs = Math.max(this.maxRandVarArgs, this.getRandVarArgCount(r));
+		}
+		this.occurrenceCounts = new int[maxOcc + 1];
+		for (int r = 0; r < this.getRandVarCount(); r++) {
+			this.occurrenceCounts[this.getOccurrences(r)]++;
+		}
+
+		int[] lvCounts = new int[this.logVarCount];
+		for (int lv : this.rvArgs) {
+			lvCounts[lv]++;
+		}
+		for (int c : lvCounts) {
+			this.maxLogVarOccurrence = Math.max(this.maxLogVarOccurrence, c);
+		}
+
+		for (int f = 0; f < this.getFactorCount(); f++) {
+			this.maxFactorArgCount = Math.max(this.maxFactorArgCount, this.getFactorArgCount(f));
+			if (this.getFactorArgCount(f) > 0) {
+				this.realFactors++;
+			}
+		}
+	}
+
+	// ####################################
+	// RENDERING
+	// ####################################
+
+	/**
+	 * Writes the logvar declarations (same format as
+	 * {@link LogVar#writeLine(Writer, int)}).
+	 */
+	public void writeLogVars(Writer out, int domainSize) throws IOException {
+		for (int lv = 1; lv <= this.logVarCount; lv++) {
+			out.write("type LV");
+			out.write(Integer.toString(lv));
+			out.write(";\nguaranteed LV");
+			out.write(Integer.toString(lv));
+			out.write(" x");
+			out.write(Integer.toString(lv));
+			out.write("x[");
+			out.write(Integer.toString(domainSize));
+			out.write("];\n");
+		}
+	}
+
+	/**
+	 * Writes the randvar declarations (same format as
+	 * {@link RandVar#writeLine(Writer, int)}).
+	 */
+	public void writeRandVars(Writer out) throws IOException {
+		for (int r = 0; r < this.getRandVarCount(); r++) {
+			out.write("random Boolean RV");
+			out.write(Integer.toString(r + 1));
+			int argCount = this.getRandVarArgCount(r);
+			if (argCount > 0) {
+				out.write('(');
+				for (int i = 0; i < argCount; i++) {
+					if (i > 0) {
+						out.write(", ");
+					}
+					out.write("LV");
+					out.write(Integer.toString(this.getRandVarArg(r, i) + 1));
+				}
+				out.write(')');
+			}
+			out.write(";\n");
+		}
+	}
+
+	/**
+	 * Writes the factors (same format as {@link Factor#writeLine(Writer, int)},
+	 * the potentials are drawn from the given random object while writing).
+	 */
+	public void writeFactors(Writer out, Random r) throws IOException {
+		// variable letter of each logvar in the current factor (-1 = none yet)
+		int[] variables = new int[this.logVarCount];
+		int[] declared = new int[this.logVarCount];
+		Arrays.fill(variables, -1);
+
+		for (int f = 0; f < this.getFactorCount(); f++) {
+			int argCount = this.getFactorArgCount(f);
+
+			// Allocate variables to logvars in order of first occurrence.
+			int declaredCount = 0;
+			boolean isParFactor = false;
+			for (int i = 0; i < argCount; i++) {
+				int rv = this.getFactorArg(f, i);
+				for (int j = 0; j < this.getRandVarArgCount(rv); j++) {
+					isParFactor = true;
+					int lv = this.getRandVarArg(rv, j);
+					if (variables[lv] == -1) {
+						if (declaredCount > 25) {
+							System.err.println(String.format(
+									"More arguments for factor 'Fac%d' than letters available for variables.", f + 1));
+							System.exit(1);
+						}
+						variables[lv] = declaredCount;
+						declared[declaredCount++] = lv;
+					}
+				}
+			}
+
+			out.write("// Factor #");
+			out.write(Integer.toString(f + 1));
+			out.write('\n');
+			out.write(isParFactor ? "parfactor " : "factor ");
+			for (int k = 0; k < declaredCount; k++) {
+				if (k > 0) {
+					out.write(", ");
+				}
+				out.write("LV");
+				out.write(Integer.toString(declared[k] + 1));
+				out.write(' ');
+				out.write((char) ('A' + k));
+			}
+			if (declaredCount > 0) {
+				out.write('.');
+			}
+
+			out.write(" MultiArrayPotential[[");
+			Helpers.writeRandomPotentials(out, r, (int) Math.pow(2.0, (double) argCount));
+			out.write("]](");
+
+			for (int i = 0; i < argCount; i++) {
+				int rv = this.getFactorArg(f, i);
+				if (i > 0) {
+					out.write(',');
+				}
+				out.write("RV");
+				out.write(Integer.toString(rv + 1));
+				int rvArgCount = this.getRandVarArgCount(rv);
+				if (rvArgCount > 0) {
+					out.write('(');
+					for (int j = 0; j < rvArgCount; j++) {
+						if (j > 0) {
+							out.write(',');
+						}
+						out.write((char) ('A' + variables[this.getRandVarArg(rv, j)]));
+					}
+					out.write(')');
+				}
+			}
+			out.write(");\n");
+
+			for (int k = 0; k < declaredCount; k++) {
+				variables[declared[k]] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Writes the query lines (same format as the object model's queries).
+	 */
+	public void writeQueries(Writer out, boolean allQueries) throws IOException {
+		for (int r = 0; r < this.getRandVarCount(); r++) {
+			out.write("query RV");
+			out.write(Integer.toString(r + 1));
+			int argCount = this.getRandVarArgCount(r);
+			if (argCount > 0) {
+				out.write('(');
+				for (int i = 0; i < argCount; i++) {
+					if (i > 0) {
+						out.write(',');
+					}
+					out.write("x" + (this.getRandVarArg(r, i) + 1) + "x" + "1");
+				}
+				out.write(')');
+			}
+			out.write(";\n");
+
+			if (!allQueries) {
+				break;
+			}
+		}
+	}
+}
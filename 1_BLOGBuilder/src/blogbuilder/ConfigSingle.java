@@ -1,35 +1,123 @@
 package blogbuilder;
 
+import java.util.List;
 import java.util.Random;
 
 public class ConfigSingle {
 
-	private static ConfigSingle instance = null;
-	
-	private Random random;
-	
+	private static final ConfigSingle instance = new ConfigSingle();
+
+	/**
+	 * Seed all random decisions of a run are derived from.
+	 */
+	private long seed = 123;
+
+	/**
+	 * Random object of the current thread. Sweeps replace it with the stream of
+	 * the world that is currently created (see {@link WorldRandom}).
+	 */
+	private ThreadLocal<Random> random = ThreadLocal.withInitial(() -> new Random(this.seed));
+
 	public boolean verbose = false;
-	
+
+	/**
+	 * Number of worker threads used for a sweep (1 = sequential).
+	 */
+	public int threads = 1;
+
+	/**
+	 * Sample random worlds directly into a {@link CompactWorld} (int arrays)
+	 * instead of element objects. Used by the RandomSampleStrategy.
+	 */
+	public boolean compact = false;
+
+	/**
+	 * Size of the buffer (in MB) for model files that wait to be written by the
+	 * writer thread (0 = the files are written by the thread that created the
+	 * world, see {@link ModelFileWriter}).
+	 */
+	public int pipelineBuffer = 0;
+
+	/**
+	 * Number of buffered chars after which a log file (e.g. ModelSummary.csv) is
+	 * written (see {@link logging.LogSink}).
+	 */
+	public int logFlushSize = 1 << 16;
+
+	/**
+	 * Interval (in ms) in which the log files are written in the background (0 =
+	 * only when the buffer is full and at the end).
+	 */
+	public int logFlushInterval = 1000;
+
+	/**
+	 * Take a checkpoint after every n-th world (0 = no checkpoints, see
+	 * {@link Checkpoint}).
+	 */
+	public int checkpointInterval = 0;
+
+	/**
+	 * Checkpoint the sweep is resumed from (null = start from the first world).
+	 */
+	public Checkpoint resumeFrom = null;
+
+	/**
+	 * Part of the sweep created by this process (0 .. shardCount - 1, see
+	 * {@link SweepExecutor#selectShard(List)}).
+	 */
+	public int shardIndex = 0;
+
+	/**
+	 * Number of processes the sweep is split into (1 = no sharding).
+	 */
+	public int shardCount = 1;
+
+	/**
+	 * Rejects worlds that are duplicates of earlier ones (null = all worlds are
+	 * written, see {@link DuplicateFilter}).
+	 */
+	public DuplicateFilter duplicates = null;
+
 	private ProgressLogger progressLogger;
-	
+
 	private ConfigSingle() {
-		this.random = new Random(123);
 		this.progressLogger = new ProgressLogger();
 	}
-	
+
+	/**
+	 * Name of a per-process output file: with sharding, the shard index is
+	 * added in front of the extension (e.g. ModelSummary.shard2.csv).
+	 * 
+	 * @param name file name.
+	 * @return file name of this shard.
+	 */
+	public String shardFileName(String name) {
+		return Helpers.shardFileName(name, this.shardIndex, this.shardCount);
+	}
+
 	public static ConfigSingle getInstance() {
-		if (instance == null) {
-			instance = new ConfigSingle();
-		}
 		return instance;
 	}
-	
+
 	public Random getRandom() {
-		return this.random;
+		return this.random.get();
 	}
-	
+
+	/**
+	 * Replaces the random object of the current thread.
+	 *
+	 * @param r Random object to be used by the current thread from now on.
+	 */
+	public void setRandom(Random r) {
+		this.random.set(r);
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
 	public ProgressLogger getProgressLogger() {
 		return this.progressLogger;
 	}
-	
+
 }
@@ -0,0 +1,48 @@
+package blogbuilder;
+
+/**
+ * Estimates the cost (in ms) of creating a world and writing its files from
+ * its spec, e.g. to start the most expensive series of a parallel sweep first
+ * (see {@link SweepExecutor}).
+ *
+ * The estimate is a weighted sum of the dominating terms:
+ * <ul>
+ * <li>elements: logvars, randvars and factor arguments,</li>
+ * <li>drawing the logvars of the randvars (every randvar looks at all logvars
+ * to find compatible ones),</li>
+ * <li>potentials: 2^args per factor, written once per domain size.</li>
+ * </ul>
+ * The weights were fitted to the actual costs logged with
+ * <code>--cost-log</code> (see logging.CostLogger); the log can be used to
+ * check them on other machines.
+ */
+public class CostModel {
+
+	private static final double MS_PER_ELEMENT = 8e-3;
+	private static final double MS_PER_LOGVAR_DRAW = 1.5e-4;
+	private static final double MS_PER_POTENTIAL = 8e-5;
+
+	/**
+	 * Fixed cost per world (creating files, summary lines).
+	 */
+	private static final double MS_PER_WORLD = 2;
+
+	/**
+	 * @param sc spec of a world.
+	 * @return estimated cost (in ms) of creating the world and writing its
+	 *         files.
+	 */
+	public static double estimate(SpecContainer sc) {
+		double lv = Math.max(sc.getLogVarCount(), 0);
+		double rv = Math.max(sc.getRandVarCount(), 0);
+		double fac = Math.max(sc.getFactorCount(), 0);
+		int args = Math.max(sc.getFactorArgCount(), 0);
+		int files = sc.getDomainSizes() == null ? 1 : Math.max(sc.getDomainSizes().length, 1);
+
+		double cost = MS_PER_WORLD;
+		cost += MS_PER_ELEMENT * (lv + rv + fac * args);
+		cost += MS_PER_LOGVAR_DRAW * rv * lv;
+		cost += MS_PER_POTENTIAL * fac * Math.pow(2, Math.min(args, 30)) * files;
+		return cost;
+	}
+}
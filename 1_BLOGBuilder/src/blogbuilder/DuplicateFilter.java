@@ -0,0 +1,167 @@
+package blogbuilder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Rejects worlds that are identical up to renaming to an earlier world of the
+ * sweep (options <code>--reject-duplicates</code> and
+ * <code>--regenerate-duplicates n</code>), e.g. rerolls of small worlds, so no
+ * engine time is spent on benchmarking the same model twice.
+ *
+ * Worlds are compared by their fingerprint (see {@link WorldFingerprint}). A
+ * duplicate is not written (see strategies.WorldSeries#run()); a duplicate
+ * that is the first world of its series can instead be created again with
+ * another random stream (at most {@link #getRegenerations()} times).
+ *
+ * "Earlier" refers to the sweep order: a world is registered when it is
+ * committed (see {@link SweepExecutor#commit(Runnable)}), so a parallel sweep
+ * rejects the same worlds as a sequential one. In a parallel sweep, a world is
+ * usually written before it is decided (see {@link #registerOnCommit(World)});
+ * the files of a rejected world are deleted again. Regenerating a world needs
+ * the decision before the series goes on, so with regenerations the sweep runs
+ * on a single thread. Within a shard of a sharded sweep, the worlds of the
+ * earlier shards are not known: the shards log the fingerprints of their
+ * worlds, and merging the shards rejects the worlds that duplicate a world of
+ * an earlier shard (see logging.ShardMerger). The fingerprints are saved with
+ * a checkpoint, so a resumed sweep rejects the same worlds.
+ */
+public class DuplicateFilter {
+
+	/**
+	 * File path of the first world with each fingerprint.
+	 */
+	private Map<Long, String> firstFiles = new ConcurrentHashMap<Long, String>();
+
+	private int regenerations;
+
+	/**
+	 * @param regenerations how often the first world of a series is created
+	 *                      again if it is a duplicate (0: duplicates are only
+	 *                      rejected).
+	 */
+	public DuplicateFilter(int regenerations) {
+		this.regenerations = regenerations;
+	}
+
+	/**
+	 * Checks whether a world is a duplicate of an earlier world of the sweep.
+	 * Running sequentially, the world is registered at once (see
+	 * {@link #register(World)}). In a parallel sweep, only the worlds of
+	 * committed series are known yet: a world that is not one of their
+	 * duplicates has to be registered when it is committed (see
+	 * {@link #registerOnCommit(World)}).
+	 *
+	 * @param w created world.
+	 * @return file path of the earlier world with the same fingerprint (null if
+	 *         the world is new or not decided yet).
+	 */
+	public String check(World w) {
+		if (!SweepExecutor.defersCommits()) {
+			return this.register(w);
+		}
+		return this.firstFiles.get(w.fingerprint());
+	}
+
+	/**
+	 * Registers the fingerprint of a world.
+	 *
+	 * @param w created world.
+	 * @return file path of the earlier world with the same fingerprint (null if
+	 *         the world is new).
+	 */
+	public String register(World w) {
+		return this.register(w.fingerprint(), w.constructFilePath(), w.constructFilePaths());
+	}
+
+	/**
+	 * Registers a fingerprint (in sweep order) and logs it for merging the shards
+	 * if the world is new (see logging.FingerprintLogger).
+	 */
+	private String register(long fingerprint, String path, String[] files) {
+		String first = this.firstFiles.putIfAbsent(fingerprint, path);
+		if (first == null && Main.fingerprints != null) {
+			Main.fingerprints.addLines(path, fingerprint, files);
+		}
+		return first;
+	}
+
+	/**
+	 * Registers a world of a parallel sweep when it is committed, i.e. in sweep
+	 * order. If it turns out to be a duplicate then, it is added to the final
+	 * report (its model files are deleted by
+	 * {@link #deleteOnCommitIfRejected(World, BooleanSupplier)}).
+	 *
+	 * @param w created world (not decided by {@link #check(World)}).
+	 * @return condition that holds when the world has been committed as a new
+	 *         world (for the world's output, see
+	 *         {@link SweepExecutor#runCommitsIf(BooleanSupplier, Runnable)}).
+	 */
+	public BooleanSupplier registerOnCommit(World w) {
+		long fingerprint = w.fingerprint();
+		String path = w.constructFilePath();
+		String[] files = w.constructFilePaths();
+		boolean[] accepted = new boolean[1];
+		SweepExecutor.commit(() -> {
+			String first = this.register(fingerprint, path, files);
+			accepted[0] = first == null;
+			if (first != null) {
+				ConfigSingle.getInstance().getProgressLogger().addToDuplicateFiles(path, first);
+			}
+		});
+		return () -> accepted[0];
+	}
+
+	/**
+	 * Deletes the model files of a world of a parallel sweep when it is
+	 * committed, if it has been rejected then. Commits are run while the sweep
+	 * goes on, so this has to be called after the files have been written (or
+	 * queued for writing).
+	 *
+	 * @param w        world that has been written.
+	 * @param accepted condition returned by {@link #registerOnCommit(World)}.
+	 */
+	public void deleteOnCommitIfRejected(World w, BooleanSupplier accepted) {
+		String[] files = w.constructFilePaths();
+		SweepExecutor.commit(() -> {
+			if (!accepted.getAsBoolean()) {
+				Main.mfw.delete(files);
+			}
+		});
+	}
+
+	public int getRegenerations() {
+		return this.regenerations;
+	}
+
+	/**
+	 * Writes the registered fingerprints (for a checkpoint).
+	 *
+	 * @param out stream to write to.
+	 * @throws IOException if writing fails.
+	 */
+	void write(DataOutputStream out) throws IOException {
+		out.writeInt(this.firstFiles.size());
+		for (Map.Entry<Long, String> e : this.firstFiles.entrySet()) {
+			out.writeLong(e.getKey());
+			out.writeUTF(e.getValue());
+		}
+	}
+
+	/**
+	 * Reads what {@link #write(DataOutputStream)} has written.
+	 *
+	 * @param in stream to read from.
+	 * @throws IOException if reading fails.
+	 */
+	void read(DataInputStream in) throws IOException {
+		this.firstFiles = new ConcurrentHashMap<Long, String>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			this.firstFiles.put(in.readLong(), in.readUTF());
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package blogbuilder;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * List of world elements (logvars, randvars, factors) that can be shared
+ * between a world and the worlds derived from it.
+ *
+ * A snapshot ({@link #snapshot()}) shares the backing list with the original
+ * and only remembers its own size. Appending to the list that reaches the end
+ * of the backing list (usually the newest world) is done in place; any other
+ * change copies the backing list first (copy-on-write). Deriving a world from
+ * its predecessor thus costs O(1) instead of copying all its elements, and
+ * each world only adds its delta.
+ *
+ * @param <T> element type.
+ */
+public class ElementList<T> extends AbstractList<T> implements RandomAccess {
+
+	private ArrayList<T> backing;
+
+	private int size;
+
+	/**
+	 * True if another ElementList might use the same backing list.
+	 */
+	private boolean shared;
+
+	public ElementList() {
+		this.backing = new ArrayList<T>();
+	}
+
+	/**
+	 * Creates a list that contains the given elements.
+	 *
+	 * @param elements elements to be copied into the list.
+	 */
+	public ElementList(Collection<? extends T> elements) {
+		this.backing = new ArrayList<T>(elements);
+		this.size = this.backing.size();
+	}
+
+	private ElementList(ArrayList<T> backing, int size) {
+		this.backing = backing;
+		this.size = size;
+		this.shared = true;
+	}
+
+	/**
+	 * Returns a list with the same elements that shares the backing list with
+	 * this list (O(1)). Later changes of either list are not visible in the other.
+	 *
+	 * @return snapshot of this list.
+	 */
+	public ElementList<T> snapshot() {
+		this.shared = true;
+		return new ElementList<T>(this.backing, this.size);
+	}
+
+	@Override
+	public T get(int index) {
+		this.checkIndex(index);
+		return this.backing.get(index);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean add(T e) {
+		if (this.size != this.backing.size()) {
+			this.copyBacking();
+		}
+		this.backing.add(e);
+		this.size++;
+		this.modCount++;
+		return true;
+	}
+
+	@Override
+	public void add(int index, T e) {
+		if (index == this.size) {
+			this.add(e);
+			return;
+		}
+		this.checkIndex(index);
+		this.copyIfShared();
+		this.backing.add(index, e);
+		this.size++;
+		this.modCount++;
+	}
+
+	@Override
+	public T set(int index, T e) {
+		this.checkIndex(index);
+		this.copyIfShared();
+		return this.backing.set(index, e);
+	}
+
+	@Override
+	public T remove(int index) {
+		this.checkIndex(index);
+		this.copyIfShared();
+		this.size--;
+		this.modCount++;
+		return this.backing.remove(index);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+
+	private void copyIfShared() {
+		if (this.shared || this.size != this.backing.size()) {
+			this.copyBacking();
+		}
+	}
+
+	private void copyBacking() {
+		this.backing = new ArrayList<T>(this.backing.subList(0, this.size));
+		this.shared = false;
+	}
+}
@@ -0,0 +1,25 @@
+package blogbuilder;
+
+/**
+ * Runs an inference engine on a model file, e.g. to find the largest world an
+ * engine can handle (see strategies.SizeBisection).
+ */
+public interface EngineRunner {
+
+	/**
+	 * Outcome of a run.
+	 */
+	public enum Result {
+		OK, TIMEOUT, ERROR
+	}
+
+	/**
+	 * Runs the engine on a model file and waits until it is done or the timeout
+	 * has passed (then the engine is stopped).
+	 * 
+	 * @param file      path of the model file.
+	 * @param timeoutMs timeout in ms.
+	 * @return outcome of the run.
+	 */
+	public Result run(String file, long timeoutMs);
+}
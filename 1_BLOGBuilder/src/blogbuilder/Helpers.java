@@ -1,8 +1,19 @@
 package blogbuilder;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Random;
 
 public interface Helpers {
 
@@ -39,23 +50,7 @@ public interface Helpers {
 	 */
 	public static PrintStream createFilePrintStream(final String path) {
 		try {
-			final File file = new File(path);
-			if (!file.getParentFile().exists()) {
-				System.out.println("   Parent directory does not exist. Creating directories: " + file.getParentFile().getPath());
-				file.getParentFile().mkdirs();
-			}
-			if (!file.createNewFile()) {
-				System.out.println("   Cannot create file (already exists): " + file.getPath());
-				System.out.println("   Deleting the file and writing to new file.");
-				file.delete();
-				file.createNewFile();
-				// System.exit(1);
-			}
-			if (!file.canWrite()) {
-				System.err.println("   Cannot write to file: " + file.getPath());
-				System.exit(1);
-			}
-			return new PrintStream(new FileOutputStream(file));
+			return new PrintStream(new FileOutputStream(prepareOutputFile(path)));
 		} catch (Exception ex) {
 			System.err.println("   Cannot create/open a file for output: " + path);
 			System.err.println(ex);
@@ -63,4 +58,157 @@ public interface Helpers {
 			return null;
 		}
 	}
+
+	/**
+	 * Creates a buffered Writer to a specified path (see
+	 * {@link #createFilePrintStream(String)} for the handled cases). Used for
+	 * model files, which are written piece by piece.
+	 * 
+	 * @param path to the file
+	 * @return Writer object (has to be closed by the caller).
+	 */
+	public static Writer createFileWriter(final String path) {
+		try {
+			return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(prepareOutputFile(path)),
+					StandardCharsets.UTF_8), 1 << 16);
+		} catch (Exception ex) {
+			System.err.println("   Cannot create/open a file for output: " + path);
+			System.err.println(ex);
+			System.exit(1);
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the shard index in front of the extension of a file name (e.g.
+	 * ModelSummary.shard2.csv), unless there is only one shard.
+	 * 
+	 * @param name       file name with extension.
+	 * @param shardIndex index of the shard.
+	 * @param shardCount number of shards.
+	 * @return file name of the shard.
+	 */
+	public static String shardFileName(String name, int shardIndex, int shardCount) {
+		if (shardCount <= 1) {
+			return name;
+		}
+		int dot = name.lastIndexOf('.');
+		return name.substring(0, dot) + ".shard" + shardIndex + name.substring(dot);
+	}
+
+	/**
+	 * Creates an empty file at the specified path (creates parent directories,
+	 * replaces an existing file).
+	 * 
+	 * @param path to the file
+	 * @return File object.
+	 * @throws Exception if the file cannot be created.
+	 */
+	public static File prepareOutputFile(final String path) throws Exception {
+		final File file = new File(path);
+		if (!file.getParentFile().exists()) {
+			System.out.println("   Parent directory does not exist. Creating directories: " + file.getParentFile().getPath());
+			file.getParentFile().mkdirs();
+		}
+		if (!file.createNewFile()) {
+			System.out.println("   Cannot create file (already exists): " + file.getPath());
+			System.out.println("   Deleting the file and writing to new file.");
+			file.delete();
+			file.createNewFile();
+			// System.exit(1);
+		}
+		if (!file.canWrite()) {
+			System.err.println("   Cannot write to file: " + file.getPath());
+			System.exit(1);
+		}
+		return file;
+	}
+
+	/**
+	 * Writes a file that consists of the given header and the content of another
+	 * file from position bodyStart on. The content is copied channel to channel,
+	 * i.e. without passing it through the heap.
+	 * 
+	 * @param srcPath   file to copy the body from.
+	 * @param bodyStart position in srcPath where the body starts.
+	 * @param header    bytes to be written before the body.
+	 * @param path      file to write.
+	 */
+	public static void copyFileWithHeader(final String srcPath, long bodyStart, byte[] header, final String path) {
+		try (FileChannel src = FileChannel.open(Paths.get(srcPath), StandardOpenOption.READ);
+				FileChannel dest = new FileOutputStream(prepareOutputFile(path)).getChannel()) {
+			ByteBuffer buf = ByteBuffer.wrap(header);
+			while (buf.hasRemaining()) {
+				dest.write(buf);
+			}
+			long pos = bodyStart;
+			long end = src.size();
+			while (pos < end) {
+				pos += src.transferTo(pos, end - pos, dest);
+			}
+		} catch (Exception ex) {
+			System.err.println("   Cannot copy " + srcPath + " to " + path);
+			System.err.println(ex);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Draws count random probabilities between 0 and 1 and writes them with two
+	 * decimals, delimited by ", " (e.g. <code>0.12, 0.34</code>), i.e. the
+	 * content of a MultiArrayPotential.
+	 * 
+	 * The values are formatted into a reused char buffer instead of calling
+	 * String.format per value, so even a factor with 2^20 values is written in
+	 * a few milliseconds without allocations per value.
+	 * 
+	 * @param out   Writer to write to.
+	 * @param r     random object the probabilities are drawn from.
+	 * @param count number of probabilities.
+	 * @throws IOException if writing fails.
+	 */
+	public static void writeRandomPotentials(Writer out, Random r, int count) throws IOException {
+		char[] buf = new char[Math.min(count, 1024) * 8];
+		int len = 0;
+		for (int i = 0; i < count; i++) {
+			if (len > buf.length - 8) {
+				out.write(buf, 0, len);
+				len = 0;
+			}
+			if (i > 0) {
+				buf[len++] = ',';
+				buf[len++] = ' ';
+			}
+			len = appendTwoDecimals(r.nextDouble(), buf, len);
+		}
+		out.write(buf, 0, len);
+	}
+
+	/**
+	 * Writes a probability with two decimals into buf, with the same result as
+	 * <code>String.format(Locale.ROOT, "%.2f", d)</code>. Values very close to a
+	 * rounding tie (and values outside [0, 1]) are formatted by String.format,
+	 * as its rounding of ties depends on the decimal representation of d.
+	 * 
+	 * @param d   value to be formatted.
+	 * @param buf buffer with at least 4 free chars (more if d > 9.995).
+	 * @param pos position in buf.
+	 * @return position after the written chars.
+	 */
+	public static int appendTwoDecimals(double d, char[] buf, int pos) {
+		double x = d * 100;
+		double floor = Math.floor(x);
+		double frac = x - floor;
+		if (!(d >= 0 && d <= 1) || Math.abs(frac - 0.5) < 1e-6) {
+			String s = String.format(Locale.ROOT, "%.2f", d);
+			s.getChars(0, s.length(), buf, pos);
+			return pos + s.length();
+		}
+		int hundredths = (int) floor + (frac > 0.5 ? 1 : 0);
+		buf[pos++] = (char) ('0' + hundredths / 100);
+		buf[pos++] = '.';
+		buf[pos++] = (char) ('0' + hundredths / 10 % 10);
+		buf[pos++] = (char) ('0' + hundredths % 10);
+		return pos;
+	}
 }
@@ -0,0 +1,395 @@
+package blogbuilder;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Predictors of the cost of (lifted or ground) inference on a world, for all
+ * its domain sizes (every logvar has the domain size of the file):
+ * <ul>
+ * <li>ground randvars and factors: a randvar with k logvars has d^k
+ * groundings, a factor with k distinct logvars in its arguments has d^k
+ * groundings,</li>
+ * <li>treewidth of the lifted interaction graph (the randvar co-occurrence
+ * graph, see {@link CoOccurrenceGraph}): the degeneracy as lower bound and the
+ * width of a min-degree elimination order as upper bound,</li>
+ * <li>junction tree of that elimination order: log2 of the summed table sizes
+ * of its clusters (randvars are boolean),</li>
+ * <li>treewidth of the ground interaction graph (upper bound): eliminating all
+ * groundings of a randvar together turns every lifted cluster into a ground
+ * cluster of the summed groundings of its randvars.</li>
+ * </ul>
+ *
+ * All values are computed in near-linear time: the lower bound with a bucket
+ * queue in O(V + E), the elimination with a priority queue in
+ * O(fill * log V). The elimination is given up (width -1) if its fill exceeds
+ * a budget that is linear in the size of the graph.
+ */
+public class InferenceCost {
+
+	/**
+	 * Elimination work per edge (and randvar) after which the min-degree
+	 * elimination is given up.
+	 */
+	private static final int WORK_PER_ELEMENT = 16;
+
+	private final int[] domainSizes;
+	private final long[] groundRandVars;
+	private final long[] groundFactors;
+	private final long[] groundWidth;
+	private int liftedWidthLowerBound;
+	private int liftedWidth = -1;
+	private double junctionTreeLog2Size = -1;
+
+	/**
+	 * Summed table sizes and largest ground cluster for each domain size of the
+	 * clusters recorded so far (during the elimination).
+	 */
+	private double tableSum;
+	private long[] groundCluster;
+
+	private InferenceCost(int[] domainSizes) {
+		this.domainSizes = domainSizes;
+		this.groundRandVars = new long[domainSizes.length];
+		this.groundFactors = new long[domainSizes.length];
+		this.groundWidth = new long[domainSizes.length];
+		Arrays.fill(this.groundWidth, -1);
+	}
+
+	/**
+	 * Computes the predictors of a world.
+	 *
+	 * @param c           world (compact representation).
+	 * @param domainSizes domain sizes of the world's files.
+	 * @return cost predictors.
+	 */
+	public static InferenceCost of(CompactWorld c, int[] domainSizes) {
+		InferenceCost cost = new InferenceCost(domainSizes);
+
+		int[] rvLogVars = new int[c.getRandVarCount()];
+		for (int rv = 0; rv < rvLogVars.length; rv++) {
+			rvLogVars[rv] = c.getRandVarArgCount(rv);
+		}
+		int[] facLogVars = countFactorLogVars(c);
+
+		for (int d = 0; d < domainSizes.length; d++) {
+			for (int k : rvLogVars) {
+				cost.groundRandVars[d] = addSaturated(cost.groundRandVars[d], power(domainSizes[d], k));
+			}
+			for (int k : facLogVars) {
+				cost.groundFactors[d] = addSaturated(cost.groundFactors[d], power(domainSizes[d], k));
+			}
+		}
+
+		CoOccurrenceGraph g = CoOccurrenceGraph.of(c);
+		cost.liftedWidthLowerBound = degeneracy(g);
+		cost.eliminate(g, rvLogVars);
+		return cost;
+	}
+
+	/**
+	 * @return number of distinct logvars in the arguments of each factor.
+	 */
+	private static int[] countFactorLogVars(CompactWorld c) {
+		int[] counts = new int[c.getFactorCount()];
+		int[] seen = new int[c.getLogVarCount()];
+		for (int fac = 0; fac < counts.length; fac++) {
+			for (int i = 0; i < c.getFactorArgCount(fac); i++) {
+				int rv = c.getFactorArg(fac, i);
+				for (int j = 0; j < c.getRandVarArgCount(rv); j++) {
+					int lv = c.getRandVarArg(rv, j);
+					if (seen[lv] != fac + 1) {
+						seen[lv] = fac + 1;
+						counts[fac]++;
+					}
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Degeneracy (largest minimum degree over all subgraphs), a lower bound of
+	 * the treewidth. Repeatedly removes a randvar of minimum degree (bucket
+	 * queue, O(V + E)).
+	 */
+	private static int degeneracy(CoOccurrenceGraph g) {
+		int n = g.getRandVarCount();
+		if (n == 0) {
+			return 0;
+		}
+		int[] degree = new int[n];
+		int maxDegree = 0;
+		for (int v = 0; v < n; v++) {
+			degree[v] = g.getDegree(v);
+			maxDegree = Math.max(maxDegree, degree[v]);
+		}
+
+		// randvars sorted by degree, with the start of each degree's bucket
+		int[] bucketStart = new int[maxDegree + 2];
+		for (int v = 0; v < n; v++) {
+			bucketStart[degree[v] + 1]++;
+		}
+		for (int d = 0; d <= maxDegree; d++) {
+			bucketStart[d + 1] += bucketStart[d];
+		}
+		int[] order = new int[n];
+		int[] position = new int[n];
+		int[] next = Arrays.copyOf(bucketStart, maxDegree + 1);
+		for (int v = 0; v < n; v++) {
+			position[v] = next[degree[v]]++;
+			order[position[v]] = v;
+		}
+
+		int result = 0;
+		for (int i = 0; i < n; i++) {
+			int v = order[i];
+			result = Math.max(result, degree[v]);
+			for (int k = 0; k < g.getDegree(v); k++) {
+				int u = g.getNeighbour(v, k);
+				if (degree[u] > degree[v]) {
+					// move u to the front of its bucket, then shrink the bucket
+					int du = degree[u];
+					int pu = position[u];
+					int pw = bucketStart[du];
+					int w = order[pw];
+					if (u != w) {
+						order[pu] = w;
+						position[w] = pu;
+						order[pw] = u;
+						position[u] = pw;
+					}
+					bucketStart[du]++;
+					degree[u]--;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes only the width of the min-degree elimination order of a randvar
+	 * co-occurrence graph (upper bound of its treewidth, see
+	 * {@link #getLiftedWidth()}), e.g. to re-evaluate a world after an edit. Needs
+	 * no compact world, no sorted graph and no ground counts.
+	 *
+	 * @param adjacency neighbours of each randvar (each edge in both lists); the
+	 *                  lists are changed by the elimination.
+	 * @return width (-1 if the elimination was given up).
+	 */
+	public static int liftedWidth(int[][] adjacency) {
+		int n = adjacency.length;
+		int[] size = new int[n];
+		long edges = 0;
+		for (int v = 0; v < n; v++) {
+			size[v] = adjacency[v].length;
+			edges += size[v];
+		}
+		return eliminate(adjacency, size, edges / 2, null, null);
+	}
+
+	/**
+	 * Eliminates the randvars of the graph in min-degree order and records the
+	 * width, the cluster sizes and the ground widths.
+	 */
+	private void eliminate(CoOccurrenceGraph g, int[] rvLogVars) {
+		int n = g.getRandVarCount();
+		int[][] adjacency = new int[n][];
+		int[] size = new int[n];
+		for (int v = 0; v < n; v++) {
+			adjacency[v] = new int[g.getDegree(v)];
+			for (int k = 0; k < g.getDegree(v); k++) {
+				adjacency[v][k] = g.getNeighbour(v, k);
+			}
+			size[v] = g.getDegree(v);
+		}
+
+		this.tableSum = 0;
+		this.groundCluster = new long[this.domainSizes.length];
+		int width = eliminate(adjacency, size, g.getEdgeCount(), this, rvLogVars);
+		if (width < 0) {
+			return;
+		}
+		this.liftedWidth = width;
+		this.junctionTreeLog2Size = this.tableSum == 0 ? 0 : Math.log(this.tableSum) / Math.log(2);
+		for (int d = 0; d < this.domainSizes.length; d++) {
+			this.groundWidth[d] = this.groundCluster[d] - 1;
+		}
+	}
+
+	/**
+	 * Eliminates the randvars in min-degree order (adding fill edges between the
+	 * neighbours of an eliminated randvar). Gives up if the work exceeds the
+	 * budget.
+	 *
+	 * @param adjacency neighbours of each randvar (changed).
+	 * @param size      number of neighbours in each list (changed).
+	 * @param edges     number of edges (for the budget).
+	 * @param cost      predictors to record the clusters in (null: width only).
+	 * @param rvLogVars number of logvars of each randvar (if cost is set).
+	 * @return width (-1 if the elimination was given up).
+	 */
+	private static int eliminate(int[][] adjacency, int[] size, long edges, InferenceCost cost, int[] rvLogVars) {
+		int n = adjacency.length;
+		long budget = (long) WORK_PER_ELEMENT * (n + edges) + 1024;
+		long work = 0;
+
+		boolean[] eliminated = new boolean[n];
+		int[] degree = Arrays.copyOf(size, n);
+		int[] mark = new int[n];
+		int visit = 0;
+		PriorityQueue<Long> queue = new PriorityQueue<Long>(Math.max(n, 1));
+		for (int v = 0; v < n; v++) {
+			queue.add(((long) degree[v] << 32) | v);
+		}
+
+		int width = 0;
+		int[] cluster = new int[16];
+		while (!queue.isEmpty()) {
+			long entry = queue.poll();
+			int v = (int) entry;
+			if (eliminated[v] || (int) (entry >>> 32) != degree[v]) {
+				continue;
+			}
+
+			// live neighbours of v (removes eliminated ones from its list)
+			int clusterSize = 0;
+			for (int k = 0; k < size[v]; k++) {
+				int u = adjacency[v][k];
+				if (!eliminated[u]) {
+					if (clusterSize == cluster.length) {
+						cluster = Arrays.copyOf(cluster, clusterSize * 2);
+					}
+					cluster[clusterSize++] = u;
+				}
+			}
+			eliminated[v] = true;
+
+			width = Math.max(width, clusterSize);
+			if (cost != null) {
+				cost.addCluster(v, cluster, clusterSize, rvLogVars);
+			}
+
+			// connect the neighbours pairwise (fill)
+			for (int i = 0; i < clusterSize; i++) {
+				int u = cluster[i];
+				visit++;
+				int live = 0;
+				for (int k = 0; k < size[u]; k++) {
+					int w = adjacency[u][k];
+					if (!eliminated[w]) {
+						mark[w] = visit;
+						adjacency[u][live++] = w;
+					}
+				}
+				size[u] = live;
+				work += live + clusterSize;
+				for (int j = 0; j < clusterSize; j++) {
+					int w = cluster[j];
+					if (w != u && mark[w] != visit) {
+						if (size[u] == adjacency[u].length) {
+							adjacency[u] = Arrays.copyOf(adjacency[u], Math.max(size[u] * 2, 1));
+						}
+						adjacency[u][size[u]++] = w;
+					}
+				}
+				if (degree[u] != size[u]) {
+					degree[u] = size[u];
+					queue.add(((long) degree[u] << 32) | u);
+				}
+			}
+			if (work > budget) {
+				return -1;
+			}
+		}
+		return width;
+	}
+
+	/**
+	 * Records the junction tree cluster of an eliminated randvar v and its live
+	 * neighbours.
+	 */
+	private void addCluster(int v, int[] cluster, int clusterSize, int[] rvLogVars) {
+		this.tableSum += Math.pow(2, clusterSize + 1);
+		for (int d = 0; d < this.domainSizes.length; d++) {
+			long ground = power(this.domainSizes[d], rvLogVars[v]);
+			for (int i = 0; i < clusterSize; i++) {
+				ground = addSaturated(ground, power(this.domainSizes[d], rvLogVars[cluster[i]]));
+			}
+			this.groundCluster[d] = Math.max(this.groundCluster[d], ground);
+		}
+	}
+
+	private static long power(long base, int exponent) {
+		long result = 1;
+		for (int i = 0; i < exponent; i++) {
+			if (result > Long.MAX_VALUE / Math.max(base, 1)) {
+				return Long.MAX_VALUE;
+			}
+			result *= base;
+		}
+		return result;
+	}
+
+	private static long addSaturated(long a, long b) {
+		long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * @return ground randvars for each domain size (comma separated, like the
+	 *         domain sizes in the file names).
+	 */
+	public String getGroundRandVars() {
+		return join(this.groundRandVars);
+	}
+
+	/**
+	 * @return ground factors for each domain size (comma separated).
+	 */
+	public String getGroundFactors() {
+		return join(this.groundFactors);
+	}
+
+	/**
+	 * @return upper bound of the ground treewidth for each domain size (comma
+	 *         separated, -1 if the elimination was given up).
+	 */
+	public String getGroundWidth() {
+		return join(this.groundWidth);
+	}
+
+	/**
+	 * @return lower bound of the lifted treewidth (degeneracy).
+	 */
+	public int getLiftedWidthLowerBound() {
+		return this.liftedWidthLowerBound;
+	}
+
+	/**
+	 * @return width of the min-degree elimination order (upper bound of the
+	 *         lifted treewidth, -1 if the elimination was given up).
+	 */
+	public int getLiftedWidth() {
+		return this.liftedWidth;
+	}
+
+	/**
+	 * @return log2 of the summed table sizes of the junction tree clusters (-1 if
+	 *         the elimination was given up).
+	 */
+	public double getJunctionTreeLog2Size() {
+		return this.junctionTreeLog2Size;
+	}
+
+	private static String join(long[] values) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(values[i]);
+		}
+		return sb.toString();
+	}
+}
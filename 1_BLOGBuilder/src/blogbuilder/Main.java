@@ -1,17 +1,54 @@
 package blogbuilder;
 
+import logging.BisectionLogger;
+import logging.CoOccurrenceLogger;
+import logging.CostLogger;
+import logging.FingerprintLogger;
 import logging.RVOccDistLogger;
+import logging.ShardMerger;
 import logging.SummaryFileWriter;
 import strategies.*;
 
 public class Main {
 
 	public static String outputPath = "out";
-	public static SummaryFileWriter sfw = new SummaryFileWriter(outputPath);
-	public static RVOccDistLogger odl = new RVOccDistLogger(outputPath);
+	public static SummaryFileWriter sfw;
+	public static RVOccDistLogger odl;
+	public static CoOccurrenceLogger col;
+	public static ModelFileWriter mfw;
+	public static CostLogger cost;
+	public static ModelStore store;
+	public static BisectionLogger bisection;
+	public static FingerprintLogger fingerprints;
+
+	private static boolean resume = false;
+
+	private static int mergeShards = 0;
+
+	private static boolean costLog = false;
+
+	private static boolean dedup = false;
+
+	private static String bisectCommand = null;
+
+	private static int bisectTimeout = 60;
+
+	private static int bisectDomain = 0;
 
 	public static void main(String[] args) {
 		ConfigSingle.getInstance().verbose = true;
+		parseArgs(args);
+		if (mergeShards > 0) {
+			ShardMerger.merge(outputPath, mergeShards);
+			return;
+		}
+		if (resume) {
+			ConfigSingle.getInstance().resumeFrom = Checkpoint.load();
+			if (ConfigSingle.getInstance().resumeFrom == null) {
+				System.out.println("No checkpoint found in " + outputPath + ", starting from the beginning.");
+			}
+		}
+		openSummaryFiles();
 
 		//WorldCreationStrategy strat = new RandomSampleStrategy();
 		//WorldCreationStrategy strat = new RandVarOccAugmStrategy();
@@ -22,12 +59,203 @@ public class Main {
 		//WorldCreationStrategy strat = new ParallelFactorArgsAugmentationStrategy();
 		WorldCreationStrategy strat = new IncDegreeStrategy();
 
-		strat.start();
+		if (bisectCommand != null) {
+			new SizeBisection(new CommandEngineRunner(bisectCommand, outputPath + "/BisectionEngine.log"),
+					bisectTimeout * 1000L, bisectDomain).run(strat);
+		} else {
+			strat.start();
+		}
+		mfw.close();
+		if (store != null) {
+			store.close();
+		}
 		strat.createWorldCreationSummary();
 		
 		ConfigSingle.getInstance().getProgressLogger().logFinalReport();
 		
 		sfw.close();
 		odl.close();
+		col.close();
+		if (cost != null) {
+			cost.close();
+		}
+		if (bisection != null) {
+			bisection.close();
+		}
+		if (fingerprints != null) {
+			fingerprints.close();
+		}
+		Checkpoint.delete();
+	}
+	
+	/**
+	 * Creates the summary files in the output path. Not done when the class is
+	 * loaded, so BLOGBuilder can be used as a library (see
+	 * {@link WorldCreationStrategy#worlds()}) without creating any files.
+	 */
+	public static void openSummaryFiles() {
+		sfw = new SummaryFileWriter(outputPath);
+		odl = new RVOccDistLogger(outputPath);
+		col = new CoOccurrenceLogger(outputPath);
+		mfw = new ModelFileWriter((long) ConfigSingle.getInstance().pipelineBuffer << 20);
+		if (costLog) {
+			cost = new CostLogger(outputPath);
+		}
+		if (dedup) {
+			store = new ModelStore(outputPath);
+		}
+		if (bisectCommand != null) {
+			bisection = new BisectionLogger(outputPath);
+		}
+		if (ConfigSingle.getInstance().duplicates != null && ConfigSingle.getInstance().shardCount > 1) {
+			// duplicates across shards are rejected when merging
+			fingerprints = new FingerprintLogger(outputPath);
+		}
+	}
+
+	/**
+	 * Parses the command line options:
+	 * <ul>
+	 * <li><code>--threads n</code>: create independent worlds on n threads (default: 1).
+	 * The created files are the same as with 1 thread.</li>
+	 * <li><code>--compact</code>: sample random worlds as int arrays (see
+	 * {@link CompactWorld}), for worlds with millions of factors.</li>
+	 * <li><code>--pipeline mb</code>: write the model files on a separate thread
+	 * while the next worlds are created, with at most mb MB of files waiting to
+	 * be written (see {@link ModelFileWriter}).</li>
+	 * <li><code>--log-flush-size chars</code>, <code>--log-flush-interval ms</code>:
+	 * when the buffered summary/log files are written (see
+	 * {@link logging.LogSink}).</li>
+	 * <li><code>--dedup</code>: files that are unchanged since the last run are
+	 * not written again, byte-identical files are stored once (see
+	 * {@link ModelStore}).</li>
+	 * <li><code>--reject-duplicates</code>: do not write worlds that are
+	 * identical up to renaming to an earlier world of the sweep (see
+	 * {@link DuplicateFilter}).</li>
+	 * <li><code>--regenerate-duplicates n</code>: like
+	 * <code>--reject-duplicates</code>, but the first world of a series is
+	 * created again with another random stream (at most n times) if it is a
+	 * duplicate. The sweep then runs on a single thread.</li>
+	 * <li><code>--cost-log</code>: log the predicted and actual cost of every
+	 * world to WorldCost.csv (see {@link CostModel}).</li>
+	 * <li><code>--checkpoint n</code>: save a checkpoint after every n-th world
+	 * (see {@link Checkpoint}).</li>
+	 * <li><code>--resume</code>: continue the sweep from the checkpoint in the
+	 * output path. The files are the same as without interruption.</li>
+	 * <li><code>--shard i/n</code>: create only part i (0 .. n-1) of the sweep, e.g.
+	 * on n machines (see {@link SweepExecutor#selectShard(java.util.List)}). The
+	 * summary files get the shard index (e.g. ModelSummary.shard0.csv).</li>
+	 * <li><code>--bisect "command"</code>: instead of the whole sweep, find the
+	 * largest world of every series that the engine command (e.g.
+	 * <code>"java -jar fojt.jar {file}"</code>) handles within the timeout, by
+	 * bisecting over the steps of the series (see {@link SizeBisection} and
+	 * {@link CommandEngineRunner}).</li>
+	 * <li><code>--bisect-timeout s</code>: timeout of an engine run in seconds
+	 * (default: 60).</li>
+	 * <li><code>--bisect-domain max</code>: bisect over the domain size (1 ..
+	 * max) of the first world of every series instead.</li>
+	 * <li><code>--merge-shards n</code>: merge the summary files of n shards in
+	 * the output path into the files of a single run (see
+	 * {@link ShardMerger}) and exit.</li>
+	 * </ul>
+	 * 
+	 * @param args command line arguments.
+	 */
+	private static void parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--threads":
+				ConfigSingle.getInstance().threads = parseIntOption(args, ++i);
+				break;
+			case "--compact":
+				ConfigSingle.getInstance().compact = true;
+				break;
+			case "--pipeline":
+				ConfigSingle.getInstance().pipelineBuffer = parseIntOption(args, ++i);
+				break;
+			case "--log-flush-size":
+				ConfigSingle.getInstance().logFlushSize = parseIntOption(args, ++i);
+				break;
+			case "--log-flush-interval":
+				ConfigSingle.getInstance().logFlushInterval = parseIntOption(args, ++i);
+				break;
+			case "--dedup":
+				dedup = true;
+				break;
+			case "--reject-duplicates":
+				ConfigSingle.getInstance().duplicates = new DuplicateFilter(0);
+				break;
+			case "--regenerate-duplicates":
+				ConfigSingle.getInstance().duplicates = new DuplicateFilter(parseIntOption(args, ++i));
+				break;
+			case "--cost-log":
+				costLog = true;
+				break;
+			case "--checkpoint":
+				ConfigSingle.getInstance().checkpointInterval = parseIntOption(args, ++i);
+				break;
+			case "--shard":
+				parseShardOption(args, ++i);
+				break;
+			case "--merge-shards":
+				mergeShards = parseIntOption(args, ++i);
+				break;
+			case "--bisect":
+				bisectCommand = parseStringOption(args, ++i);
+				break;
+			case "--bisect-timeout":
+				bisectTimeout = parseIntOption(args, ++i);
+				break;
+			case "--bisect-domain":
+				bisectDomain = parseIntOption(args, ++i);
+				break;
+			case "--resume":
+				resume = true;
+				break;
+			default:
+				System.err.println("Unknown option: " + args[i]);
+				System.exit(1);
+			}
+		}
+		DuplicateFilter duplicates = ConfigSingle.getInstance().duplicates;
+		if (duplicates != null && duplicates.getRegenerations() > 0 && ConfigSingle.getInstance().threads > 1) {
+			// a regenerated world has to be decided before its series goes on
+			System.out.println("Duplicates are regenerated in sweep order, running on a single thread.");
+			ConfigSingle.getInstance().threads = 1;
+		}
+	}
+	
+	private static void parseShardOption(String[] args, int i) {
+		try {
+			String[] parts = args[i].split("/");
+			int index = Integer.parseInt(parts[0]);
+			int count = Integer.parseInt(parts[1]);
+			if (parts.length != 2 || count < 1 || index < 0 || index >= count) {
+				throw new NumberFormatException(args[i]);
+			}
+			ConfigSingle.getInstance().shardIndex = index;
+			ConfigSingle.getInstance().shardCount = count;
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			System.err.println("Option --shard needs a value i/n with 0 <= i < n.");
+			System.exit(1);
+		}
+	}
+
+	private static String parseStringOption(String[] args, int i) {
+		if (i >= args.length) {
+			System.err.println("Option " + args[i - 1] + " needs a value.");
+			System.exit(1);
+		}
+		return args[i];
+	}
+
+	private static int parseIntOption(String[] args, int i) {
+		try {
+			return Integer.parseInt(args[i]);
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			System.err.println("Option " + args[i - 1] + " needs a number as value.");
+			System.exit(1);
+			return -1;
+		}
 	}
 }
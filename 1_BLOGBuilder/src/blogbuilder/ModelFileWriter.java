@@ -0,0 +1,161 @@
+package blogbuilder;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the model files of the created worlds.
+ *
+ * Without a buffer the files are written by the thread that created the world
+ * (see {@link World#createFiles()}). With a buffer (pipelined mode, option
+ * <code>--pipeline</code>), the creating thread only renders the files into
+ * memory and hands them to a writer thread, so the next world is created while
+ * the disk is busy. The writer takes all queued worlds at once and writes them
+ * in a batch.
+ *
+ * The queue is bounded by the number of rendered bytes: a creating thread
+ * waits as long as the queue would exceed the buffer size (a single world that
+ * is larger than the buffer is accepted when the queue is empty). Thus memory
+ * stays bounded if the creation is faster than the disk.
+ */
+public class ModelFileWriter {
+
+	/**
+	 * Maximal number of queued bytes (0: no writer thread).
+	 */
+	private final long bufferSize;
+
+	private final ArrayDeque<ModelFiles> queue = new ArrayDeque<ModelFiles>();
+
+	/**
+	 * Number of bytes in the queue and in the batch that is currently written.
+	 */
+	private long pendingBytes = 0;
+
+	private boolean closed = false;
+
+	private Thread writer;
+
+	/**
+	 * @param bufferSize maximal number of bytes of rendered worlds waiting to be
+	 *                   written (<= 0: write synchronously).
+	 */
+	public ModelFileWriter(long bufferSize) {
+		this.bufferSize = Math.max(bufferSize, 0);
+		if (this.bufferSize > 0) {
+			this.writer = new Thread(this::writeQueued, "model-file-writer");
+			this.writer.setDaemon(true);
+			this.writer.start();
+		}
+	}
+
+	/**
+	 * Writes the model files of a world: immediately, or renders them and queues
+	 * them for the writer thread (blocks while the queue is full).
+	 *
+	 * @param w world whose files shall be written.
+	 */
+	public void write(World w) {
+		if (this.writer == null) {
+			w.createFiles();
+			return;
+		}
+
+		ModelFiles files = w.renderFiles();
+		long size = files.getSize();
+		synchronized (this) {
+			while (this.pendingBytes > 0 && this.pendingBytes + size > this.bufferSize) {
+				this.await();
+			}
+			this.queue.add(files);
+			this.pendingBytes += size;
+			this.notifyAll();
+		}
+	}
+
+	/**
+	 * Loop of the writer thread: takes all queued worlds and writes them.
+	 */
+	private void writeQueued() {
+		List<ModelFiles> batch = new ArrayList<ModelFiles>();
+		while (true) {
+			synchronized (this) {
+				while (this.queue.isEmpty() && !this.closed) {
+					this.await();
+				}
+				if (this.queue.isEmpty()) {
+					return;
+				}
+				batch.addAll(this.queue);
+				this.queue.clear();
+			}
+
+			long written = 0;
+			for (ModelFiles files : batch) {
+				files.write();
+				written += files.getSize();
+			}
+			batch.clear();
+
+			synchronized (this) {
+				this.pendingBytes -= written;
+				this.notifyAll();
+			}
+		}
+	}
+
+	private void await() {
+		try {
+			this.wait();
+		} catch (InterruptedException e) {
+			System.err.println("Writing model files interrupted.");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Waits until all queued files are written.
+	 */
+	public synchronized void flush() {
+		while (this.pendingBytes > 0) {
+			this.await();
+		}
+	}
+
+	/**
+	 * Deletes model files that have been written or queued already (e.g. of a
+	 * world that has turned out to be a duplicate, see {@link DuplicateFilter}).
+	 *
+	 * @param paths paths of the files.
+	 */
+	public void delete(String[] paths) {
+		this.flush();
+		for (String path : paths) {
+			new File(path).delete();
+			if (Main.store != null) {
+				Main.store.remove(path);
+			}
+		}
+	}
+
+	/**
+	 * Waits until all queued files are written and stops the writer thread.
+	 */
+	public void close() {
+		if (this.writer == null) {
+			return;
+		}
+		synchronized (this) {
+			this.closed = true;
+			this.notifyAll();
+		}
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			System.err.println("Writing model files interrupted.");
+			System.exit(1);
+		}
+	}
+}
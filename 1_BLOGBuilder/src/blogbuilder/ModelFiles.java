@@ -0,0 +1,66 @@
+package blogbuilder;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * The model files of a world rendered into memory (see
+ * {@link World#renderFiles()}), so they can be written by another thread than
+ * the one that created the world.
+ *
+ * All files share the body (randvars, factors, queries and summary) and only
+ * differ in their header (logvar declarations with the domain size).
+ */
+public class ModelFiles {
+
+	private final String[] paths;
+	private final byte[][] headers;
+	private final byte[] body;
+
+	/**
+	 * @param paths   path of each file.
+	 * @param headers header of each file.
+	 * @param body    body of all files.
+	 */
+	public ModelFiles(String[] paths, byte[][] headers, byte[] body) {
+		this.paths = paths;
+		this.headers = headers;
+		this.body = body;
+	}
+
+	/**
+	 * @return number of bytes held in memory.
+	 */
+	public long getSize() {
+		long size = this.body.length;
+		for (byte[] header : this.headers) {
+			size += header.length;
+		}
+		return size;
+	}
+
+	/**
+	 * Writes all files (one write per header and body), or hands them to the
+	 * model store if deduplication is enabled (see {@link ModelStore}).
+	 */
+	public void write() {
+		if (Main.store != null) {
+			byte[] bodyHash = Main.store.hashBody(this.body);
+			for (int i = 0; i < this.paths.length; i++) {
+				Main.store.write(this.paths[i], this.headers[i], this.body, bodyHash);
+			}
+			return;
+		}
+
+		for (int i = 0; i < this.paths.length; i++) {
+			try (OutputStream out = new FileOutputStream(Helpers.prepareOutputFile(this.paths[i]))) {
+				out.write(this.headers[i]);
+				out.write(this.body);
+			} catch (Exception e) {
+				System.err.println("   Cannot write model file: " + this.paths[i]);
+				System.err.println(e);
+				System.exit(1);
+			}
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package blogbuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store for model files (option <code>--dedup</code>).
+ *
+ * The main use is rerunning a sweep into the same output path: the manifest
+ * <code>.store/manifest.csv</code> records the hash of every written file, and
+ * a file whose hash has not changed since the last run and that is still
+ * linked to its object is not written again.
+ *
+ * Every model file is stored once under the hash of its content in
+ * <code>.store/</code> of the output path; the file in the output path is a
+ * hard link to the stored object (a copy if the file system has no hard
+ * links). The hash of a file is the SHA-256 of its header (logvar
+ * declarations) and of the hash of the body, which all domain sizes of a
+ * world share and which is hashed only once.
+ *
+ * Only byte-identical files share an object, which is rare within a sweep:
+ * the files of the domain sizes of a world differ in their logvar
+ * declarations, and isomorphic worlds differ in their potentials (such worlds
+ * are found by {@link DuplicateFilter} instead). The store does not cost disk
+ * space of its own if the output files are hard links to it.
+ */
+public class ModelStore {
+
+	private final String storeDir;
+
+	private final String manifestPath;
+
+	/**
+	 * Hash of every file by path (from the manifest of the last run and the
+	 * files written since).
+	 */
+	private final Map<String, String> manifest = new ConcurrentHashMap<String, String>();
+
+	private final AtomicLong stored = new AtomicLong();
+	private final AtomicLong linked = new AtomicLong();
+	private final AtomicLong unchanged = new AtomicLong();
+	private final AtomicLong savedBytes = new AtomicLong();
+
+	/**
+	 * Opens the store in the given output path (reads the manifest of the last
+	 * run if there is one).
+	 *
+	 * @param outputPath output path of the model files.
+	 */
+	public ModelStore(String outputPath) {
+		this.storeDir = outputPath + "/.store";
+		this.manifestPath = this.storeDir + "/manifest.csv";
+		if (!new File(this.manifestPath).exists()) {
+			return;
+		}
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(this.manifestPath), StandardCharsets.UTF_8))) {
+			for (String line; (line = in.readLine()) != null;) {
+				int sep = line.lastIndexOf(';');
+				if (sep > 0) {
+					this.manifest.put(line.substring(0, sep), line.substring(sep + 1));
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("   Cannot read manifest (all files are written again): " + this.manifestPath);
+			this.manifest.clear();
+		}
+	}
+
+	/**
+	 * Hashes the body that the files of a world share.
+	 *
+	 * @param body body of the files.
+	 * @return hash of the body.
+	 */
+	public byte[] hashBody(byte[] body) {
+		return sha256().digest(body);
+	}
+
+	/**
+	 * Writes a model file to the store (if its content is new) and links it to
+	 * the given path (if the path does not have this content yet). Thread-safe.
+	 *
+	 * @param path     path of the model file.
+	 * @param header   header of the file.
+	 * @param body     body of the file.
+	 * @param bodyHash hash of the body (see {@link #hashBody(byte[])}).
+	 */
+	public void write(String path, byte[] header, byte[] body, byte[] bodyHash) {
+		MessageDigest digest = sha256();
+		digest.update(header);
+		digest.update(bodyHash);
+		String hash = toHex(digest.digest());
+		long size = header.length + body.length;
+
+		File file = new File(path);
+		Path object = Paths.get(this.storeDir, hash.substring(0, 2), hash + ".blog");
+		if (hash.equals(this.manifest.get(path)) && isLinkTo(file, object)) {
+			this.unchanged.incrementAndGet();
+			this.savedBytes.addAndGet(size);
+			return;
+		}
+
+		try {
+			if (Files.exists(object)) {
+				this.linked.incrementAndGet();
+				this.savedBytes.addAndGet(size);
+			} else {
+				this.storeObject(object, header, body);
+			}
+
+			if (!file.getParentFile().exists()) {
+				file.getParentFile().mkdirs();
+			}
+			Files.deleteIfExists(file.toPath());
+			try {
+				Files.createLink(file.toPath(), object);
+			} catch (UnsupportedOperationException | IOException e) {
+				Files.copy(object, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (Exception e) {
+			System.err.println("   Cannot write model file: " + path);
+			System.err.println(e);
+			System.exit(1);
+		}
+		this.manifest.put(path, hash);
+	}
+
+	/**
+	 * Forgets a model file that has been deleted (the object stays in the
+	 * store).
+	 *
+	 * @param path path of the model file.
+	 */
+	public void remove(String path) {
+		this.manifest.remove(path);
+	}
+
+	/**
+	 * Checks whether the file is a hard link to the object (a copy or a file
+	 * written without the store does not count, its content may have changed).
+	 */
+	private static boolean isLinkTo(File file, Path object) {
+		try {
+			return file.exists() && Files.isSameFile(file.toPath(), object);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a new object: to a temporary file that is moved to its place, so
+	 * another thread that writes the same content cannot see a partial object.
+	 */
+	private void storeObject(Path object, byte[] header, byte[] body) throws IOException {
+		Files.createDirectories(object.getParent());
+		Path tmp = Files.createTempFile(object.getParent(), "tmp", ".blog");
+		try (OutputStream out = Files.newOutputStream(tmp)) {
+			out.write(header);
+			out.write(body);
+		}
+		try {
+			Files.move(tmp, object, StandardCopyOption.ATOMIC_MOVE);
+			this.stored.incrementAndGet();
+		} catch (FileAlreadyExistsException e) {
+			Files.delete(tmp);
+			this.linked.incrementAndGet();
+			this.savedBytes.addAndGet(header.length + body.length);
+		}
+	}
+
+	/**
+	 * Writes the manifest (e.g. for a checkpoint, the store itself is always up
+	 * to date).
+	 */
+	public synchronized void saveManifest() {
+		try (Writer out = Helpers.createFileWriter(this.manifestPath)) {
+			for (Map.Entry<String, String> e : new TreeMap<String, String>(this.manifest).entrySet()) {
+				out.write(e.getKey());
+				out.write(';');
+				out.write(e.getValue());
+				out.write('\n');
+			}
+		} catch (IOException e) {
+			System.err.println("   Cannot write manifest: " + this.manifestPath);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the manifest and prints how many files were deduplicated.
+	 */
+	public void close() {
+		this.saveManifest();
+		System.out.println("   Model store: " + this.stored + " new files, " + this.linked + " duplicates linked, "
+				+ this.unchanged + " unchanged files skipped (" + (this.savedBytes.get() >> 10) + " KB not written).");
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] digits = "0123456789abcdef".toCharArray();
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = digits[(bytes[i] >> 4) & 0xf];
+			hex[2 * i + 1] = digits[bytes[i] & 0xf];
+		}
+		return new String(hex);
+	}
+}
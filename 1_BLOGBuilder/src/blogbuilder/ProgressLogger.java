@@ -1,7 +1,13 @@
 package blogbuilder;
 
 import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Console log of the world creation. All methods may be called from the
+ * workers of a sweep: messages and list entries are handed to
+ * {@link SweepExecutor#commit(Runnable)} and thus appear in sweep order.
+ */
 public class ProgressLogger {
 
 	/**
@@ -13,14 +19,23 @@ public class ProgressLogger {
 	 * List of files where world deviates from specification.
 	 */
 	private ArrayList<String> specDeviationFiles = new ArrayList<String>();
+
+	/**
+	 * List of rejected duplicate worlds (format: <code>filename (= earlier filename)</code>).
+	 */
+	private ArrayList<String> duplicateFiles = new ArrayList<String>();
+
+	/**
+	 * Number of worlds that have been created again because they were duplicates.
+	 */
+	private int regeneratedDuplicates = 0;
 	
 	/**
 	 * Prints a message to the console indicating the start of the handling of a world.
 	 * @param globalCounter for current file / model.
 	 */
 	public void logWorldStart(int globalCounter) {
-		System.out.println(
-				String.format("# %3d - start...", globalCounter));
+		this.println(String.format("# %3d - start...", globalCounter));
 	}
 	
 	/**
@@ -32,11 +47,13 @@ public class ProgressLogger {
 	 */
 	public void logWorldDone(int globalCounter, World w) {
 		String specDeviationCheck = w.checkForSpecDeviations();
-		if (!specDeviationCheck.equals("")) {
-			System.err.println(specDeviationCheck);
-		}
-		System.out.println(
-				String.format("# %3d - model done - file: %s", globalCounter, w.constructFilePath()));
+		String msg = String.format("# %3d - model done - file: %s", globalCounter, w.constructFilePath());
+		SweepExecutor.commit(() -> {
+			if (!specDeviationCheck.equals("")) {
+				System.err.println(specDeviationCheck);
+			}
+			System.out.println(msg);
+		});
 	}
 	
 	/**
@@ -49,11 +66,13 @@ public class ProgressLogger {
 	 */
 	public void logWorldDone(int globalCounter, int iIncVariable, World w) {
 		String specDeviationCheck = w.checkForSpecDeviations();
-		if (!specDeviationCheck.equals("")) {
-			System.err.println(specDeviationCheck);
-		}
-		System.out.println(
-				String.format("# %3d - %s model done - file: %s", globalCounter, iIncVariable == 0 ? "base" : "augment", w.constructFilePath()));
+		String msg = String.format("# %3d - %s model done - file: %s", globalCounter, iIncVariable == 0 ? "base" : "augment", w.constructFilePath());
+		SweepExecutor.commit(() -> {
+			if (!specDeviationCheck.equals("")) {
+				System.err.println(specDeviationCheck);
+			}
+			System.out.println(msg);
+		});
 	}
 	
 	/**
@@ -62,7 +81,7 @@ public class ProgressLogger {
 	 * @param w world to be inspected.
 	 */
 	public void logWorldSpecParams(World w) {
-		System.out.println(String.format(
+		this.println(String.format(
 				"# [spec]: lv: %2d, rv: %3d, fac: %3d, maxRVargs: %d, maxRVocc: %d, facArgs: %d", 
 				w.getSpecContainer().getLogVarCount(), w.getSpecContainer().getRandVarCount(), 
 				w.getSpecContainer().getFactorCount(), w.getSpecContainer().getMaxRandVarArgs(), 
@@ -75,15 +94,16 @@ public class ProgressLogger {
 	 * @param w world to be inspected.
 	 */
 	public void logWorldRealParams(World w) {
-		System.out.println(String.format(
+		this.println(String.format(
 				" real - lv: %2d, rv: %3d, fac: %3d, maxRVargs: %d, maxRVocc: %d, facArgs: %d, allRVMentioned: %b",
-				w.getLogVars().size(), w.getRandVars().size(), w.searchRealFactors(), w.searchRealMaxRVArgs(),
+				w.getLogVarCount(), w.getRandVarCount(), w.searchRealFactors(), w.searchRealMaxRVArgs(),
 				w.searchRealMaxRVOccurence(), w.searchRealMaxFactorArgCount(), w.checkAllRVMentioned()));
 	}
 	
 	/**
 	 * Prints a final report to the console.
-	 * Includes a) files with non-mentioned randvars, b) files with spec deviations.
+	 * Includes a) files with non-mentioned randvars, b) files with spec deviations,
+	 * c) rejected duplicate worlds (if duplicates are rejected).
 	 */
 	public void logFinalReport() {
 		boolean allOk = true;
@@ -102,6 +122,12 @@ public class ProgressLogger {
 			msg += String.format("> Spec deviations in these %d files:\n  ", this.specDeviationFiles.size()) + String.join("\n  ", this.specDeviationFiles) + "\n\n";
 			allOk = false;
 		}
+
+		if (ConfigSingle.getInstance().duplicates != null) {
+			msg += String.format("%s> %d duplicate worlds regenerated, %d rejected",
+					this.specDeviationFiles.size() == 0 ? "\n" : "", this.regeneratedDuplicates, this.duplicateFiles.size());
+			msg += this.duplicateFiles.size() == 0 ? ".\n" : ":\n  " + String.join("\n  ", this.duplicateFiles) + "\n";
+		}
 		
 		if (allOk) {
 			System.out.println(msg);
@@ -115,7 +141,7 @@ public class ProgressLogger {
 	 * @param filename to be added to the list.
 	 */
 	public void addToAllMentionedFalseFiles(String filename) {
-		this.allMentionedFalseFiles.add(filename);
+		SweepExecutor.commit(() -> this.allMentionedFalseFiles.add(filename));
 	}
 	
 	/**
@@ -124,6 +150,66 @@ public class ProgressLogger {
 	 * @param fileDeviationString to be added to the list.
 	 */
 	public void addToSpecDeviationFiles(String fileDeviationString) {
-		this.specDeviationFiles.add(fileDeviationString);
+		SweepExecutor.commit(() -> this.specDeviationFiles.add(fileDeviationString));
+	}
+	
+	/**
+	 * Add a rejected duplicate world to the final report.
+	 * 
+	 * @param filename      of the rejected world.
+	 * @param firstFilename of the earlier world it is a duplicate of.
+	 */
+	public void addToDuplicateFiles(String filename, String firstFilename) {
+		SweepExecutor.commit(() -> this.duplicateFiles.add(filename + " (= " + firstFilename + ")"));
+	}
+
+	/**
+	 * Count a world that has been created again because it was a duplicate.
+	 */
+	public void addRegeneratedDuplicate() {
+		SweepExecutor.commit(() -> this.regeneratedDuplicates++);
+	}
+	
+	// Entries of the final report are saved with a checkpoint (see Checkpoint).
+
+	ArrayList<String> getAllMentionedFalseFiles() {
+		return new ArrayList<String>(this.allMentionedFalseFiles);
+	}
+
+	void setAllMentionedFalseFiles(List<String> files) {
+		this.allMentionedFalseFiles = new ArrayList<String>(files);
+	}
+
+	ArrayList<String> getSpecDeviationFiles() {
+		return new ArrayList<String>(this.specDeviationFiles);
+	}
+
+	void setSpecDeviationFiles(List<String> files) {
+		this.specDeviationFiles = new ArrayList<String>(files);
+	}
+
+	ArrayList<String> getDuplicateFiles() {
+		return new ArrayList<String>(this.duplicateFiles);
+	}
+
+	void setDuplicateFiles(List<String> files) {
+		this.duplicateFiles = new ArrayList<String>(files);
+	}
+
+	int getRegeneratedDuplicates() {
+		return this.regeneratedDuplicates;
+	}
+
+	void setRegeneratedDuplicates(int count) {
+		this.regeneratedDuplicates = count;
+	}
+
+	/**
+	 * Prints a message to the console (in sweep order).
+	 * 
+	 * @param msg to be printed.
+	 */
+	private void println(String msg) {
+		SweepExecutor.commit(() -> System.out.println(msg));
 	}
 }
@@ -88,6 +88,10 @@ public class SpecContainer {
 		return this.domainSizes;
 	}
 
+	public void setDomainSizes(int[] domainSizes) {
+		this.domainSizes = domainSizes;
+	}
+
 	public int getLogVarCount() {
 		return logVarCount;
 	}
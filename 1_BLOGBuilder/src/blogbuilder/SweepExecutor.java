@@ -0,0 +1,236 @@
+package blogbuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BooleanSupplier;
+
+import strategies.WorldSeries;
+
+/**
+ * Runs the series of a strategy, either one after another or on a
+ * work-stealing pool. On the pool, the series are run in a window that
+ * follows the oldest uncommitted series (the commit head); within the window,
+ * they are started in the order of their estimated cost (largest first, see
+ * {@link CostModel}).
+ *
+ * Both modes produce the same files: every world is created with its own
+ * random stream (see {@link WorldRandom}) and all shared output (summary
+ * lines, console log, final report entries, checkpoints) is handed to
+ * {@link #commit(Runnable)}, which holds it back until all previous series
+ * have been committed. The commits of the head series are run while it is
+ * created, so checkpoints are written during a parallel sweep as well.
+ */
+public class SweepExecutor {
+
+	/**
+	 * Number of series per worker thread the pool may run ahead of the series
+	 * whose commits are run (see {@link #run(List, int)}).
+	 */
+	private static final int LOOKAHEAD_PER_THREAD = 4;
+
+	/**
+	 * Marks the end of the commits of a series.
+	 */
+	private static final Runnable END_OF_SERIES = () -> {
+	};
+
+	/**
+	 * Pending commits of the series that is currently run by this thread (null
+	 * if the thread does not run a series of a parallel sweep).
+	 */
+	private static final ThreadLocal<BlockingQueue<Runnable>> pendingCommits = new ThreadLocal<BlockingQueue<Runnable>>();
+
+	/**
+	 * Condition of the commits that are currently issued by this thread (null:
+	 * none, see {@link #runCommitsIf(BooleanSupplier, Runnable)}).
+	 */
+	private static final ThreadLocal<BooleanSupplier> commitCondition = new ThreadLocal<BooleanSupplier>();
+
+	private int threads;
+
+	/**
+	 * @param threads number of worker threads (<= 1: run sequentially in the
+	 *                calling thread).
+	 */
+	public SweepExecutor(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Runs the given series of this shard (see {@link #selectShard(List)}). The
+	 * worlds of all series are numbered consecutively, starting with
+	 * firstCounter, so a world has the same number in every shard.
+	 *
+	 * @param series       list of all series in sweep order.
+	 * @param firstCounter number of the first world.
+	 */
+	public void run(List<WorldSeries> series, int firstCounter) {
+		int counter = firstCounter;
+		for (WorldSeries s : series) {
+			s.setFirstCounter(counter);
+			counter += s.getLength();
+		}
+		series = selectShard(series);
+
+		if (this.threads <= 1) {
+			for (WorldSeries s : series) {
+				s.run();
+			}
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			// The pool may only run ahead of the commit head by a window of
+			// series, so commits (and checkpoints) are not held back until the
+			// end of the sweep and the pending commits stay bounded. Within the
+			// window, the most expensive series are started first, so the pool is
+			// not left with a long tail.
+			int window = Math.min(series.size(), this.threads * LOOKAHEAD_PER_THREAD);
+			List<WorldSeries> largestFirst = new ArrayList<WorldSeries>(series.subList(0, window));
+			Map<WorldSeries, Double> costs = new IdentityHashMap<WorldSeries, Double>();
+			for (WorldSeries s : largestFirst) {
+				costs.put(s, s.estimateCost());
+			}
+			largestFirst.sort(Comparator.comparing(costs::get).reversed());
+
+			Map<WorldSeries, SeriesRun> runs = new IdentityHashMap<WorldSeries, SeriesRun>();
+			for (WorldSeries s : largestFirst) {
+				runs.put(s, new SeriesRun(pool, s));
+			}
+
+			// Commit in sweep order, as soon as they are issued (blocks until the
+			// next commit of the head series is issued).
+			for (int i = 0; i < series.size(); i++) {
+				SeriesRun run = runs.remove(series.get(i));
+				for (Runnable r = run.commits.take(); r != END_OF_SERIES; r = run.commits.take()) {
+					r.run();
+				}
+				run.future.get();
+				if (i + window < series.size()) {
+					WorldSeries s = series.get(i + window);
+					runs.put(s, new SeriesRun(pool, s));
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			System.err.println("Sweep aborted: " + e.getCause());
+			e.printStackTrace();
+			System.exit(1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A series that has been submitted to the pool and the queue of the commits
+	 * it has issued so far (ended by {@link SweepExecutor#END_OF_SERIES}).
+	 */
+	private static class SeriesRun {
+		final BlockingQueue<Runnable> commits = new LinkedBlockingQueue<Runnable>();
+		final Future<?> future;
+
+		SeriesRun(ForkJoinPool pool, WorldSeries s) {
+			this.future = pool.submit(() -> {
+				pendingCommits.set(this.commits);
+				try {
+					s.run();
+				} finally {
+					pendingCommits.remove();
+					this.commits.add(END_OF_SERIES);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Selects the series of the shard configured in {@link ConfigSingle}.
+	 * 
+	 * The sweep is cut into contiguous blocks of series with about the same
+	 * number of worlds, shard #i gets block #i. As every world has its own random
+	 * stream, the shards create the same worlds as a single run, and their
+	 * summary files concatenated in shard order are the files of a single run
+	 * (see {@link logging.ShardMerger}).
+	 *
+	 * @param series list of all series in sweep order.
+	 * @return series of this shard (all series without sharding).
+	 */
+	public static List<WorldSeries> selectShard(List<WorldSeries> series) {
+		ConfigSingle config = ConfigSingle.getInstance();
+		if (config.shardCount <= 1) {
+			return series;
+		}
+
+		long total = 0;
+		for (WorldSeries s : series) {
+			total += s.getLength();
+		}
+		// A series belongs to the shard its first world falls into.
+		long from = total * config.shardIndex / config.shardCount;
+		long to = total * (config.shardIndex + 1) / config.shardCount;
+		List<WorldSeries> shard = new ArrayList<WorldSeries>();
+		long worlds = 0;
+		for (WorldSeries s : series) {
+			if (worlds >= from && worlds < to) {
+				shard.add(s);
+			}
+			worlds += s.getLength();
+		}
+		return shard;
+	}
+
+	/**
+	 * Runs the given output action: immediately when running sequentially,
+	 * else as soon as all previous commits of the sweep have been run.
+	 *
+	 * @param r action that writes to a shared output (file, console, list).
+	 */
+	public static void commit(Runnable r) {
+		BooleanSupplier condition = commitCondition.get();
+		Runnable action = condition == null ? r : () -> {
+			if (condition.getAsBoolean()) {
+				r.run();
+			}
+		};
+		BlockingQueue<Runnable> pending = pendingCommits.get();
+		if (pending == null) {
+			action.run();
+		} else {
+			pending.add(action);
+		}
+	}
+
+	/**
+	 * Runs an action whose output shall only take effect if a condition holds
+	 * when it is committed, e.g. the output of a world that may turn out to be a
+	 * duplicate of an earlier world of the sweep (see
+	 * {@link DuplicateFilter#registerOnCommit(World)}).
+	 *
+	 * @param condition checked when each commit of the action is run (null: no
+	 *                  condition).
+	 * @param action    action that commits its output.
+	 */
+	public static void runCommitsIf(BooleanSupplier condition, Runnable action) {
+		commitCondition.set(condition);
+		try {
+			action.run();
+		} finally {
+			commitCondition.remove();
+		}
+	}
+
+	/**
+	 * @return true if the commits of this thread are held back (the thread runs a
+	 *         series of a parallel sweep), false if they are run immediately.
+	 */
+	public static boolean defersCommits() {
+		return pendingCommits.get() != null;
+	}
+}
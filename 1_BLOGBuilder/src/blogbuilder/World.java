@@ -1,13 +1,26 @@
 package blogbuilder;
 
-import java.io.PrintStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
 
 import elements.Factor;
+import elements.FactorIndex;
 import elements.LogVar;
+import elements.OccurrenceBuckets;
 import elements.RandVar;
 import factories.ElementFactory;
 
@@ -42,17 +55,35 @@ public class World {
 	/**
 	 * List of all available logVars.
 	 */
-	private ArrayList<LogVar> logVars = new ArrayList<LogVar>();
+	private ElementList<LogVar> logVars = new ElementList<LogVar>();
 
 	/**
 	 * List of all available randVars.
 	 */
-	private ArrayList<RandVar> randVars = new ArrayList<RandVar>();
+	private ElementList<RandVar> randVars = new ElementList<RandVar>();
+
+	/**
+	 * The world's randvars, indexed by their occurrence count.
+	 */
+	private OccurrenceBuckets randVarBuckets = new OccurrenceBuckets();
+
+	/**
+	 * Index of all factors by arity (number of randvar arguments), kept up to
+	 * date by the factors (see {@link FactorIndex}).
+	 */
+	private FactorIndex factorIndex = new FactorIndex();
 
 	/**
 	 * List of all available factors.
 	 */
-	private ArrayList<Factor> factors = new ArrayList<Factor>();
+	private ElementList<Factor> factors = new ElementList<Factor>();
+
+	/**
+	 * Compact representation of this world (null if the world is stored as
+	 * objects). If set, the element lists above are empty until the object model
+	 * is accessed (see {@link #materialize()}).
+	 */
+	private CompactWorld compact;
 
 	/**
 	 * LogVar factory that was used to fill this world's base world.
@@ -69,6 +100,31 @@ public class World {
 	 */
 	private ElementFactory baseFactorFactory;
 
+	/**
+	 * Rendered lines of this world's body if it is rendered incrementally (see
+	 * {@link #reuseRenderingOf(World)}), else null.
+	 */
+	private RenderedBody renderedBody;
+
+	/**
+	 * Random stream this world has been created with; its potentials are drawn
+	 * from it when the world is rendered (null = from the current random object,
+	 * see {@link #setRandom(Random)}).
+	 */
+	private Random random;
+
+	/**
+	 * World whose elements this world has taken over (see
+	 * {@link #inheritRandVars(World)}), until this world is filled.
+	 */
+	private World predecessor;
+
+	/**
+	 * True if a derived world has taken over this world's elements (see
+	 * {@link #checkNotRetired()}).
+	 */
+	private boolean retired;
+
 	/**
 	 * Constructor with self explanatory arguments.
 	 * World's domainSize will be set to default value(3).
@@ -144,6 +200,7 @@ public class World {
 		// with max. factorArgCount arguments.
 		factorFac.insertFactors(this);
 		this.baseFactorFactory = factorFac.getBaseFactory();
+		this.retirePredecessor();
 		
 		// 4. Check if allRandVars are mentioned (in at least 1 factor)
 		// 	  If that's not the case -> notify ProgressLogger
@@ -166,6 +223,7 @@ public class World {
 		
 		// 1. Create Elements
 		augFac.insertElements(this);
+		this.retirePredecessor();
 		
 		
 		// 2. Check if allRandVars are mentioned (in at least 1 factor)
@@ -176,72 +234,215 @@ public class World {
 	}
 
 	/**
-	 * Wrapper function that calls all <code>asLine()</code> methods in the right
-	 * order and constructs the content of a blog file.
+	 * Fills the world with the elements of the given compact world. Statistics and
+	 * files are then created from the compact representation; the object model
+	 * is only created if it is accessed.
 	 * 
-	 * Also replaces the placeholder occurrences with the number given in the domainSize argument.
+	 * @param c           compact world (e.g. created by a CompactSampleFactory).
+	 * @param baseFactory factory that created the elements (object counterpart,
+	 *                    used if the world is augmented later).
+	 */
+	public void fillCompact(CompactWorld c, ElementFactory baseFactory) {
+		this.compact = c;
+		this.baseLogVarFactory = baseFactory;
+		this.baseRandVarFactory = baseFactory;
+		this.baseFactorFactory = baseFactory;
+
+		if(!this.checkAllRVMentioned()) {
+			ConfigSingle.getInstance().getProgressLogger().addToAllMentionedFalseFiles(this.constructFilePath());
+		}
+	}
+
+	/**
+	 * Creates the object model (logvars, randvars, factors) from the compact
+	 * representation, if this world is backed by one. Afterwards the objects are
+	 * the only representation (they might be changed).
+	 */
+	private void materialize() {
+		this.checkNotRetired();
+		if (this.compact == null) {
+			return;
+		}
+		CompactWorld c = this.compact;
+		this.compact = null;
+
+		for (int lv = 0; lv < c.getLogVarCount(); lv++) {
+			this.addLogVar(new LogVar(lv + 1));
+		}
+		for (int rv = 0; rv < c.getRandVarCount(); rv++) {
+			ArrayList<LogVar> args = new ArrayList<LogVar>();
+			for (int i = 0; i < c.getRandVarArgCount(rv); i++) {
+				args.add(this.logVars.get(c.getRandVarArg(rv, i)));
+			}
+			this.addRandVar(new RandVar(rv + 1, args));
+		}
+		for (int f = 0; f < c.getFactorCount(); f++) {
+			ArrayList<RandVar> args = new ArrayList<RandVar>();
+			for (int i = 0; i < c.getFactorArgCount(f); i++) {
+				args.add(this.randVars.get(c.getFactorArg(f, i)));
+			}
+			this.addFactor(new Factor(f + 1, args));
+		}
+	}
+
+	/**
+	 * Getter for the compact representation.
 	 * 
+	 * @return CompactWorld backing this world, null if it is stored as objects.
+	 */
+	public CompactWorld getCompact() {
+		return this.compact;
+	}
+
+	public int getLogVarCount() {
+		return this.compact != null ? this.compact.getLogVarCount() : this.logVars.size();
+	}
+
+	public int getRandVarCount() {
+		return this.compact != null ? this.compact.getRandVarCount() : this.randVars.size();
+	}
+
+	public int getFactorCount() {
+		return this.compact != null ? this.compact.getFactorCount() : this.factors.size();
+	}
+
+	/**
+	 * Wrapper function that calls all <code>writeLine()</code> methods in the right
+	 * order and writes the content of a blog file.
+	 * 
+	 * The given domain size is written for all logvars while writing, nothing is
+	 * buffered here (buffering is up to the given Writer).
+	 * 
+	 * @param out        Writer the BLOG file contents are written to.
 	 * @param domainSize number to be inserted for all domain sizes.
-	 * @return String of BLOGFile contents.
+	 * @throws IOException if writing fails.
 	 */
-	public String toBLOGString(int domainSize) {
-		String ret = "";
+	public void writeBLOG(Writer out, int domainSize) throws IOException {
+		this.writeBLOGHeader(out, domainSize);
+		this.writeBLOGBody(out, domainSize);
+	}
+
+	/**
+	 * Writes the part of a blog file that depends on the domain size (i.e. the
+	 * logvar declarations).
+	 * 
+	 * @param out        Writer to write to.
+	 * @param domainSize number to be inserted for all domain sizes.
+	 * @throws IOException if writing fails.
+	 */
+	private void writeBLOGHeader(Writer out, int domainSize) throws IOException {
+		if (this.compact != null) {
+			this.compact.writeLogVars(out, domainSize);
+			out.write("\n\n");
+			return;
+		}
 
 		// 1. LogVars
 		for (LogVar lv : this.logVars) {
-			ret += lv.asLine();
+			lv.writeLine(out, domainSize);
+		}
+		out.write("\n\n");
+	}
+
+	/**
+	 * Writes the part of a blog file that is the same for all domain sizes
+	 * (randvars, factors, queries).
+	 * 
+	 * @param out        Writer to write to.
+	 * @param domainSize domain size of the file (only passed on to the elements,
+	 *                   the body does not depend on it).
+	 * @throws IOException if writing fails.
+	 */
+	private void writeBLOGBody(Writer out, int domainSize) throws IOException {
+		if (this.compact != null) {
+			this.compact.writeRandVars(out);
+			out.write("\n\n");
+			this.compact.writeFactors(out, this.getRandom());
+			out.write("\n\n");
+			if (!this.noQueries) {
+				this.compact.writeQueries(out, this.allQueries);
+				out.write("\n\n");
+			}
+			return;
 		}
-		ret += "\n\n";
 
 		// 2. RandVars
 		for (RandVar rv : this.randVars) {
-			ret += rv.asLine();
+			rv.writeLine(out, domainSize);
 		}
-		ret += "\n\n";
+		out.write("\n\n");
 
 		// 3. Parfactors
+		Random r = this.getRandom();
 		for (Factor fac : this.factors) {
-			ret += fac.asLine();
+			fac.writeLine(out, domainSize, r);
 		}
-		ret += "\n\n";
+		out.write("\n\n");
 
 		if (!this.noQueries) {
-			// 4. Create query lines (1 per randVar)
-			ret += this.createQueryLines();
-			ret += "\n\n";
+			// 4. Write query lines (1 per randVar)
+			this.writeQueryLines(out);
+			out.write("\n\n");
 		}
+	}
 
-		// 5. Insert domain size
-		ret = ret.replace("[XXX]", String.format("[%d]", domainSize));
-		
-		return ret;
+	/**
+	 * Returns the content of a blog file as String (see
+	 * {@link #writeBLOG(Writer, int)}).
+	 * 
+	 * @param domainSize number to be inserted for all domain sizes.
+	 * @return String of BLOGFile contents.
+	 */
+	public String toBLOGString(int domainSize) {
+		StringWriter sw = new StringWriter();
+		try {
+			this.writeBLOG(sw, domainSize);
+		} catch (IOException e) {
+			// StringWriter does not throw.
+		}
+		return sw.toString();
 	}
 
 	
 	/**
-	 * Creates the query lines (1 per randvar).
+	 * Writes the query lines (1 per randvar).
 	 * 
-	 * @return String of query lines
+	 * @param out Writer to write to.
+	 * @throws IOException if writing fails.
 	 */
-	private String createQueryLines() {
-		String ret = "";
-		for (RandVar rv : randVars) {
-			if (rv.getArgs().size() > 0) {
-				// Parfactor
-				ArrayList<String> args = new ArrayList<String>(
-						rv.getArgs().stream().map(x -> ("x" + x.getIndex() +"x" + "1")).collect(Collectors.toList()));
-				String argString = String.join(",", args);
-				ret += String.format("query %s(%s);\n", rv.constructName(), argString);
-			} else {
-				// Factor
-				ret += String.format("query %s;\n", rv.constructName());
-			}
+	private void writeQueryLines(Writer out) throws IOException {
+		this.writeQueryLines(out, 0);
+	}
 
-			if (!this.allQueries) {
+	/**
+	 * Writes the query lines of the randvars from position from on (only the
+	 * first randvar has a query line if not all queries are written).
+	 * 
+	 * @param out  Writer to write to.
+	 * @param from position of the first randvar.
+	 * @throws IOException if writing fails.
+	 */
+	private void writeQueryLines(Writer out, int from) throws IOException {
+		for (int pos = from; pos < this.randVars.size(); pos++) {
+			if (!this.allQueries && pos > 0) {
 				break;
 			}
+			RandVar rv = this.randVars.get(pos);
+			out.write("query ");
+			out.write(rv.constructName());
+			if (rv.getArgs().size() > 0) {
+				// Parfactor
+				out.write('(');
+				for (int i = 0; i < rv.getArgs().size(); i++) {
+					if (i > 0) {
+						out.write(',');
+					}
+					out.write("x" + rv.getArgs().get(i).getIndex() + "x" + "1");
+				}
+				out.write(')');
+			}
+			out.write(";\n");
 		}
-		return ret;
 	}
 
 	/**
@@ -256,17 +457,20 @@ public class World {
 	 * @param f
 	 */
 	public void addFactor(Factor f) {
+		this.materialize();
 		if (f.getArgs().size() > 1) {
 			// Parfactors
 			for (RandVar rv : f.getArgs()) {
 				rv.addToFactor(f);
 			}
 			this.factors.add(f);
+			this.factorIndex.add(f);
 		} else if (f.getArgs().size() == 1) {
 			// Factors
 			f.getArgs().get(0).addToFactor(f);
 			f.getArgs().get(0).setHasFactor(true);
 			this.factors.add(f);
+			this.factorIndex.add(f);
 		} else {
 			if (ConfigSingle.getInstance().verbose) {
 				System.err.printf(" > Warning: Unknown factor size for factor #%d: %d. Factor not created.\n", f.getIndex(),
@@ -298,10 +502,10 @@ public class World {
 		real += String.format(
 				"\treal logVarCount: %d \n\treal randVarCount: %d \n\treal factorCount: %d"
 						+ "\n\treal maxRandVarOccurences: %d \n\tallMentioned: %b",
-				logVars.size(), randVars.size(), factors.size(), realRandVarOccurences, allMentioned);
+				this.getLogVarCount(), this.getRandVarCount(), this.getFactorCount(), realRandVarOccurences, allMentioned);
 		
 		String coOccurrenceMat =">> RandVar co-occurrence matrix:\n";
-		if (this.randVars.size()<=30) {
+		if (this.getRandVarCount()<=30) {
 			coOccurrenceMat += this.createRandVarCoOccurrenceMatrix();
 		} else {
 			coOccurrenceMat += "   Not created due to count of RandVars > 30.";
@@ -326,6 +530,7 @@ public class World {
 	 * @return String representation of rv co-occurrence matrix  
 	 */
 	private String createRandVarCoOccurrenceMatrix() {
+		this.materialize();
 		int[][] mat = new int[this.randVars.size()][this.randVars.size()];
 		
 		// Calculate values of matrix.
@@ -372,6 +577,38 @@ public class World {
 		return matString;
 	}
 	
+	/**
+	 * Creates the sparse randvar co-occurrence graph (memory grows with the
+	 * number of randvar pairs that share a factor, unlike the matrix above).
+	 * 
+	 * @return CoOccurrenceGraph of this world.
+	 */
+	public CoOccurrenceGraph createCoOccurrenceGraph() {
+		return CoOccurrenceGraph.of(this.compact != null ? this.compact : CompactWorld.of(this));
+	}
+
+	/**
+	 * Computes predictors of the inference cost of this world (ground sizes,
+	 * treewidth estimates) for all its domain sizes.
+	 * 
+	 * @return InferenceCost of this world.
+	 */
+	public InferenceCost estimateInferenceCost() {
+		return InferenceCost.of(this.compact != null ? this.compact : CompactWorld.of(this),
+				this.specci.getDomainSizes());
+	}
+
+	/**
+	 * Computes a fingerprint of this world's structure that is the same for all
+	 * worlds that are identical up to renaming (see {@link WorldFingerprint}).
+	 *
+	 * @return fingerprint of this world.
+	 */
+	public long fingerprint() {
+		return WorldFingerprint.of(this.compact != null ? this.compact : CompactWorld.of(this),
+				this.specci.getDomainSizes(), this.allQueries, this.noQueries);
+	}
+
 	private String prepRVString(int index) {
 		int len = String.valueOf(index).length();
 		return String.join("", Collections.nCopies(3-len, " ")) + "RV" + index;
@@ -385,15 +622,17 @@ public class World {
 	 */
 	public boolean checkAllRVMentioned() {
 		// TODO: Add `forceAllMentioned` toggle?
-		
-		boolean b = true;
-		for (RandVar rv : this.randVars) {
-			if (rv.getOccurrences() == 0) {
-				b = false;
-				break;
-			}
+		return this.countNonMentionedRandVars() == 0;
+	}
+
+	/**
+	 * @return number of randvars that do not occur in any factor.
+	 */
+	public int countNonMentionedRandVars() {
+		if (this.compact != null) {
+			return this.compact.countNonMentionedRandVars();
 		}
-		return b;
+		return this.randVarBuckets.count(0);
 	}
 	
 	/**
@@ -401,7 +640,11 @@ public class World {
 	 * @return ArrayList of non mentioned RandVars
 	 */
 	public ArrayList<RandVar> searchNonMentionedRV() {
+		this.materialize();
 		ArrayList<RandVar> rvs = new ArrayList<RandVar>();
+		if (this.randVarBuckets.count(0) == 0) {
+			return rvs;
+		}
 		for (RandVar rv: this.randVars) {
 			if (rv.getOccurrences() == 0) {
 				rvs.add(rv);
@@ -422,24 +665,24 @@ public class World {
 		String deviations = "";
 		boolean noDeviation = true;
 		// LogVars
-		if (specci.getLogVarCount() != this.logVars.size()) {
-			out += String.format("  LogVarCount - Spec: %d, World: %d\n", specci.getLogVarCount(), this.logVars.size());
+		if (specci.getLogVarCount() != this.getLogVarCount()) {
+			out += String.format("  LogVarCount - Spec: %d, World: %d\n", specci.getLogVarCount(), this.getLogVarCount());
 			noDeviation = false;
-			deviations += String.format("LogVarCount (delta: %+d), ", this.logVars.size() - specci.getLogVarCount());
+			deviations += String.format("LogVarCount (delta: %+d), ", this.getLogVarCount() - specci.getLogVarCount());
 		}
 		
 		// RandVars
-		if (specci.getRandVarCount() != this.randVars.size()) {
-			out += String.format("  RandVarCount - Spec: %d, World: %d\n", specci.getRandVarCount(), this.randVars.size());
+		if (specci.getRandVarCount() != this.getRandVarCount()) {
+			out += String.format("  RandVarCount - Spec: %d, World: %d\n", specci.getRandVarCount(), this.getRandVarCount());
 			noDeviation = false;
-			deviations += String.format("RandVarCount (delta: %+d), ", this.randVars.size() - specci.getRandVarCount());
+			deviations += String.format("RandVarCount (delta: %+d), ", this.getRandVarCount() - specci.getRandVarCount());
 		}
 		
 		// Factors
-		if (specci.getFactorCount() != this.factors.size()) {
-			out += String.format("  FactorCount - Spec: %d, World: %d\n", specci.getFactorCount(), this.factors.size());
+		if (specci.getFactorCount() != this.getFactorCount()) {
+			out += String.format("  FactorCount - Spec: %d, World: %d\n", specci.getFactorCount(), this.getFactorCount());
 			noDeviation = false;
-			deviations += String.format("FactorCount (delta: %+d), ", this.factors.size() - specci.getFactorCount());
+			deviations += String.format("FactorCount (delta: %+d), ", this.getFactorCount() - specci.getFactorCount());
 		}
 		
 		// FactorArgCount
@@ -472,70 +715,68 @@ public class World {
 	}
 
 	/**
-	 * Helper Method for summary writing: searches the real maximal randvar
-	 * occurrence in (par)factors.
+	 * Helper Method for summary writing: returns the real maximal randvar
+	 * occurrence in (par)factors (kept up to date by the occurrence index).
 	 * 
 	 * @return int: number of maximum randvar occurrences
 	 */
 	public int searchRealMaxRVOccurence() {
-		int max = 0;
-		for (RandVar rv : this.randVars) {
-			if (rv.getOccurrences() > max) {
-				max = rv.getOccurrences();
-			}
+		if (this.compact != null) {
+			return this.compact.searchRealMaxRVOccurence();
 		}
-		return max;
+		return this.randVarBuckets.getMaxOccurrence();
 	}
 	
 	/**
-	 * Helper method: Counts LogVar Occurrences and returns the array. 
+	 * Counts how many randvars occur in how many factors.
+	 * 
+	 * @return histogram (entry #i = number of randvars that occur in exactly i
+	 *         factors).
+	 */
+	public int[] getRandVarOccurrenceCounts() {
+		if (this.compact != null) {
+			return this.compact.getRandVarOccurrenceCounts();
+		}
+		return this.randVarBuckets.getOccurrenceCounts();
+	}
+
+	/**
+	 * Helper method: returns the maximal number of randvars a logvar is an
+	 * argument of (kept up to date by the occurrence index).
 	 * 
 	 * @return int: number of maximum logvar occurrences.
 	 */
 	public int searchRealMaxLVOccurence() {
-		int lvCount = this.logVars.size();
-		int[] counts = new int[lvCount]; // default = 0
-		
-		for (RandVar rv : this.randVars) {
-			for (LogVar lv : rv.getArgs()) {
-				int countIndex = lv.getIndex()-1;
-				counts[countIndex]++;
-			}
+		if (this.compact != null) {
+			return this.compact.searchRealMaxLVOccurence();
 		}
-		
-		return Arrays.stream(counts).max().getAsInt();
+		return this.randVarBuckets.getMaxLogVarOccurrence();
 	}
 	
 	/**
-	 * Helper method: Iterates through randvars and searches max. rand var arg count.
+	 * Helper method: returns the max. rand var arg count (kept up to date by the
+	 * occurrence index).
 	 * 
 	 * @return int: max rand var arg count.
 	 */
 	public int searchRealMaxRVArgs() {
-		int max = 0;
-		for (int i = 0; i<this.randVars.size(); i++) {
-			int currSize = this.randVars.get(i).getArgs().size(); 
-			if (currSize > max) {
-				max = currSize;
-			}
+		if (this.compact != null) {
+			return this.compact.searchRealMaxRVArgs();
 		}
-		return max;
+		return this.randVarBuckets.getMaxArgCount();
 	}
 	
 	/**
-	 * Helper method: Iterates through factors and searches max. factor arg count.
+	 * Helper method: returns the max. factor arg count (kept up to date by the
+	 * factor index).
 	 * 
 	 * @return int: max factor arg count.
 	 */
 	public int searchRealMaxFactorArgCount() {
-		int max = 0;
-		for (int i = 0; i<this.factors.size(); i++) {
-			int currSize = this.factors.get(i).getArgs().size(); 
-			if (currSize > max) {
-				max = currSize;
-			}
+		if (this.compact != null) {
+			return this.compact.searchRealMaxFactorArgCount();
 		}
-		return max;
+		return this.factorIndex.getMaxArity();
 	}
 
 	/**
@@ -545,13 +786,10 @@ public class World {
 	 * @return Int Number of real factors.
 	 */
 	public int searchRealFactors() {
-		int count = 0;
-		for (Factor fac : this.factors) {
-			if (fac.getArgs().size() > 0) {
-				count++;
-			}
+		if (this.compact != null) {
+			return this.compact.searchRealFactors();
 		}
-		return count;
+		return this.factorIndex.size() - this.factorIndex.count(0);
 	}
 
 	/**
@@ -571,15 +809,37 @@ public class World {
 		return this.specci;
 	}
 
-	public ArrayList<LogVar> getLogVars() {
+	/**
+	 * @return random object the potentials of this world are drawn from when it
+	 *         is rendered (its own stream if set, else the current one).
+	 */
+	public Random getRandom() {
+		return this.random != null ? this.random : ConfigSingle.getInstance().getRandom();
+	}
+
+	/**
+	 * Lets this world draw its potentials from the given stream whenever it is
+	 * rendered, on whatever thread (e.g. the stream it has been created with, see
+	 * {@link WorldRandom}).
+	 * 
+	 * @param random random stream of this world.
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	public List<LogVar> getLogVars() {
+		this.materialize();
 		return this.logVars;
 	}
 
-	public ArrayList<RandVar> getRandVars() {
+	public List<RandVar> getRandVars() {
+		this.materialize();
 		return this.randVars;
 	}
 
-	public ArrayList<Factor> getFactors() {
+	public List<Factor> getFactors() {
+		this.materialize();
 		return this.factors;
 	}
 
@@ -610,59 +870,485 @@ public class World {
 	// FILTERED GETTERS
 
 	public ArrayList<RandVar> getNonMaxedRandVars() {
-		return new ArrayList<RandVar>(randVars.stream().filter(x -> x.getOccurrences() < specci.getMaxRandVarOccurrences())
-				.collect(Collectors.toList()));
+		this.materialize();
+		ArrayList<RandVar> ret = new ArrayList<RandVar>();
+		for (int occ = 0; occ < specci.getMaxRandVarOccurrences() && occ < randVarBuckets.size(); occ++) {
+			ret.addAll(randVarBuckets.get(occ));
+		}
+		return ret;
 	}
 
 	public ArrayList<RandVar> getNonMentionedRandVars() {
-		return new ArrayList<RandVar>(
-				randVars.stream().filter(x -> x.getOccurrences() == 0).collect(Collectors.toList()));
+		this.materialize();
+		return new ArrayList<RandVar>(randVarBuckets.get(0));
 	}
 
 	public ArrayList<RandVar> getMaxedRandVars() {
-		return new ArrayList<RandVar>(
-				randVars.stream().filter(x -> x.getOccurrences() == specci.getMaxRandVarArgs()).collect(Collectors.toList()));
+		this.materialize();
+		return new ArrayList<RandVar>(randVarBuckets.get(specci.getMaxRandVarArgs()));
+	}
+
+	/**
+	 * Getter for the occurrence index of the randvars (bucket #i = randvars that
+	 * occur in exactly i factors).
+	 * 
+	 * @return OccurrenceBuckets of this world.
+	 */
+	public OccurrenceBuckets getRandVarBuckets() {
+		this.materialize();
+		return this.randVarBuckets;
+	}
+
+	/**
+	 * Getter for the index of the factors (by arity, factors with a multiple
+	 * occurring argument).
+	 * 
+	 * @return FactorIndex of this world.
+	 */
+	public FactorIndex getFactorIndex() {
+		this.materialize();
+		return this.factorIndex;
 	}
 	
 	
 	// ADDERS for LISTS
 	public void addLogVar(LogVar lv) {
+		this.materialize();
 		this.logVars.add(lv);
 	}
 
-	public void addAllLogVars(ArrayList<LogVar> lvs) {
+	public void addAllLogVars(List<LogVar> lvs) {
+		this.materialize();
 		this.logVars.addAll(lvs);
 	}
 
 	public void addRandVar(RandVar rv) {
+		this.materialize();
 		this.randVars.add(rv);
+		this.randVarBuckets.add(rv);
 	}
 
-	public void addAllRandVars(ArrayList<RandVar> rvs) {
-		this.randVars.addAll(rvs);
+	public void addAllRandVars(List<RandVar> rvs) {
+		this.materialize();
+		for (RandVar rv : rvs) {
+			this.addRandVar(rv);
+		}
 	}
 
 	/**
 	 * Replace (!= ADD) factors.
 	 * 
-	 * @param facs new Factor-ArrayList to replace the old one (which might be
+	 * @param facs new Factor-List to replace the old one (which might be
 	 *             empty).
 	 */
-	public void replaceAllFactors(ArrayList<Factor> facs) {
-		this.factors = facs;
+	public void replaceAllFactors(List<Factor> facs) {
+		this.materialize();
+		this.factors = facs instanceof ElementList ? ((ElementList<Factor>) facs).snapshot()
+				: new ElementList<Factor>(facs);
+		this.factorIndex = new FactorIndex();
+		for (Factor f : this.factors) {
+			this.factorIndex.add(f);
+		}
+	}
+
+	/**
+	 * Creates a copy of this world with new element objects (same indices and
+	 * structure, the spec and base factories are shared). Used for worlds that
+	 * are added to other worlds as increments (the increment's elements are
+	 * changed when they are merged).
+	 * 
+	 * @return copy of this world.
+	 */
+	public World copy() {
+		this.materialize();
+		World w = new World(this.rerollIndex, this.currentIterationIndex, this.allQueries, this.specci,
+				this.noQueries);
+
+		IdentityHashMap<LogVar, LogVar> lvCopies = new IdentityHashMap<LogVar, LogVar>();
+		for (LogVar lv : this.logVars) {
+			LogVar copy = new LogVar(lv.getIndex());
+			lvCopies.put(lv, copy);
+			w.addLogVar(copy);
+		}
+
+		IdentityHashMap<RandVar, RandVar> rvCopies = new IdentityHashMap<RandVar, RandVar>();
+		for (RandVar rv : this.randVars) {
+			ArrayList<LogVar> args = new ArrayList<LogVar>();
+			for (LogVar lv : rv.getArgs()) {
+				args.add(lvCopies.get(lv));
+			}
+			RandVar copy = new RandVar(rv.getIndex(), args);
+			copy.setHasFactor(rv.hasFactor());
+			rvCopies.put(rv, copy);
+			w.addRandVar(copy);
+		}
+
+		for (Factor fac : this.factors) {
+			ArrayList<RandVar> args = new ArrayList<RandVar>();
+			for (RandVar rv : fac.getArgs()) {
+				args.add(rvCopies.get(rv));
+			}
+			Factor copy = new Factor(fac.getIndex(), args);
+			for (RandVar rv : args) {
+				rv.addToFactor(copy);
+			}
+			w.factors.add(copy);
+			w.factorIndex.add(copy);
+		}
+
+		w.baseLogVarFactory = this.baseLogVarFactory;
+		w.baseRandVarFactory = this.baseRandVarFactory;
+		w.baseFactorFactory = this.baseFactorFactory;
+		w.random = this.random;
+		return w;
+	}
+
+	// CHECKPOINTS
+	// A world is written with the order of all its lists (element lists, the
+	// randvars' factors and the occurrence and factor indexes), as the random
+	// selections of the augmentation factories depend on these orders. Elements
+	// are referenced by their position in the world's element lists. The
+	// rendered body of an incrementally rendered world is written as well. The
+	// base factories are written by class name and parameters (see
+	// ElementFactory#writeParams), so they need a no-arg constructor.
+
+	/**
+	 * Writes this world in a binary format (see {@link #read(DataInputStream)}).
+	 * 
+	 * @param out stream to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		this.materialize();
+		out.writeInt(this.rerollIndex);
+		out.writeInt(this.currentIterationIndex);
+		out.writeBoolean(this.allQueries);
+		out.writeBoolean(this.noQueries);
+
+		SpecContainer sc = this.specci;
+		out.writeInt(sc.getDomainSizes().length);
+		for (int d : sc.getDomainSizes()) {
+			out.writeInt(d);
+		}
+		out.writeInt(sc.getLogVarCount());
+		out.writeInt(sc.getRandVarCount());
+		out.writeInt(sc.getFactorCount());
+		out.writeInt(sc.getFactorArgCount());
+		out.writeInt(sc.getMaxRandVarOccurrences());
+		out.writeInt(sc.getMaxRandVarArgs());
+
+		for (ElementFactory fac : new ElementFactory[] { this.baseLogVarFactory, this.baseRandVarFactory,
+				this.baseFactorFactory }) {
+			out.writeUTF(fac == null ? "" : fac.getClass().getName());
+			if (fac != null) {
+				fac.writeParams(out);
+			}
+		}
+
+		IdentityHashMap<LogVar, Integer> lvPos = new IdentityHashMap<LogVar, Integer>();
+		out.writeInt(this.logVars.size());
+		for (LogVar lv : this.logVars) {
+			lvPos.put(lv, lvPos.size());
+			out.writeInt(lv.getIndex());
+		}
+
+		IdentityHashMap<RandVar, Integer> rvPos = new IdentityHashMap<RandVar, Integer>();
+		out.writeInt(this.randVars.size());
+		for (RandVar rv : this.randVars) {
+			rvPos.put(rv, rvPos.size());
+			out.writeInt(rv.getIndex());
+			out.writeBoolean(rv.hasFactor());
+			out.writeInt(rv.getArgs().size());
+			for (LogVar lv : rv.getArgs()) {
+				out.writeInt(lvPos.get(lv));
+			}
+		}
+
+		IdentityHashMap<Factor, Integer> facPos = new IdentityHashMap<Factor, Integer>();
+		out.writeInt(this.factors.size());
+		for (Factor f : this.factors) {
+			facPos.put(f, facPos.size());
+			out.writeInt(f.getIndex());
+			writePositions(out, f.getArgs(), rvPos);
+		}
+
+		for (RandVar rv : this.randVars) {
+			writePositions(out, rv.getOccurrenceFactors(), facPos);
+		}
+
+		out.writeInt(this.randVarBuckets.size());
+		for (int occ = 0; occ < this.randVarBuckets.size(); occ++) {
+			writePositions(out, this.randVarBuckets.get(occ), rvPos);
+		}
+		writePositions(out, this.randVarBuckets.getWithoutFactor(), rvPos);
+		writePositions(out, this.randVarBuckets.getWithArgs(), rvPos);
+
+		out.writeInt(this.factorIndex.bucketCount());
+		for (int arity = 0; arity < this.factorIndex.bucketCount(); arity++) {
+			writePositions(out, this.factorIndex.get(arity), facPos);
+		}
+		writePositions(out, this.factorIndex.getWithMultipleOccurringArg(), facPos);
+
+		RenderedBody r = this.renderedBody;
+		out.writeBoolean(r != null);
+		if (r != null) {
+			out.writeInt(r.randVarCount);
+			out.writeInt(r.factorCount);
+			out.writeInt(r.queryCount);
+			for (ByteArrayOutputStream section : new ByteArrayOutputStream[] { r.randVars, r.factors, r.queries }) {
+				out.writeInt(section.size());
+				section.writeTo(out);
+			}
+		}
+	}
+
+	/**
+	 * Reads a world written by {@link #write(DataOutputStream)}. The world
+	 * continues exactly like the written one (same elements, same order of all
+	 * lists and indexes).
+	 * 
+	 * @param in stream to read from.
+	 * @return the world.
+	 * @throws IOException if reading fails.
+	 */
+	public static World read(DataInputStream in) throws IOException {
+		int rerollIndex = in.readInt();
+		int currentIterationIndex = in.readInt();
+		boolean allQueries = in.readBoolean();
+		boolean noQueries = in.readBoolean();
+
+		int[] domainSizes = new int[in.readInt()];
+		for (int i = 0; i < domainSizes.length; i++) {
+			domainSizes[i] = in.readInt();
+		}
+		SpecContainer sc = new SpecContainer(domainSizes, in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+				in.readInt(), in.readInt());
+		World w = new World(rerollIndex, currentIterationIndex, allQueries, sc, noQueries);
+
+		w.baseLogVarFactory = readFactory(in);
+		w.baseRandVarFactory = readFactory(in);
+		w.baseFactorFactory = readFactory(in);
+
+		List<LogVar> lvs = new ArrayList<LogVar>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			lvs.add(new LogVar(in.readInt()));
+		}
+
+		List<RandVar> rvs = new ArrayList<RandVar>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			int index = in.readInt();
+			boolean hasFactor = in.readBoolean();
+			ArrayList<LogVar> args = readElements(in, lvs);
+			RandVar rv = new RandVar(index, args);
+			rv.setHasFactor(hasFactor);
+			rvs.add(rv);
+		}
+
+		List<Factor> facs = new ArrayList<Factor>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			int index = in.readInt();
+			facs.add(new Factor(index, readElements(in, rvs)));
+		}
+
+		// Connect the randvars to their factors (in their order) before they are
+		// added to the indexes.
+		for (RandVar rv : rvs) {
+			for (Factor f : readElements(in, facs)) {
+				rv.addToFactor(f);
+			}
+		}
+
+		w.addAllLogVars(lvs);
+		w.addAllRandVars(rvs);
+		for (Factor f : facs) {
+			w.factors.add(f);
+			w.factorIndex.add(f);
+		}
+
+		List<List<RandVar>> buckets = new ArrayList<List<RandVar>>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			buckets.add(readElements(in, rvs));
+		}
+		w.randVarBuckets.restoreOrder(buckets, readElements(in, rvs), readElements(in, rvs));
+
+		List<List<Factor>> arityBuckets = new ArrayList<List<Factor>>();
+		for (int n = in.readInt(), i = 0; i < n; i++) {
+			arityBuckets.add(readElements(in, facs));
+		}
+		w.factorIndex.restoreOrder(arityBuckets, readElements(in, facs));
+
+		if (in.readBoolean()) {
+			RenderedBody r = w.renderedBody = new RenderedBody();
+			r.randVarCount = in.readInt();
+			r.factorCount = in.readInt();
+			r.queryCount = in.readInt();
+			for (ByteArrayOutputStream section : new ByteArrayOutputStream[] { r.randVars, r.factors, r.queries }) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				section.write(bytes);
+			}
+		}
+
+		return w;
+	}
+
+	private static <T> void writePositions(DataOutputStream out, List<T> elements, IdentityHashMap<T, Integer> pos)
+			throws IOException {
+		out.writeInt(elements.size());
+		for (T e : elements) {
+			out.writeInt(pos.get(e));
+		}
+	}
+
+	private static <T> ArrayList<T> readElements(DataInputStream in, List<T> elements) throws IOException {
+		int n = in.readInt();
+		ArrayList<T> ret = new ArrayList<T>(n);
+		for (int i = 0; i < n; i++) {
+			ret.add(elements.get(in.readInt()));
+		}
+		return ret;
+	}
+
+	/**
+	 * Recreates a base factory by its no-arg constructor and its parameters (see
+	 * {@link ElementFactory#writeParams(DataOutputStream)}).
+	 */
+	private static ElementFactory readFactory(DataInputStream in) throws IOException {
+		String name = in.readUTF();
+		if (name.isEmpty()) {
+			return null;
+		}
+		ElementFactory fac;
+		try {
+			fac = (ElementFactory) Class.forName(name).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IOException("Cannot create factory " + name + " (needs a no-arg constructor)", e);
+		}
+		fac.readParams(in);
+		return fac;
+	}
+
+	// DERIVING FROM A PREDECESSOR
+	// The derived world takes over the element lists (copy-on-write, see
+	// ElementList), the element objects and the indexes of its predecessor in
+	// O(1). The factories change element objects and indexes in place, so the
+	// derived world is no persistent snapshot: once it is filled, the
+	// predecessor is retired and must not be used any more. A world that shall
+	// stay intact while worlds are derived from it has to be forked (see fork()).
+
+	/**
+	 * Takes over all logvars of the given world (O(1)). The given world is
+	 * retired when this world is filled.
+	 * 
+	 * @param predecessor world this world is derived from.
+	 */
+	public void inheritLogVars(World predecessor) {
+		this.materialize();
+		predecessor.materialize();
+		this.predecessor = predecessor;
+		this.logVars = predecessor.logVars.snapshot();
+	}
+
+	/**
+	 * Takes over all randvars of the given world, including their occurrence
+	 * index (O(1)). The given world is retired when this world is filled.
+	 * 
+	 * @param predecessor world this world is derived from.
+	 */
+	public void inheritRandVars(World predecessor) {
+		this.materialize();
+		predecessor.materialize();
+		this.predecessor = predecessor;
+		this.randVars = predecessor.randVars.snapshot();
+		this.randVarBuckets = predecessor.randVarBuckets;
+	}
+
+	/**
+	 * Takes over all factors of the given world (O(1)). The randvars already know
+	 * these factors, so there are no side effects as in {@link #addFactor(Factor)}.
+	 * The given world is retired when this world is filled.
+	 * 
+	 * @param predecessor world this world is derived from.
+	 */
+	public void inheritFactors(World predecessor) {
+		this.materialize();
+		predecessor.materialize();
+		this.predecessor = predecessor;
+		this.factors = predecessor.factors.snapshot();
+		this.factorIndex = predecessor.factorIndex;
+	}
+
+	/**
+	 * Retires the world this world has been derived from: its elements and
+	 * indexes belong to this world now.
+	 */
+	private void retirePredecessor() {
+		if (this.predecessor != null) {
+			this.predecessor.retired = true;
+			this.predecessor = null;
+		}
+	}
+
+	/**
+	 * Fails if a derived world has taken over this world's elements (they might
+	 * have been changed since).
+	 */
+	private void checkNotRetired() {
+		if (this.retired) {
+			throw new IllegalStateException("World " + this.constructFilePath()
+					+ " has been taken over by a derived world, fork it before deriving from it.");
+		}
+	}
+
+	/**
+	 * Creates an independent copy of this world that continues exactly like it
+	 * (same elements, same order of all lists and indexes, same base factories,
+	 * same rendering, see {@link #write(DataOutputStream)}). The fork draws its
+	 * potentials from the same random stream as this world. Deriving a world from
+	 * the fork leaves this world intact. O(size of the world).
+	 * 
+	 * @return fork of this world.
+	 */
+	public World fork() {
+		this.checkNotRetired();
+		World w;
+		if (this.compact != null) {
+			// the compact representation is not changed, only replaced
+			SpecContainer sc = this.specci;
+			w = new World(this.rerollIndex, this.currentIterationIndex, this.allQueries,
+					new SpecContainer(sc.getDomainSizes().clone(), sc.getLogVarCount(), sc.getRandVarCount(),
+							sc.getFactorCount(), sc.getFactorArgCount(), sc.getMaxRandVarOccurrences(),
+							sc.getMaxRandVarArgs()),
+					this.noQueries);
+			w.compact = this.compact;
+		} else {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				this.write(out);
+				w = read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+			} catch (IOException e) {
+				// In memory, does not throw.
+				throw new IllegalStateException(e);
+			}
+		}
+		w.baseLogVarFactory = this.baseLogVarFactory;
+		w.baseRandVarFactory = this.baseRandVarFactory;
+		w.baseFactorFactory = this.baseFactorFactory;
+		w.random = this.random;
+		return w;
 	}
 
 	// NAME CREATION
 	public int getNextLogVarIndex() {
-		return this.logVars.size() + 1;
+		return this.getLogVarCount() + 1;
 	}
 
 	public int getNextRandVarIndex() {
-		return this.randVars.size() + 1;
+		return this.getRandVarCount() + 1;
 	}
 
 	public int getNextFactorIndex() {
-		return this.factors.size() + 1;
+		return this.getFactorCount() + 1;
 	}
 
 	// WORLD SPEC CHANGE
@@ -677,26 +1363,22 @@ public class World {
 	 * @return Factor where kickout shall happen.
 	 */
 	public Factor selectKickoutFactor() {		
-		// Can only kickout randvars out of *par*factors (i.e. at least 1 arg).
-		ArrayList<Factor> candidateParfactors = new ArrayList<Factor>();
-		for (Factor f : this.factors) {
-			if (f.getArgs().size() > 0) {
-				candidateParfactors.add(f);
-			}
-		}
-		
+		this.materialize();
+		Random r = ConfigSingle.getInstance().getRandom();
+
 		// Prefer factors with at least 1 RandVar that has > 1 occurrence.
-		ArrayList<Factor> candidatesOccWise = new ArrayList<Factor>();
-		for (Factor f : candidateParfactors) {
-			if (f.hasMultipleOccurringArg()) {
-				candidatesOccWise.add(f);
-			}
+		List<Factor> candidatesOccWise = this.factorIndex.getWithMultipleOccurringArg();
+		if (candidatesOccWise.size() > 0) {
+			return candidatesOccWise.get(r.nextInt(candidatesOccWise.size()));
 		}
-		
-		ArrayList<Factor> choseFromList = candidatesOccWise.size() > 0 ? candidatesOccWise : candidateParfactors;
-		
-		int rnd = ConfigSingle.getInstance().getRandom().nextInt(choseFromList.size());
-		return choseFromList.get(rnd);
+
+		// Can only kickout randvars out of *par*factors (i.e. at least 1 arg).
+		Factor f = this.factorIndex.sample(1, this.factorIndex.getMaxArity(), r);
+		if (f == null) {
+			System.err.println("No candidate factor found in selectKickoutFactor(), i.e. no factor with arguments. Aborting.");
+			System.exit(1);
+		}
+		return f;
 	}
 	
 	/**
@@ -705,27 +1387,27 @@ public class World {
 	 * @return Factor to be augmented.
 	 */
 	public Factor selectAugmentFactor(RandVar rv) {
+		this.materialize();
 		// Randomly select a factor out of candidates that fulfill these requirements:
-		// 	1. randVar does not occurr in their args yet:
-		ArrayList<Factor> candidates = this.searchNewFactors(rv);
-		
-		// 2. Factor is not the biggest factor of the model (globally)
-		int maxArgs = this.searchRealMaxFactorArgCount();
-		ArrayList<Factor> cand_copy = (ArrayList<Factor>) candidates.clone();
-		cand_copy = (ArrayList<Factor>) cand_copy.stream().filter(x-> x.getArgs().size() != maxArgs).collect(Collectors.toList());
+		// 	1. randVar does not occurr in their args yet,
+		// 	2. Factor is not the biggest factor of the model (globally).
+		// (sampled from the factor index, see FactorIndex#sampleWithout)
+		Random r = ConfigSingle.getInstance().getRandom();
+		int maxArgs = this.factorIndex.getMaxArity();
+		Factor f = this.factorIndex.sampleWithout(0, maxArgs - 1, rv, r);
 		
-		if (cand_copy.size()==0) {
+		if (f == null) {
 			System.err.println("No candidate factor found in selectAugmentFactor(), i.e. no new non-max factor.");
 			System.err.println(" ... chosing from newFactors instead (maxArg-factors allowed).");
-			cand_copy = candidates;
+			f = this.factorIndex.sampleWithout(0, maxArgs, rv, r);
 		}
 		
-		if (cand_copy.size()==0) {
+		if (f == null) {
 			System.err.println(" ... also no 'new' factor found. Aborting.");
 			System.exit(1);
 		}
 		
-		return cand_copy.get(ConfigSingle.getInstance().getRandom().nextInt(cand_copy.size()));
+		return f;
 	}
 	
 	
@@ -736,16 +1418,10 @@ public class World {
 	 * @return ArrayList of candidate Factors
 	 */
 	public ArrayList<Factor> searchNewFactors(RandVar rv) {
+		this.materialize();
 		ArrayList<Factor> out = new ArrayList<Factor>();
 		for (Factor world_f: this.factors) {
-			boolean elegible = true;
-			for (Factor rv_f : rv.getOccurrenceFactors()) {
-				if (world_f.getIndex() == rv_f.getIndex()) {
-					elegible = false;
-				}
-			}
-			
-			if (elegible) {
+			if (!rv.occursIn(world_f)) {
 				out.add(world_f);
 			}
 		}
@@ -760,13 +1436,9 @@ public class World {
 	 * @return RandVar where kickout shall happen.
 	 */
 	public RandVar selectKickOutRandVar() {		
+		this.materialize();
 		// We can only kick logvars out of randvars with at least 1 arg.	
-		ArrayList <RandVar> candidateRVs = new ArrayList<RandVar>();
-		for (RandVar rv: this.randVars) {
-			if (rv.getArgs().size() > 0) {
-				candidateRVs.add(rv);
-			}
-		}
+		List<RandVar> candidateRVs = this.randVarBuckets.getWithArgs();
 		
 		int rnd = ConfigSingle.getInstance().getRandom().nextInt(candidateRVs.size());		
 		return candidateRVs.get(rnd);
@@ -778,19 +1450,223 @@ public class World {
 	// ####################################
 	
 	/**
+	 * Writes one model file per domain size.
+	 * 
+	 * The world is rendered only once (i.e. potentials are drawn once and all
+	 * files share them): the first file is written completely, the others get
+	 * their own logvar declarations followed by a copy of the first file's body
+	 * (randvars, factors, queries and summary).
+	 * 
+	 * The potentials are drawn from the world's random stream (see
+	 * {@link #getRandom()}), so the files of a world do not depend on the thread
+	 * that writes them or on the worlds created in the meantime.
 	 *
 	 * Set rerollIndex to -1 if no rerolling is done. 
 	 */
 	public void createFiles () {
-		for (int ds : this.specci.getDomainSizes()) {
-			String path = this.constructFilePath(ds);
-			PrintStream ps = Helpers.createFilePrintStream(path);
-			ps.append(this.toBLOGString(ds));
-			ps.append(Helpers.commentOutMultiLine(this.writeWorldSummary()));
-			ps.close();		
+		this.checkNotRetired();
+		if (this.renderedBody != null || Main.store != null) {
+			this.renderFiles().write();
+			return;
+		}
+
+		int[] domainSizes = this.specci.getDomainSizes();
+		String summary = Helpers.commentOutMultiLine(this.writeWorldSummary());
+
+		String renderedPath = null;
+		long bodyStart = 0;
+		for (int i = 0; i < domainSizes.length; i++) {
+			String path = this.constructFilePath(domainSizes[i]);
+			if (this.isOverwrittenLater(domainSizes, i, path)) {
+				continue;
+			}
+
+			StringWriter header = new StringWriter();
+			try {
+				this.writeBLOGHeader(header, domainSizes[i]);
+			} catch (IOException e) {
+				// StringWriter does not throw.
+			}
+			byte[] headerBytes = header.toString().getBytes(StandardCharsets.UTF_8);
+
+			if (renderedPath == null) {
+				try (Writer out = Helpers.createFileWriter(path)) {
+					out.write(header.toString());
+					this.writeBLOGBody(out, domainSizes[i]);
+					out.write(summary);
+				} catch (IOException e) {
+					System.err.println("   Cannot write model file: " + path);
+					System.err.println(e);
+					System.exit(1);
+				}
+				renderedPath = path;
+				bodyStart = headerBytes.length;
+			} else {
+				Helpers.copyFileWithHeader(renderedPath, bodyStart, headerBytes, path);
+			}
 		}
 	}
 
+	/**
+	 * Renders the files of {@link #createFiles()} into memory instead of writing
+	 * them (same content, the potentials are drawn from the world's random
+	 * stream, see {@link #getRandom()}).
+	 * 
+	 * @return rendered files, to be written with {@link ModelFiles#write()}.
+	 */
+	public ModelFiles renderFiles() {
+		this.checkNotRetired();
+		int[] domainSizes = this.specci.getDomainSizes();
+		String summary = Helpers.commentOutMultiLine(this.writeWorldSummary());
+
+		ArrayList<String> paths = new ArrayList<String>();
+		ArrayList<byte[]> headers = new ArrayList<byte[]>();
+		ByteArrayOutputStream body = null;
+		try {
+			for (int i = 0; i < domainSizes.length; i++) {
+				String path = this.constructFilePath(domainSizes[i]);
+				if (this.isOverwrittenLater(domainSizes, i, path)) {
+					continue;
+				}
+
+				StringWriter header = new StringWriter();
+				this.writeBLOGHeader(header, domainSizes[i]);
+				paths.add(path);
+				headers.add(header.toString().getBytes(StandardCharsets.UTF_8));
+
+				if (body == null && this.renderedBody != null) {
+					body = this.renderBodyIncrementally(domainSizes[i], summary);
+				} else if (body == null) {
+					body = new ByteArrayOutputStream(1 << 12);
+					Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), 1 << 16);
+					this.writeBLOGBody(out, domainSizes[i]);
+					out.write(summary);
+					out.close();
+				}
+			}
+		} catch (IOException e) {
+			// ByteArrayOutputStream does not throw.
+		}
+
+		return new ModelFiles(paths.toArray(new String[paths.size()]), headers.toArray(new byte[headers.size()][]),
+				body == null ? new byte[0] : body.toByteArray());
+	}
+
+	/**
+	 * Lets this world continue the rendered body of its predecessor in an
+	 * increment series: only the randvar, factor and query lines of the elements
+	 * that were added since the predecessor was rendered are rendered, the
+	 * others are copied. The total rendering work of a series thus grows
+	 * linearly with its length instead of quadratically.
+	 * 
+	 * The elements of the predecessor must be the first elements of this world
+	 * and must not have been changed (only elements were appended). The
+	 * potentials of a factor are drawn once, when it is first rendered, and kept
+	 * in all later worlds of the series.
+	 * 
+	 * @param previous predecessor in the series (null for the first world: its
+	 *                 rendering is kept for its successor). Its rendering is
+	 *                 taken over and must not be used any more.
+	 */
+	public void reuseRenderingOf(World previous) {
+		if (previous == null || previous.renderedBody == null) {
+			this.renderedBody = new RenderedBody();
+		} else {
+			this.renderedBody = previous.renderedBody;
+			previous.renderedBody = null;
+		}
+	}
+
+	/**
+	 * @return true if this world continues the rendering of its predecessor (see
+	 *         {@link #reuseRenderingOf(World)}).
+	 */
+	public boolean rendersIncrementally() {
+		return this.renderedBody != null;
+	}
+
+	/**
+	 * Rendered randvar, factor and query lines of a world (without the blank
+	 * lines between the sections) and the number of elements they cover.
+	 */
+	private static class RenderedBody {
+		ByteArrayOutputStream randVars = new ByteArrayOutputStream(1 << 12);
+		ByteArrayOutputStream factors = new ByteArrayOutputStream(1 << 12);
+		ByteArrayOutputStream queries = new ByteArrayOutputStream(1 << 10);
+		int randVarCount = 0;
+		int factorCount = 0;
+		int queryCount = 0;
+	}
+
+	/**
+	 * Renders the lines of the elements that were added since the last rendering
+	 * and assembles the body (same content as
+	 * {@link #writeBLOGBody(Writer, int)} followed by the summary).
+	 */
+	private ByteArrayOutputStream renderBodyIncrementally(int domainSize, String summary) throws IOException {
+		RenderedBody r = this.renderedBody;
+		if (r.randVarCount > this.randVars.size() || r.factorCount > this.factors.size()) {
+			// Not a successor of the rendered world: start over.
+			r = this.renderedBody = new RenderedBody();
+		}
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(r.randVars, StandardCharsets.UTF_8), 1 << 16);
+		for (int pos = r.randVarCount; pos < this.randVars.size(); pos++) {
+			this.randVars.get(pos).writeLine(out, domainSize);
+		}
+		out.flush();
+		r.randVarCount = this.randVars.size();
+
+		out = new BufferedWriter(new OutputStreamWriter(r.factors, StandardCharsets.UTF_8), 1 << 16);
+		Random rnd = this.getRandom();
+		for (int pos = r.factorCount; pos < this.factors.size(); pos++) {
+			this.factors.get(pos).writeLine(out, domainSize, rnd);
+		}
+		out.flush();
+		r.factorCount = this.factors.size();
+
+		if (!this.noQueries) {
+			out = new BufferedWriter(new OutputStreamWriter(r.queries, StandardCharsets.UTF_8), 1 << 16);
+			this.writeQueryLines(out, r.queryCount);
+			out.flush();
+			r.queryCount = this.randVars.size();
+		}
+
+		byte[] summaryBytes = summary.getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream body = new ByteArrayOutputStream(
+				r.randVars.size() + r.factors.size() + r.queries.size() + summaryBytes.length + 6);
+		byte[] blankLine = "\n\n".getBytes(StandardCharsets.UTF_8);
+		r.randVars.writeTo(body);
+		body.write(blankLine);
+		r.factors.writeTo(body);
+		body.write(blankLine);
+		if (!this.noQueries) {
+			r.queries.writeTo(body);
+			body.write(blankLine);
+		}
+		body.write(summaryBytes);
+		return body;
+	}
+
+	/**
+	 * Checks whether the file for domain size #i would be overwritten by the file
+	 * of a later domain size (same path, e.g. if the path does not contain the
+	 * domain size).
+	 * 
+	 * @param domainSizes all domain sizes.
+	 * @param i           index of the current domain size.
+	 * @param path        path of the file for domain size #i.
+	 * @return true if a later domain size has the same path.
+	 */
+	private boolean isOverwrittenLater(int[] domainSizes, int i, String path) {
+		for (int j = i + 1; j < domainSizes.length; j++) {
+			if (this.constructFilePath(domainSizes[j]).equals(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	
 	/**
 	 * Constructs a file path based on output path, export directory and the
@@ -820,6 +1696,18 @@ public class World {
 	public String constructFilePath(int currDomainSize) {
 		return this.constructFilePath(String.valueOf(currDomainSize));
 	}
+
+	/**
+	 * @return paths of the model files of this world (one per domain size).
+	 */
+	public String[] constructFilePaths() {
+		int[] domainSizes = this.specci.getDomainSizes();
+		String[] paths = new String[domainSizes.length];
+		for (int i = 0; i < domainSizes.length; i++) {
+			paths[i] = this.constructFilePath(domainSizes[i]);
+		}
+		return paths;
+	}
 	
 
 	
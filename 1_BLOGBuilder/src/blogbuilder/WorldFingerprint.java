@@ -0,0 +1,157 @@
+package blogbuilder;
+
+import java.util.HashSet;
+
+/**
+ * Structural fingerprint of a world that does not depend on the numbering of
+ * its logvars, randvars and factors: worlds that are identical up to renaming
+ * (isomorphic) get the same fingerprint.
+ *
+ * The fingerprint is a Weisfeiler-Lehman hash of the incidence graph: logvar -
+ * randvar edges for the arguments of the randvars, labeled with the argument
+ * position (so that f(a(X,Y),b(X,Y)) and f(a(X,Y),b(Y,X)) differ), and
+ * randvar - factor edges for the arguments of the factors (unlabeled: the
+ * argument order of a factor only permutes its potentials). Every node
+ * starts with a color of its type and degree, randvars also with whether
+ * they are queried (so that worlds that only differ in the queried randvar
+ * are different benchmarks); in each round, a node's new
+ * color is a hash of its color and the multiset of its neighbours' colors
+ * (together with the edge labels).
+ * The rounds stop as soon as they do not split a color class any more; the
+ * fingerprint is a hash of the multiset of the final colors and the domain
+ * sizes. Each round takes O(V + E).
+ *
+ * Different fingerprints mean different structures. The reverse does not
+ * hold in general: WL hashing does not tell apart some non-isomorphic, very
+ * regular graphs (and 64 bit hashes can collide), which is rare for generated
+ * worlds.
+ */
+public class WorldFingerprint {
+
+	private static final long LOGVAR = 1;
+	private static final long RANDVAR = 2;
+	private static final long FACTOR = 3;
+
+	/**
+	 * Salt for neighbour colors (so that a node's own color and its
+	 * neighbours' colors are mixed differently).
+	 */
+	private static final long NEIGHBOUR = 0x5bd1e995L;
+
+	/**
+	 * Computes the fingerprint of a world.
+	 *
+	 * @param c           world (compact representation).
+	 * @param domainSizes domain sizes of the world's files.
+	 * @param allQueries  all randvars are queried (otherwise only the first).
+	 * @param noQueries   no randvar is queried.
+	 * @return fingerprint.
+	 */
+	public static long of(CompactWorld c, int[] domainSizes, boolean allQueries, boolean noQueries) {
+		int lvs = c.getLogVarCount();
+		int rvs = c.getRandVarCount();
+		int facs = c.getFactorCount();
+		int n = lvs + rvs + facs;
+
+		// randvars each logvar is an argument of and the argument positions (CSR)
+		int[] lvRvStart = new int[lvs + 1];
+		for (int rv = 0; rv < rvs; rv++) {
+			for (int i = 0; i < c.getRandVarArgCount(rv); i++) {
+				lvRvStart[c.getRandVarArg(rv, i) + 1]++;
+			}
+		}
+		for (int lv = 0; lv < lvs; lv++) {
+			lvRvStart[lv + 1] += lvRvStart[lv];
+		}
+		int[] lvRvs = new int[lvRvStart[lvs]];
+		int[] lvRvPositions = new int[lvRvStart[lvs]];
+		int[] fill = new int[lvs];
+		for (int rv = 0; rv < rvs; rv++) {
+			for (int i = 0; i < c.getRandVarArgCount(rv); i++) {
+				int lv = c.getRandVarArg(rv, i);
+				lvRvPositions[lvRvStart[lv] + fill[lv]] = i;
+				lvRvs[lvRvStart[lv] + fill[lv]++] = rv;
+			}
+		}
+
+		// node ids: logvars, then randvars, then factors
+		long[] color = new long[n];
+		for (int lv = 0; lv < lvs; lv++) {
+			color[lv] = WorldRandom.mix(LOGVAR, lvRvStart[lv + 1] - lvRvStart[lv]);
+		}
+		for (int rv = 0; rv < rvs; rv++) {
+			boolean queried = !noQueries && (allQueries || rv == 0);
+			color[lvs + rv] = WorldRandom.mix(WorldRandom.mix(WorldRandom.mix(RANDVAR, c.getRandVarArgCount(rv)),
+					c.getOccurrences(rv)), queried ? 1 : 0);
+		}
+		for (int fac = 0; fac < facs; fac++) {
+			color[lvs + rvs + fac] = WorldRandom.mix(FACTOR, c.getFactorArgCount(fac));
+		}
+
+		int classes = countClasses(color);
+		long[] next = new long[n];
+		while (true) {
+			for (int lv = 0; lv < lvs; lv++) {
+				long sum = 0;
+				for (int k = lvRvStart[lv]; k < lvRvStart[lv + 1]; k++) {
+					sum += WorldRandom.mix(argument(lvRvPositions[k]), color[lvs + lvRvs[k]]);
+				}
+				next[lv] = WorldRandom.mix(color[lv], sum);
+			}
+			for (int rv = 0; rv < rvs; rv++) {
+				long sum = 0;
+				for (int i = 0; i < c.getRandVarArgCount(rv); i++) {
+					sum += WorldRandom.mix(argument(i), color[c.getRandVarArg(rv, i)]);
+				}
+				for (int i = 0; i < c.getOccurrences(rv); i++) {
+					sum += WorldRandom.mix(NEIGHBOUR, color[lvs + rvs + c.getOccurrenceFactor(rv, i)]);
+				}
+				next[lvs + rv] = WorldRandom.mix(color[lvs + rv], sum);
+			}
+			for (int fac = 0; fac < facs; fac++) {
+				long sum = 0;
+				for (int i = 0; i < c.getFactorArgCount(fac); i++) {
+					sum += WorldRandom.mix(NEIGHBOUR, color[lvs + c.getFactorArg(fac, i)]);
+				}
+				next[lvs + rvs + fac] = WorldRandom.mix(color[lvs + rvs + fac], sum);
+			}
+
+			long[] swap = color;
+			color = next;
+			next = swap;
+			int refined = countClasses(color);
+			if (refined == classes) {
+				break;
+			}
+			classes = refined;
+		}
+
+		long h = WorldRandom.mix(WorldRandom.mix(WorldRandom.mix(0, lvs), rvs), facs);
+		for (int d : domainSizes) {
+			h = WorldRandom.mix(h, d);
+		}
+		long sum = 0;
+		for (long col : color) {
+			sum += WorldRandom.mix(NEIGHBOUR, col);
+		}
+		return WorldRandom.mix(h, sum);
+	}
+
+	/**
+	 * Salt for the color of a neighbour at the other end of an argument edge of
+	 * a randvar.
+	 *
+	 * @param position position of the argument.
+	 */
+	private static long argument(int position) {
+		return WorldRandom.mix(NEIGHBOUR, position);
+	}
+
+	private static int countClasses(long[] color) {
+		HashSet<Long> classes = new HashSet<Long>();
+		for (long col : color) {
+			classes.add(col);
+		}
+		return classes.size();
+	}
+}
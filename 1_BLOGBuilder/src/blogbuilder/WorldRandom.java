@@ -0,0 +1,111 @@
+package blogbuilder;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Random stream of a single world.
+ *
+ * The stream is a {@link SplittableRandom} whose seed is derived from a key
+ * (e.g. strategy, parameter tuple, reroll and index of the world in its
+ * series) and the seed configured in {@link ConfigSingle}. A world's content
+ * thus depends only on its key, not on the worlds created before it.
+ *
+ * Extends {@link Random} so that it can be used wherever a Random is expected
+ * (e.g. <code>Collections.shuffle(list, rnd)</code>).
+ */
+public class WorldRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private SplittableRandom stream;
+
+	/**
+	 * @param seed seed of the stream.
+	 */
+	public WorldRandom(long seed) {
+		this.stream = new SplittableRandom(seed);
+	}
+
+	private WorldRandom(SplittableRandom stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * Creates the stream for the given key.
+	 *
+	 * @param name e.g. name of the strategy.
+	 * @param key  remaining key components (parameters, reroll, index, ...).
+	 * @return WorldRandom for the key.
+	 */
+	public static WorldRandom forKey(String name, int... key) {
+		long h = mix(ConfigSingle.getInstance().getSeed(), name.hashCode());
+		h = mix(h, key.length);
+		for (int k : key) {
+			h = mix(h, k);
+		}
+		return new WorldRandom(h);
+	}
+
+	/**
+	 * Combines a seed with a value (SplitMix64 finalizer, so that neighboring
+	 * values give unrelated seeds).
+	 *
+	 * @param seed  seed so far.
+	 * @param value value to be mixed in.
+	 * @return combined seed.
+	 */
+	public static long mix(long seed, long value) {
+		long z = seed + (value + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Splits off an independent stream (e.g. for the potentials of a factor).
+	 *
+	 * @return new WorldRandom.
+	 */
+	public WorldRandom split() {
+		return new WorldRandom(this.stream.split());
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		// Called by the super constructor before the stream exists.
+		if (this.stream != null) {
+			this.stream = new SplittableRandom(seed);
+		}
+	}
+
+	@Override
+	protected int next(int bits) {
+		return this.stream.nextInt() >>> (32 - bits);
+	}
+
+	@Override
+	public int nextInt() {
+		return this.stream.nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return this.stream.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return this.stream.nextLong();
+	}
+
+	@Override
+	public double nextDouble() {
+		return this.stream.nextDouble();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return this.stream.nextBoolean();
+	}
+}
@@ -1,12 +1,15 @@
 package elements;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Random;
 
 import blogbuilder.ConfigSingle;
+import blogbuilder.Helpers;
 
 public class Factor extends ModelObject {
 
@@ -16,11 +19,35 @@ public class Factor extends ModelObject {
 	private ArrayList<RandVar> args = new ArrayList<RandVar>();
 
 	/**
-	 * A HashMap with the corresponding variables for a LogVar. 
-	 * Filled before asLine translation.
+	 * A HashMap with the corresponding variables for a LogVar (in order of first
+	 * occurrence). Filled before writeLine translation.
 	 */
 	HashMap<LogVar, String> variables;
 
+	/**
+	 * Factor index of the world this factor belongs to (null if not added to a
+	 * world yet).
+	 */
+	private FactorIndex factorIndex;
+
+	/**
+	 * Position of this factor in its arity bucket of the factor index.
+	 */
+	int arityPos;
+
+	/**
+	 * Position of this factor in the factor index' list of factors with a
+	 * multiple occurring argument (only valid while multipleOccurringArgs > 0).
+	 */
+	int multiplePos;
+
+	/**
+	 * Number of randvars occurring in this factor that occur in more than one
+	 * factor (maintained by the randvars, see
+	 * {@link RandVar#addToFactor(Factor)}).
+	 */
+	int multipleOccurringArgs;
+
 	public Factor(int index, ArrayList<RandVar> args) {
 		super.prefix = "Fac";
 		super.index = index;
@@ -29,7 +56,7 @@ public class Factor extends ModelObject {
 	}
 
 	/**
-	 * Create the line representation of the factor according to the following
+	 * Writes the line representation of the factor according to the following
 	 * rules:
 	 * <ol>
 	 * <li>Has 1 or more non parameterized randvars (e.g. <code>hot</code>) ->
@@ -37,12 +64,26 @@ public class Factor extends ModelObject {
 	 * <li>Else -> <code>parfactor</code> (at least 1 parameterized randvar, e.g.
 	 * <code>App(x)</code>)</li>
 	 * </ol>
+	 * 
+	 * The probabilities are drawn from the current random object while they are
+	 * written, so no part of the line is held in memory.
 	 */
 	@Override
-	public String asLine() {
+	public void writeLine(Writer out, int domainSize) throws IOException {
+		this.writeLine(out, domainSize, ConfigSingle.getInstance().getRandom());
+	}
+
+	/**
+	 * Writes the line of this factor (see {@link #writeLine(Writer, int)}) with
+	 * the probabilities drawn from the given random object.
+	 * 
+	 * @param out        Writer to write to.
+	 * @param domainSize domain size of the file.
+	 * @param r          random object the probabilities are drawn from.
+	 * @throws IOException if writing fails.
+	 */
+	public void writeLine(Writer out, int domainSize, Random r) throws IOException {
 		this.variables = allocateVariables(this.collectUniqueArgLogVars());
-		String probsString = this.generateProbString();
-		String rvString = this.generateRVString();
 
 		/**
 		 * Pattern: (varDeclareString) (probsString) parfactor LV2 A, LV1 B .
@@ -54,14 +95,16 @@ public class Factor extends ModelObject {
 		 * 
 		 * factor MultiArrayPotential[[0.1,0.9]](RV1);
 		 */
-		String ret = String.format("// Factor #%d\n", this.index);
-		String varDeclareString = this.generateVarDeclareString();
-		ret += String.format("%s %s MultiArrayPotential[[%s]](%s);\n",
-				// args.size() > 1? "parfactor" : args.get(0).getArgs().size() == 0?"factor" :
-				// "parfactor",
-				this.isParFactor() ? "parfactor" : "factor", varDeclareString.equals("") ? "" : varDeclareString + ".",
-				probsString, rvString);
-		return ret;
+		out.write("// Factor #");
+		out.write(Integer.toString(this.index));
+		out.write('\n');
+		out.write(this.isParFactor() ? "parfactor " : "factor ");
+		this.writeVarDeclareString(out);
+		out.write(" MultiArrayPotential[[");
+		this.writeProbString(out, r);
+		out.write("]](");
+		this.writeRVString(out);
+		out.write(");\n");
 	}
 
 	/**
@@ -81,78 +124,71 @@ public class Factor extends ModelObject {
 	}
 
 	/**
-	 * For each logvar lookup the variable (in the variables hashmap) and construct
-	 * a out of that.
+	 * For each logvar lookup the variable (in the variables hashmap) and write the
+	 * declaration (followed by a dot, if there are logvars at all).
 	 * 
-	 * Generates something like: <code> "LV2 A, LV1 B" </code>
+	 * Writes something like: <code> "LV2 A, LV1 B." </code>
 	 * 
-	 * @return String varDeclareString
+	 * @param out Writer to write to.
+	 * @throws IOException if writing fails.
 	 */
-	private String generateVarDeclareString() {
-		ArrayList<String> partStrings = new ArrayList<String>();
+	private void writeVarDeclareString(Writer out) throws IOException {
+		boolean first = true;
 		for (LogVar lv : this.variables.keySet()) {
-			partStrings.add(String.format("%s %s", lv.constructName(), this.variables.get(lv)));
+			if (!first) {
+				out.write(", ");
+			}
+			out.write(lv.constructName());
+			out.write(' ');
+			out.write(this.variables.get(lv));
+			first = false;
+		}
+		if (!first) {
+			out.write('.');
 		}
-		return String.join(", ", partStrings);
 	}
 
 	/**
-	 * For each argument RandVar, collect corresponding variables for all argument
+	 * For each argument RandVar, write corresponding variables for all argument
 	 * LogVars.
 	 * 
-	 * Generates something like: <code>"RV1,RV2(A),RV5(A,B)"</code>
+	 * Writes something like: <code>"RV1,RV2(A),RV5(A,B)"</code>
 	 * 
-	 * @return String RVString
+	 * @param out Writer to write to.
+	 * @throws IOException if writing fails.
 	 */
-	private String generateRVString() {
-		ArrayList<String> partStrings = new ArrayList<String>();
-		for (RandVar rv : this.args) {
-			ArrayList<String> lvList = new ArrayList<String>();
-			for (LogVar lv : rv.getArgs()) {
-				lvList.add(this.variables.get(lv));
+	private void writeRVString(Writer out) throws IOException {
+		for (int i = 0; i < this.args.size(); i++) {
+			RandVar rv = this.args.get(i);
+			if (i > 0) {
+				out.write(',');
+			}
+			out.write(rv.constructName());
+			if (rv.getArgs().size() > 0) {
+				out.write('(');
+				for (int j = 0; j < rv.getArgs().size(); j++) {
+					if (j > 0) {
+						out.write(',');
+					}
+					out.write(this.variables.get(rv.getArgs().get(j)));
+				}
+				out.write(')');
 			}
-			String argString = rv.getArgs().size() == 0 ? "" : String.format("(%s)", String.join(",", lvList));
-			partStrings.add(String.format("%s%s", rv.constructName(), argString));
 		}
-		return String.join(",", partStrings);
 	}
 
 	/**
-	 * Generates random probabilities between 0 and 1 and returns them in a double
-	 * array.
+	 * Generates random probabilities between 0 and 1 and writes them (i.e. what
+	 * stands inside the [[...]] of the MultiArrayPotential), delimited by commas
+	 * (e.g. <code>0.12, 0.34</code>). Count = 2 ^ argCount.
 	 * 
-	 * @return double[] array of randomly generated probabilties. Length = argCount
-	 *         ^ 2
+	 * @param out Writer to write to.
+	 * @param r   random object the probabilities are drawn from.
+	 * @throws IOException if writing fails.
 	 */
-	private double[] generateProbabilities() {
+	private void writeProbString(Writer out, Random r) throws IOException {
 		int probCount = (int) Math.pow(2.0, (double) this.args.size());
-		double[] probs = new double[probCount];
-		int intervalMin = 0;
-		int intervalMax = 1;
-
-		Random r = ConfigSingle.getInstance().getRandom();
-
-		for (int i = 0; i < probCount; i++) {
-			probs[i] = r.nextDouble() * (intervalMax - intervalMin) + intervalMin;
-		}
-
-		return probs;
-	}
-
-	/**
-	 * Wrapper function for probability string generation (i.e. what stands inside
-	 * the [[...]] of the MultiArrayPotential).
-	 * 
-	 * @return String of probabilties, delimited by commas (e.g.
-	 *         <code>0.12, 0.34</code>).
-	 */
-	private String generateProbString() {
-		double[] probs = this.generateProbabilities();
-		String str = "";
-		for (int i = 0; i < probs.length; i++) {
-			str += String.format(Locale.ROOT, "%.2f%s", probs[i], i < probs.length - 1 ? ", " : "");
-		}
-		return str;
+		Helpers.writeRandomPotentials(out, r, probCount);
 	}
 
 	/**
@@ -162,7 +198,7 @@ public class Factor extends ModelObject {
 	 * @return list of unique logVars
 	 */
 	private ArrayList<LogVar> collectUniqueArgLogVars() {
-		HashSet<LogVar> logVars = new HashSet<LogVar>();
+		LinkedHashSet<LogVar> logVars = new LinkedHashSet<LogVar>();
 		for (RandVar rv : args) {
 			for (LogVar lv : rv.getArgs()) {
 				logVars.add(lv);
@@ -172,6 +208,14 @@ public class Factor extends ModelObject {
 		return new ArrayList<LogVar>(logVars);
 	}
 
+	/**
+	 * @return number of distinct logvars in the arguments (the factor has
+	 *         domainSize^n groundings).
+	 */
+	public int countUniqueArgLogVars() {
+		return this.collectUniqueArgLogVars().size();
+	}
+
 	/**
 	 * Creates relations between logVars and variables in a hashmap.
 	 * 
@@ -179,7 +223,7 @@ public class Factor extends ModelObject {
 	 * @return a HashMap <LogVar, String> with the variable names as String values.
 	 */
 	private HashMap<LogVar, String> allocateVariables(ArrayList<LogVar> logVars) {
-		HashMap<LogVar, String> map = new HashMap<LogVar, String>();
+		HashMap<LogVar, String> map = new LinkedHashMap<LogVar, String>();
 		char A = 'A';
 		for (int i = 0; i < logVars.size(); i++) {
 			map.put(logVars.get(i), Character.toString((char) (A + i)));
@@ -225,8 +269,72 @@ public class Factor extends ModelObject {
 	 */
 	public void augmentWithRandVar(RandVar rv) {
 		this.args.add(rv);
+		if (this.factorIndex != null) {
+			this.factorIndex.move(this, this.args.size() - 1, this.args.size());
+		}
+		rv.addToFactor(this);
+	}
+
+	/**
+	 * Inserts a randvar at the given position of the factor's arguments.
+	 * 
+	 * @param pos position of the new argument (0 .. number of args).
+	 * @param rv  RandVar to augment the factor with.
+	 */
+	public void insertRandVar(int pos, RandVar rv) {
+		this.args.add(pos, rv);
+		if (this.factorIndex != null) {
+			this.factorIndex.move(this, this.args.size() - 1, this.args.size());
+		}
 		rv.addToFactor(this);
 	}
+
+	/**
+	 * Removes the argument at the given position (inverse of
+	 * {@link #insertRandVar(int, RandVar)}).
+	 * 
+	 * @param pos position of the argument.
+	 * @return the removed RandVar.
+	 */
+	public RandVar removeRandVar(int pos) {
+		RandVar removed = this.args.remove(pos);
+		if (this.factorIndex != null) {
+			this.factorIndex.move(this, this.args.size() + 1, this.args.size());
+		}
+		removed.removeFromFactor(this);
+		return removed;
+	}
+
+	/**
+	 * Updates the number of multiple occurring randvars in this factor (and the
+	 * factor index, if the factor gets its first or loses its last one).
+	 * 
+	 * @param delta +1 or -1.
+	 */
+	void changeMultipleOccurringArgs(int delta) {
+		this.multipleOccurringArgs += delta;
+		if (this.factorIndex != null) {
+			if (delta > 0 && this.multipleOccurringArgs == 1) {
+				this.factorIndex.gotMultipleOccurringArg(this);
+			} else if (delta < 0 && this.multipleOccurringArgs == 0) {
+				this.factorIndex.lostMultipleOccurringArg(this);
+			}
+		}
+	}
+
+	/**
+	 * Sets the index this factor reports its changes to (see
+	 * {@link FactorIndex#add(Factor)}).
+	 * 
+	 * @param factorIndex factor index of the world this factor belongs to.
+	 */
+	void setFactorIndex(FactorIndex factorIndex) {
+		this.factorIndex = factorIndex;
+	}
+
+	FactorIndex getFactorIndex() {
+		return this.factorIndex;
+	}
 	
 
 	/**
@@ -234,19 +342,42 @@ public class Factor extends ModelObject {
 	 * decrementing the replaced randvar's occurrence counter.
 	 * 
 	 * @param rv RandVar that replaces one of the existing arguments.
+	 * @return the replaced RandVar.
 	 */
-	public void replaceKickOutRandVar(RandVar rv) {		
+	public RandVar replaceKickOutRandVar(RandVar rv) {		
 		ArrayList <Integer> candidateIndices = this.searchKickOutCandidatesIndices();
 		if (candidateIndices.size()>0) {
 			int rnd = ConfigSingle.getInstance().getRandom().nextInt(candidateIndices.size());
-			RandVar replaced = this.args.set(candidateIndices.get(rnd), rv);
-			replaced.removeFromFactor(this);
-			rv.addToFactor(this);
+			return this.replaceRandVar(candidateIndices.get(rnd), rv);
 		} else {
 			System.err.println(String.format("Factor #%d: no RandVar kickout candidates found.", this.index));
 			System.exit(1);
+			return null;
 		}
 	}
+
+	/**
+	 * Replaces the argument at the given position. Includes decrementing the
+	 * replaced randvar's occurrence counter.
+	 * 
+	 * @param pos position of the argument.
+	 * @param rv  RandVar that replaces the argument.
+	 * @return the replaced RandVar.
+	 */
+	public RandVar replaceRandVar(int pos, RandVar rv) {
+		RandVar replaced = this.args.set(pos, rv);
+		replaced.removeFromFactor(this);
+		rv.addToFactor(this);
+		return replaced;
+	}
+
+	/**
+	 * @return true if one of the arguments occurs in another factor as well (it
+	 *         can be kicked out without leaving a randvar unmentioned).
+	 */
+	public boolean hasKickOutCandidate() {
+		return this.multipleOccurringArgs > 0;
+	}
 	
 	/**
 	 * Creates a ArrayList of Integers with possible KickOut candidate indices
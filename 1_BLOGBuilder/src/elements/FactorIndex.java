@@ -0,0 +1,253 @@
+package elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Index of the factors of a world by their arity (bucket #i holds all factors
+ * with exactly i arguments). Additionally keeps the factors that have at least
+ * one argument occurring in more than one factor.
+ *
+ * Like the {@link OccurrenceBuckets} of the randvars, the factors report their
+ * changes to the index (see {@link Factor#augmentWithRandVar(RandVar)},
+ * {@link RandVar#addToFactor(Factor)}) and removing a factor from a list swaps
+ * the last factor of the list into its place. Thus the candidates of the
+ * kickout and augmentation selections can be sampled uniformly in O(1)
+ * (O(max. arity)) instead of being collected from all factors.
+ */
+public class FactorIndex {
+
+	private ArrayList<ArrayList<Factor>> buckets = new ArrayList<ArrayList<Factor>>();
+
+	/**
+	 * Highest arity of a factor.
+	 */
+	private int maxArity = 0;
+
+	private int size = 0;
+
+	/**
+	 * Factors with at least one argument that occurs in more than one factor.
+	 */
+	private ArrayList<Factor> withMultipleOccurringArg = new ArrayList<Factor>();
+
+	/**
+	 * Adds a factor to the bucket of its current arity. From now on the factor
+	 * reports its changes to this index (and no longer to an index it was added
+	 * to before).
+	 *
+	 * @param f Factor to be added.
+	 */
+	public void add(Factor f) {
+		f.setFactorIndex(this);
+		this.insert(f, f.getArgs().size());
+		this.size++;
+		if (f.multipleOccurringArgs > 0) {
+			this.gotMultipleOccurringArg(f);
+		}
+	}
+
+	/**
+	 * Moves a factor from one arity bucket to another.
+	 *
+	 * @param f    Factor whose arity changed.
+	 * @param from old arity.
+	 * @param to   new arity.
+	 */
+	void move(Factor f, int from, int to) {
+		ArrayList<Factor> bucket = this.buckets.get(from);
+		Factor last = bucket.remove(bucket.size() - 1);
+		if (last != f) {
+			bucket.set(f.arityPos, last);
+			last.arityPos = f.arityPos;
+		}
+		this.insert(f, to);
+		while (this.maxArity > 0 && this.buckets.get(this.maxArity).isEmpty()) {
+			this.maxArity--;
+		}
+	}
+
+	private void insert(Factor f, int arity) {
+		while (this.buckets.size() <= arity) {
+			this.buckets.add(new ArrayList<Factor>());
+		}
+		ArrayList<Factor> bucket = this.buckets.get(arity);
+		f.arityPos = bucket.size();
+		bucket.add(f);
+		if (arity > this.maxArity) {
+			this.maxArity = arity;
+		}
+	}
+
+	/**
+	 * Adds a factor to the factors with a multiple occurring argument.
+	 *
+	 * @param f Factor whose first argument reached more than one occurrence.
+	 */
+	void gotMultipleOccurringArg(Factor f) {
+		f.multiplePos = this.withMultipleOccurringArg.size();
+		this.withMultipleOccurringArg.add(f);
+	}
+
+	/**
+	 * Removes a factor from the factors with a multiple occurring argument.
+	 *
+	 * @param f Factor that has no multiple occurring argument any more.
+	 */
+	void lostMultipleOccurringArg(Factor f) {
+		Factor last = this.withMultipleOccurringArg.remove(this.withMultipleOccurringArg.size() - 1);
+		if (last != f) {
+			this.withMultipleOccurringArg.set(f.multiplePos, last);
+			last.multiplePos = f.multiplePos;
+		}
+	}
+
+	/**
+	 * @return number of factors.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return highest arity of a factor (0 if there are none).
+	 */
+	public int getMaxArity() {
+		return this.maxArity;
+	}
+
+	/**
+	 * @param arity number of arguments.
+	 * @return number of factors with exactly that many arguments.
+	 */
+	public int count(int arity) {
+		if (arity < 0 || arity >= this.buckets.size()) {
+			return 0;
+		}
+		return this.buckets.get(arity).size();
+	}
+
+	/**
+	 * @param arity number of arguments.
+	 * @return unmodifiable view of the factors with exactly that many arguments.
+	 */
+	public List<Factor> get(int arity) {
+		if (arity < 0 || arity >= this.buckets.size()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(this.buckets.get(arity));
+	}
+
+	/**
+	 * @return number of arity buckets (= highest arity seen so far + 1).
+	 */
+	public int bucketCount() {
+		return this.buckets.size();
+	}
+
+	/**
+	 * Restores the order of the factors within the buckets and the list of
+	 * factors with a multiple occurring argument (see
+	 * {@link OccurrenceBuckets#restoreOrder(List, List, List)}).
+	 *
+	 * @param buckets                  factors of each arity bucket in the order
+	 *                                 to be restored.
+	 * @param withMultipleOccurringArg factors with a multiple occurring argument
+	 *                                 in that order.
+	 */
+	public void restoreOrder(List<List<Factor>> buckets, List<Factor> withMultipleOccurringArg) {
+		for (int arity = 0; arity < buckets.size(); arity++) {
+			while (this.buckets.size() <= arity) {
+				this.buckets.add(new ArrayList<Factor>());
+			}
+			ArrayList<Factor> bucket = this.buckets.get(arity);
+			bucket.clear();
+			for (Factor f : buckets.get(arity)) {
+				f.arityPos = bucket.size();
+				bucket.add(f);
+			}
+		}
+		this.withMultipleOccurringArg.clear();
+		for (Factor f : withMultipleOccurringArg) {
+			f.multiplePos = this.withMultipleOccurringArg.size();
+			this.withMultipleOccurringArg.add(f);
+		}
+	}
+
+	/**
+	 * @return unmodifiable view of the factors with at least one argument that
+	 *         occurs in more than one factor.
+	 */
+	public List<Factor> getWithMultipleOccurringArg() {
+		return Collections.unmodifiableList(this.withMultipleOccurringArg);
+	}
+
+	/**
+	 * Returns a uniformly chosen factor with an arity in [minArity, maxArity].
+	 *
+	 * @param minArity minimal arity.
+	 * @param maxArity maximal arity.
+	 * @param r        random object.
+	 * @return Factor (null if there is no such factor).
+	 */
+	public Factor sample(int minArity, int maxArity, Random r) {
+		int candidates = this.countBetween(minArity, maxArity);
+		if (candidates == 0) {
+			return null;
+		}
+		return this.get(minArity, r.nextInt(candidates));
+	}
+
+	/**
+	 * Returns a uniformly chosen factor with an arity in [minArity, maxArity] the
+	 * given randvar does not occur in (rejection sampling, the randvar occurs in
+	 * only few factors).
+	 *
+	 * @param minArity minimal arity.
+	 * @param maxArity maximal arity.
+	 * @param rv       randvar that must not occur in the factor.
+	 * @param r        random object.
+	 * @return Factor (null if there is no such factor).
+	 */
+	public Factor sampleWithout(int minArity, int maxArity, RandVar rv, Random r) {
+		int candidates = this.countBetween(minArity, maxArity);
+		int excluded = 0;
+		for (Factor f : rv.getOccurrenceFactors()) {
+			int arity = f.getArgs().size();
+			if (f.getFactorIndex() == this && arity >= minArity && arity <= maxArity) {
+				excluded++;
+			}
+		}
+		if (candidates == excluded) {
+			return null;
+		}
+		while (true) {
+			Factor f = this.get(minArity, r.nextInt(candidates));
+			if (!rv.occursIn(f)) {
+				return f;
+			}
+		}
+	}
+
+	private int countBetween(int minArity, int maxArity) {
+		int count = 0;
+		for (int arity = Math.max(minArity, 0); arity <= maxArity && arity < this.buckets.size(); arity++) {
+			count += this.buckets.get(arity).size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return factor #i of the factors with arity >= minArity (bucket by bucket).
+	 */
+	private Factor get(int minArity, int i) {
+		int arity = Math.max(minArity, 0);
+		while (i >= this.buckets.get(arity).size()) {
+			i -= this.buckets.get(arity).size();
+			arity++;
+		}
+		return this.buckets.get(arity).get(i);
+	}
+}
@@ -0,0 +1,84 @@
+package elements;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of small non-negative int values (e.g. the arities of a world's
+ * factors) that keeps track of its maximum value.
+ *
+ * All updates are O(1) (amortized: when the maximum value is removed, the
+ * new maximum is searched downwards), so statistics like the maximum factor
+ * arity can be kept up to date while the world changes instead of being
+ * recomputed from all elements.
+ */
+public class Histogram {
+
+	private int[] counts = new int[8];
+
+	private int max = 0;
+
+	/**
+	 * Number of added values.
+	 */
+	private int total = 0;
+
+	public void add(int value) {
+		if (value >= this.counts.length) {
+			this.counts = Arrays.copyOf(this.counts, Math.max(value + 1, this.counts.length * 2));
+		}
+		this.counts[value]++;
+		this.total++;
+		if (value > this.max) {
+			this.max = value;
+		}
+	}
+
+	public void remove(int value) {
+		this.counts[value]--;
+		this.total--;
+		while (this.max > 0 && this.counts[this.max] == 0) {
+			this.max--;
+		}
+	}
+
+	/**
+	 * Replaces one occurrence of a value by another one (e.g. a factor got an
+	 * additional argument).
+	 *
+	 * @param from old value.
+	 * @param to   new value.
+	 */
+	public void move(int from, int to) {
+		this.add(to);
+		this.remove(from);
+	}
+
+	/**
+	 * @param value value to be looked up.
+	 * @return how often the value has been added (and not removed).
+	 */
+	public int count(int value) {
+		return value < this.counts.length ? this.counts[value] : 0;
+	}
+
+	/**
+	 * @return maximum value in the histogram (0 if empty).
+	 */
+	public int max() {
+		return this.max;
+	}
+
+	/**
+	 * @return number of values in the histogram.
+	 */
+	public int total() {
+		return this.total;
+	}
+
+	/**
+	 * @return counts of the values 0 .. max (entry #i = how often i occurs).
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(this.counts, this.max + 1);
+	}
+}
@@ -1,5 +1,8 @@
 package elements;
 
+import java.io.IOException;
+import java.io.Writer;
+
 public class LogVar extends ModelObject {
 
 	public LogVar(int index) {
@@ -8,11 +11,17 @@ public class LogVar extends ModelObject {
 	}
 
 	@Override
-	public String asLine() {
-		return String.format("type %s;\nguaranteed %s x%dx[XXX];\n", 
-				super.constructName(), 
-				super.constructName(),
-				super.index);
+	public void writeLine(Writer out, int domainSize) throws IOException {
+		String name = super.constructName();
+		out.write("type ");
+		out.write(name);
+		out.write(";\nguaranteed ");
+		out.write(name);
+		out.write(" x");
+		out.write(Integer.toString(super.index));
+		out.write("x[");
+		out.write(Integer.toString(domainSize));
+		out.write("];\n");
 	}
 
 }
@@ -1,5 +1,8 @@
 package elements;
 
+import java.io.IOException;
+import java.io.Writer;
+
 public abstract class ModelObject {
 	
 	/**
@@ -13,10 +16,12 @@ public abstract class ModelObject {
 	protected String prefix;
 	
 	/**
-	 * Returns the representation in the model file.
-	 * @return String with line representation.
+	 * Writes the representation in the model file.
+	 * @param out Writer the line is written to.
+	 * @param domainSize domain size of the logvars in the model file.
+	 * @throws IOException if writing fails.
 	 */
-	public abstract String asLine();
+	public abstract void writeLine(Writer out, int domainSize) throws IOException;
 	
 	/**
 	 * Getter for index of object.
@@ -0,0 +1,281 @@
+package elements;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of the randvars of a world by their occurrence count (bucket #i holds
+ * all randvars that occur in exactly i factors). Additionally keeps the
+ * randvars that do not have a (single randvar) factor yet.
+ *
+ * RandVars register themselves on every change (see
+ * {@link RandVar#addToFactor(Factor)}, {@link RandVar#setHasFactor(boolean)}),
+ * so the randvars with a given occurrence count can be looked up without going
+ * through all randvars.
+ * Removing a randvar from a bucket swaps the last randvar of the bucket into
+ * its place, i.e. the order within a bucket depends on the order of changes.
+ *
+ * Besides the occurrence counts, the statistics of the randvars' logvar
+ * arguments (argument counts, occurrences of each logvar) are kept up to date,
+ * so that the world statistics can be read without going through all
+ * randvars.
+ */
+public class OccurrenceBuckets {
+
+	private ArrayList<ArrayList<RandVar>> buckets = new ArrayList<ArrayList<RandVar>>();
+
+	/**
+	 * RandVars with hasFactor == false.
+	 */
+	private ArrayList<RandVar> withoutFactor = new ArrayList<RandVar>();
+
+	/**
+	 * Highest occurrence count of a randvar.
+	 */
+	private int maxOccurrence = 0;
+
+	/**
+	 * RandVars with at least one logvar argument (in the order they were added).
+	 */
+	private ArrayList<RandVar> withArgs = new ArrayList<RandVar>();
+
+	/**
+	 * Logvar argument counts of the randvars.
+	 */
+	private Histogram argCounts = new Histogram();
+
+	/**
+	 * Number of randvars each logvar is an argument of (by logvar index - 1) and
+	 * the histogram of these numbers (logvars without randvar are not counted).
+	 */
+	private int[] logVarOccurrences = new int[0];
+	private Histogram logVarOccurrenceCounts = new Histogram();
+
+	/**
+	 * Adds a randvar to the bucket of its current occurrence count. From now on
+	 * the randvar reports its occurrence changes to this index (and no longer to
+	 * an index it was added to before).
+	 *
+	 * @param rv RandVar to be added.
+	 */
+	public void add(RandVar rv) {
+		rv.setOccurrenceBuckets(this);
+		this.insert(rv, rv.getOccurrences());
+		if (!rv.hasFactor()) {
+			this.lostFactor(rv);
+		}
+		this.argCounts.add(rv.getArgs().size());
+		if (rv.getArgs().size() > 0) {
+			this.withArgs.add(rv);
+		}
+		for (LogVar lv : rv.getArgs()) {
+			this.logVarAdded(lv);
+		}
+	}
+
+	/**
+	 * Moves a randvar from one bucket to another.
+	 *
+	 * @param rv   RandVar whose occurrence count changed.
+	 * @param from old occurrence count.
+	 * @param to   new occurrence count.
+	 */
+	void move(RandVar rv, int from, int to) {
+		ArrayList<RandVar> bucket = this.buckets.get(from);
+		RandVar last = bucket.remove(bucket.size() - 1);
+		if (last != rv) {
+			bucket.set(rv.bucketPos, last);
+			last.bucketPos = rv.bucketPos;
+		}
+		this.insert(rv, to);
+		while (this.maxOccurrence > 0 && this.buckets.get(this.maxOccurrence).isEmpty()) {
+			this.maxOccurrence--;
+		}
+	}
+
+	/**
+	 * Updates the logvar statistics after a randvar's logvar argument has been
+	 * replaced.
+	 *
+	 * @param oldLV replaced logvar.
+	 * @param newLV new logvar.
+	 */
+	void replacedLogVar(LogVar oldLV, LogVar newLV) {
+		this.logVarAdded(newLV);
+		this.logVarRemoved(oldLV);
+	}
+
+	private void logVarAdded(LogVar lv) {
+		int i = lv.getIndex() - 1;
+		if (i >= this.logVarOccurrences.length) {
+			this.logVarOccurrences = Arrays.copyOf(this.logVarOccurrences, Math.max(i + 1, this.logVarOccurrences.length * 2));
+		}
+		int count = this.logVarOccurrences[i]++;
+		if (count > 0) {
+			this.logVarOccurrenceCounts.move(count, count + 1);
+		} else {
+			this.logVarOccurrenceCounts.add(1);
+		}
+	}
+
+	private void logVarRemoved(LogVar lv) {
+		int count = this.logVarOccurrences[lv.getIndex() - 1]--;
+		if (count > 1) {
+			this.logVarOccurrenceCounts.move(count, count - 1);
+		} else {
+			this.logVarOccurrenceCounts.remove(count);
+		}
+	}
+
+	/**
+	 * Removes a randvar from the randvars without factor (after its hasFactor flag
+	 * has been set).
+	 *
+	 * @param rv RandVar that got a factor.
+	 */
+	void gotFactor(RandVar rv) {
+		RandVar last = this.withoutFactor.remove(this.withoutFactor.size() - 1);
+		if (last != rv) {
+			this.withoutFactor.set(rv.withoutFactorPos, last);
+			last.withoutFactorPos = rv.withoutFactorPos;
+		}
+	}
+
+	/**
+	 * Adds a randvar to the randvars without factor.
+	 *
+	 * @param rv RandVar without factor.
+	 */
+	void lostFactor(RandVar rv) {
+		rv.withoutFactorPos = this.withoutFactor.size();
+		this.withoutFactor.add(rv);
+	}
+
+	private void insert(RandVar rv, int occurrences) {
+		while (this.buckets.size() <= occurrences) {
+			this.buckets.add(new ArrayList<RandVar>());
+		}
+		ArrayList<RandVar> bucket = this.buckets.get(occurrences);
+		rv.bucketPos = bucket.size();
+		bucket.add(rv);
+		if (occurrences > this.maxOccurrence) {
+			this.maxOccurrence = occurrences;
+		}
+	}
+
+	/**
+	 * Returns the randvars that occur in exactly the given number of factors.
+	 *
+	 * @param occurrences occurrence count.
+	 * @return unmodifiable view of the bucket.
+	 */
+	public List<RandVar> get(int occurrences) {
+		if (occurrences < 0 || occurrences >= this.buckets.size()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(this.buckets.get(occurrences));
+	}
+
+	/**
+	 * @param occurrences occurrence count.
+	 * @return number of randvars that occur in exactly that many factors.
+	 */
+	public int count(int occurrences) {
+		if (occurrences < 0 || occurrences >= this.buckets.size()) {
+			return 0;
+		}
+		return this.buckets.get(occurrences).size();
+	}
+
+	/**
+	 * Returns the randvars that do not have a (single randvar) factor yet.
+	 *
+	 * @return unmodifiable view of the randvars with hasFactor == false.
+	 */
+	public List<RandVar> getWithoutFactor() {
+		return Collections.unmodifiableList(this.withoutFactor);
+	}
+
+	/**
+	 * @return highest occurrence count of a randvar (0 if there are none).
+	 */
+	public int getMaxOccurrence() {
+		return this.maxOccurrence;
+	}
+
+	/**
+	 * @return histogram of the occurrence counts (entry #i = number of randvars
+	 *         that occur in exactly i factors).
+	 */
+	public int[] getOccurrenceCounts() {
+		int[] counts = new int[this.maxOccurrence + 1];
+		for (int occ = 0; occ <= this.maxOccurrence; occ++) {
+			counts[occ] = this.count(occ);
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the randvars with at least one logvar argument (the number of
+	 * arguments of a randvar does not change after it has been added).
+	 *
+	 * @return unmodifiable view of the randvars with arguments.
+	 */
+	public List<RandVar> getWithArgs() {
+		return Collections.unmodifiableList(this.withArgs);
+	}
+
+	/**
+	 * @return highest number of logvar arguments of a randvar.
+	 */
+	public int getMaxArgCount() {
+		return this.argCounts.max();
+	}
+
+	/**
+	 * @return highest number of randvars a logvar is an argument of.
+	 */
+	public int getMaxLogVarOccurrence() {
+		return this.logVarOccurrenceCounts.max();
+	}
+
+	/**
+	 * Restores the order of the randvars within the buckets and lists (e.g. after
+	 * a world has been read from a checkpoint, see
+	 * {@link blogbuilder.World#read(java.io.DataInputStream)}). The given lists
+	 * must contain the same randvars as this index.
+	 *
+	 * @param buckets       randvars of each bucket in the order to be restored.
+	 * @param withoutFactor randvars without factor in that order.
+	 * @param withArgs      randvars with arguments in that order.
+	 */
+	public void restoreOrder(List<List<RandVar>> buckets, List<RandVar> withoutFactor, List<RandVar> withArgs) {
+		for (int occ = 0; occ < buckets.size(); occ++) {
+			while (this.buckets.size() <= occ) {
+				this.buckets.add(new ArrayList<RandVar>());
+			}
+			ArrayList<RandVar> bucket = this.buckets.get(occ);
+			bucket.clear();
+			for (RandVar rv : buckets.get(occ)) {
+				rv.bucketPos = bucket.size();
+				bucket.add(rv);
+			}
+		}
+		this.withoutFactor.clear();
+		for (RandVar rv : withoutFactor) {
+			rv.withoutFactorPos = this.withoutFactor.size();
+			this.withoutFactor.add(rv);
+		}
+		this.withArgs.clear();
+		this.withArgs.addAll(withArgs);
+	}
+
+	/**
+	 * @return number of buckets (= highest occurrence count seen so far + 1).
+	 */
+	public int size() {
+		return this.buckets.size();
+	}
+}
@@ -1,9 +1,13 @@
 package elements;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import blogbuilder.ConfigSingle;
 
@@ -17,13 +21,37 @@ public class RandVar extends ModelObject {
 	/**
 	 * A set of factors this RandVar occurs in.
 	 */
-	private HashSet<Factor> occurrenceFactors = new HashSet<Factor>();
+	private LinkedHashSet<Factor> occurrenceFactors = new LinkedHashSet<Factor>();
+
+	/**
+	 * Adjacency in the randvar co-occurrence graph: for each randvar this randvar
+	 * occurs together with, the number of factors they share. Updated whenever
+	 * this randvar or a co-argument joins or leaves a factor.
+	 */
+	private HashMap<RandVar, Integer> connectedRandVars = new HashMap<RandVar, Integer>();
 
 	/**
 	 * Indicator whether randvar is in a factor.
 	 */
 	private boolean hasFactor = false;
 
+	/**
+	 * Occurrence index of the world this randvar belongs to (null if not added to
+	 * a world yet).
+	 */
+	private OccurrenceBuckets occurrenceBuckets;
+
+	/**
+	 * Position of this randvar in its occurrence bucket.
+	 */
+	int bucketPos;
+
+	/**
+	 * Position of this randvar in the occurrence index' list of randvars without
+	 * factor (only valid while hasFactor == false).
+	 */
+	int withoutFactorPos;
+
 	/**
 	 * Constructor for RandVar objects.
 	 * 
@@ -37,10 +65,20 @@ public class RandVar extends ModelObject {
 	}
 
 	@Override
-	public String asLine() {
-		List<String> argNames = args.stream().map(x -> x.constructName()).collect(Collectors.toList());
-		String argstring = args.size() == 0 ? "" : String.format("(%s)", String.join(", ", argNames));
-		return String.format("random Boolean %s%s;\n", this.constructName(), argstring);
+	public void writeLine(Writer out, int domainSize) throws IOException {
+		out.write("random Boolean ");
+		out.write(this.constructName());
+		if (args.size() > 0) {
+			out.write('(');
+			for (int i = 0; i < args.size(); i++) {
+				if (i > 0) {
+					out.write(", ");
+				}
+				out.write(args.get(i).constructName());
+			}
+			out.write(')');
+		}
+		out.write(";\n");
 	}
 
 	/**
@@ -53,12 +91,31 @@ public class RandVar extends ModelObject {
 	}
 
 	/**
-	 * Handles all side effects that occur when a RandVar is added to a Factor:  Add factor's args to connectedRandars list.
+	 * Handles all side effects that occur when a RandVar is added to a Factor:  Connect it to the factor's args
+	 * that have already been added to the factor (the others connect when they are added).
 	 * 
 	 * @param fac that RandVar is added to.
 	 */
 	public void addToFactor(Factor fac) {
-		this.occurrenceFactors.add(fac);
+		if (this.occurrenceFactors.add(fac)) {
+			if (this.occurrenceBuckets != null) {
+				this.occurrenceBuckets.move(this, this.getOccurrences() - 1, this.getOccurrences());
+			}
+			if (this.getOccurrences() == 2) {
+				// now occurs multiple times in both factors
+				for (Factor f : this.occurrenceFactors) {
+					f.changeMultipleOccurringArgs(1);
+				}
+			} else if (this.getOccurrences() > 2) {
+				fac.changeMultipleOccurringArgs(1);
+			}
+			for (RandVar other : fac.getArgs()) {
+				if (other != this && other.occurrenceFactors.contains(fac)) {
+					this.connect(other, 1);
+					other.connect(this, 1);
+				}
+			}
+		}
 	}
 	
 	/**
@@ -70,6 +127,23 @@ public class RandVar extends ModelObject {
 		if (!this.occurrenceFactors.remove(fac)) {
 			System.out.println(String.format("Tried to remove factor %d from RandVar %d occurrenceFactors list, but factor was not found.",
 					fac.index, this.index));
+		} else {
+			if (this.occurrenceBuckets != null) {
+				this.occurrenceBuckets.move(this, this.getOccurrences() + 1, this.getOccurrences());
+			}
+			if (this.getOccurrences() >= 1) {
+				fac.changeMultipleOccurringArgs(-1);
+			}
+			if (this.getOccurrences() == 1) {
+				// remaining factor: occurs only once now
+				this.occurrenceFactors.iterator().next().changeMultipleOccurringArgs(-1);
+			}
+			for (RandVar other : fac.getArgs()) {
+				if (other != this && other.occurrenceFactors.contains(fac)) {
+					this.connect(other, -1);
+					other.connect(this, -1);
+				}
+			}
 		}
 	}
 
@@ -83,20 +157,60 @@ public class RandVar extends ModelObject {
 	}
 
 	/**
-	 * Goes through all occurrenceFactors and collects all the connected RandVars
-	 * (i.e. those that occurr together with this RandVar in at least 1
-	 * (Par)Factor).
+	 * Changes the number of factors shared with another randvar.
+	 * 
+	 * @param other randvar the number is changed for.
+	 * @param delta +1 (shared factor added) or -1 (shared factor removed).
+	 */
+	private void connect(RandVar other, int delta) {
+		this.connectedRandVars.merge(other, delta, (a, b) -> a + b == 0 ? null : a + b);
+	}
+
+	/**
+	 * Checks whether this randvar occurs together with the other randvar in at
+	 * least 1 (Par)Factor. Constant time (see {@link #connectedRandVars}).
+	 * 
+	 * @param other randvar to check.
+	 * @return true if they share a factor.
+	 */
+	public boolean isConnectedTo(RandVar other) {
+		return this.connectedRandVars.containsKey(other);
+	}
+
+	/**
+	 * Returns the number of factors this randvar shares with the other randvar.
+	 * 
+	 * @param other randvar to check.
+	 * @return number of shared factors (0 if not connected).
+	 */
+	public int getSharedFactorCount(RandVar other) {
+		return this.connectedRandVars.getOrDefault(other, 0);
+	}
+
+	/**
+	 * Returns the neighbours of this randvar in the co-occurrence graph (without
+	 * this randvar itself). Constant time, the set is a read-only view of
+	 * {@link #connectedRandVars}.
+	 * 
+	 * @return randvars that share at least 1 factor with this randvar.
+	 */
+	public Set<RandVar> getCoOccurringRandVars() {
+		return Collections.unmodifiableSet(this.connectedRandVars.keySet());
+	}
+
+	/**
+	 * Collects all the connected RandVars (i.e. those that occurr together with
+	 * this RandVar in at least 1 (Par)Factor), including this RandVar itself if it
+	 * occurs in any factor.
 	 * 
 	 * @return RandVar Hashset with connected RandVars (connected = together in at
 	 *         least 1 factor)
 	 */
 	public HashSet<RandVar> getConnectedRandVars() {
-		HashSet<RandVar> connectedRandVars = new HashSet<RandVar>();
-
-		for (Factor fac : this.occurrenceFactors) {
-			connectedRandVars.addAll(fac.getArgs());
+		HashSet<RandVar> connectedRandVars = new HashSet<RandVar>(this.connectedRandVars.keySet());
+		if (this.getOccurrences() > 0) {
+			connectedRandVars.add(this);
 		}
-
 		return connectedRandVars;
 	}
 
@@ -116,6 +230,13 @@ public class RandVar extends ModelObject {
 	 * @param b
 	 */
 	public void setHasFactor(boolean b) {
+		if (b != this.hasFactor && this.occurrenceBuckets != null) {
+			if (b) {
+				this.occurrenceBuckets.gotFactor(this);
+			} else {
+				this.occurrenceBuckets.lostFactor(this);
+			}
+		}
 		this.hasFactor = b;
 	}
 
@@ -126,7 +247,28 @@ public class RandVar extends ModelObject {
 	 */
 	public void replaceKickOutLogVar(LogVar newLV) {
 		int rnd = ConfigSingle.getInstance().getRandom().nextInt(this.args.size());
-		this.args.set(rnd, newLV);
+		LogVar oldLV = this.args.set(rnd, newLV);
+		if (this.occurrenceBuckets != null) {
+			this.occurrenceBuckets.replacedLogVar(oldLV, newLV);
+		}
+	}
+
+	/**
+	 * Sets the occurrence index this randvar reports its occurrence changes to
+	 * (see {@link OccurrenceBuckets#add(RandVar)}).
+	 * 
+	 * @param buckets occurrence index of the world this randvar belongs to.
+	 */
+	void setOccurrenceBuckets(OccurrenceBuckets buckets) {
+		this.occurrenceBuckets = buckets;
+	}
+
+	/**
+	 * @param fac factor.
+	 * @return true if this randvar occurs in the given factor.
+	 */
+	public boolean occursIn(Factor fac) {
+		return this.occurrenceFactors.contains(fac);
 	}
 
 	public ArrayList<Factor> getOccurrenceFactors() {
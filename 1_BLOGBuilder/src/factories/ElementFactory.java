@@ -1,5 +1,9 @@
 package factories;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import blogbuilder.World;
 
 public interface ElementFactory {
@@ -62,4 +66,25 @@ public interface ElementFactory {
 	 * @param w World to be initialized.
 	 */
 	public void initFactors(World w);
+
+	/**
+	 * Writes the parameters of this factory, e.g. with a world in a checkpoint
+	 * (see {@link World#write(DataOutputStream)}). The factory is recreated by
+	 * its no-arg constructor and {@link #readParams(DataInputStream)}. Default:
+	 * no parameters.
+	 * 
+	 * @param out stream to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public default void writeParams(DataOutputStream out) throws IOException {
+	}
+
+	/**
+	 * Reads what {@link #writeParams(DataOutputStream)} has written.
+	 * 
+	 * @param in stream to read from.
+	 * @throws IOException if reading fails.
+	 */
+	public default void readParams(DataInputStream in) throws IOException {
+	}
 }
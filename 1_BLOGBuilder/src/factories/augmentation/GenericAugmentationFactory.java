@@ -1,13 +1,17 @@
 package factories.augmentation;
 
 import blogbuilder.World;
-import elements.Factor;
 import factories.ElementFactory;
 
 /**
  * This abstract class contains the generic methods for copying elements
  * (LogVars, RandVars, Factors) from a given baseWorld into a new world.
  * 
+ * The elements are not copied one by one: the new world takes them over from
+ * the baseWorld (see {@link World#inheritLogVars(World)}), so initialization
+ * does not depend on the size of the baseWorld. The baseWorld is retired
+ * afterwards; fork it (see {@link World#fork()}) if it is still needed.
+ * 
  * A subclass (i.e. concrete augmentation factory) can then just implement 
  * those methods where things shall be handled differently.
  */
@@ -39,23 +43,24 @@ public abstract class GenericAugmentationFactory implements ElementFactory {
 		
 	}
 	
+	/**
+	 * Copies all logVars from given baseWorld into world w.
+	 */
 	public void initLogVars(World w) {
-		w.addAllLogVars(baseWorld.getLogVars());
+		w.inheritLogVars(baseWorld);
 	}
 	
 	/**
 	 * Copies all randVars from given baseWorld into world w.
 	 */
 	public void initRandVars(World w) {
-		w.addAllRandVars(baseWorld.getRandVars());
+		w.inheritRandVars(baseWorld);
 	}
 	
 	/**
 	 * Copies all factors from given baseWorld into world w.
 	 */
 	public void initFactors(World w) {
-		for (Factor fac : baseWorld.getFactors()) {
-			w.addFactor(fac);
-		}
+		w.inheritFactors(baseWorld);
 	}
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package factories.augmentation;
 import java.util.ArrayList;
 import java.util.Arrays;
 
-import com.rits.cloning.Cloner;
 
 import blogbuilder.ConfigSingle;
 import blogbuilder.World;
@@ -19,9 +18,7 @@ public class IncByWorldFactory extends GenericAugmentationFactory  {
 	public IncByWorldFactory(World baseWorld, World incWorld) {
 		super(baseWorld);
 		
-		Cloner cloner = new Cloner();
-		
-		this.incWorld = cloner.deepClone(incWorld);
+		this.incWorld = incWorld.copy();
 	}
 	
 	@Override
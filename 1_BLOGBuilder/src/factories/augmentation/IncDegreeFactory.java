@@ -2,7 +2,6 @@ package factories.augmentation;
 
 import blogbuilder.ConfigSingle;
 import blogbuilder.World;
-import com.rits.cloning.Cloner;
 import elements.Factor;
 import elements.LogVar;
 import elements.RandVar;
@@ -19,14 +18,12 @@ public class IncDegreeFactory extends GenericAugmentationFactory {
     World incWorld;
     int mergePointIndex; // the index to the randvar in the center that connects new worlds
 
-    public IncDegreeFactory(World baseWorld, World incWorld, RandVar mergePoint) {
+    public IncDegreeFactory(World baseWorld, World incWorld, int mergePointIndex) {
         super(baseWorld);
 
-        Cloner cloner = new Cloner();
-
-        // clone old world
-        this.incWorld = cloner.deepClone(incWorld);
-        this.mergePointIndex = mergePoint.getIndex();
+        // copy old world
+        this.incWorld = incWorld.copy();
+        this.mergePointIndex = mergePointIndex;
     }
 
     @Override
@@ -0,0 +1,299 @@
+package factories.augmentation;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import blogbuilder.ConfigSingle;
+import blogbuilder.InferenceCost;
+import blogbuilder.World;
+import elements.Factor;
+import elements.RandVar;
+import factories.ElementFactory;
+
+/**
+ * Edits the factors of a base world until a complexity metric of the world
+ * hits a target value (local search).
+ *
+ * Every step makes a random edit of one factor: if the world is below the
+ * target, a randvar is added to the factor (see
+ * {@link Factor#insertRandVar(int, RandVar)}), else one of its arguments is
+ * removed; or (both ways) an argument is replaced by another randvar (see
+ * {@link Factor#replaceKickOutRandVar(RandVar)}). Edits that move the world
+ * away from the target are undone, edits that keep its distance are kept (to
+ * get across plateaus). Only arguments that occur in other factors as well are
+ * removed or replaced, so all mentioned randvars stay mentioned.
+ *
+ * The metric is re-evaluated incrementally after each edit:
+ * <ul>
+ * <li>{@link Metric#GROUND_FACTORS}: only the groundings of the edited factor
+ * are recounted,</li>
+ * <li>{@link Metric#LIFTED_TREEWIDTH}: the co-occurrence graph is kept up to
+ * date by the randvars (see {@link RandVar#getCoOccurringRandVars()}); only if
+ * the edit added or removed an edge, the width of its min-degree elimination
+ * is recomputed (see {@link InferenceCost#liftedWidth(int[][])}, O(fill * log
+ * V)). Neither the world's compact representation nor the other predictors
+ * of {@link World#estimateInferenceCost()} are computed.</li>
+ * </ul>
+ */
+public class TargetComplexityFactory extends GenericAugmentationFactory {
+
+	/**
+	 * Complexity metrics that can be targeted.
+	 */
+	public enum Metric {
+		/**
+		 * Width of the min-degree elimination order of the randvar co-occurrence
+		 * graph (upper bound of its treewidth).
+		 */
+		LIFTED_TREEWIDTH,
+		/**
+		 * Number of ground factors for the largest domain size of the world.
+		 */
+		GROUND_FACTORS
+	}
+
+	/**
+	 * How often a random randvar is drawn to find one that is not an argument of
+	 * the edited factor yet.
+	 */
+	private static final int DRAWS = 8;
+
+	private Metric metric;
+	private double target;
+	private double tolerance;
+	private int maxFactorArgs;
+	private int maxEdits;
+
+	/**
+	 * Largest domain size of the world (for {@link Metric#GROUND_FACTORS}).
+	 */
+	private int domainSize;
+
+	/**
+	 * Position of each randvar of the world (node of the co-occurrence graph, for
+	 * {@link Metric#LIFTED_TREEWIDTH}).
+	 */
+	private IdentityHashMap<RandVar, Integer> positions;
+
+	/**
+	 * @param baseWorld     world to start from.
+	 * @param metric        metric to hit.
+	 * @param target        target value of the metric.
+	 * @param tolerance     relative distance to the target that counts as hit
+	 *                      (e.g. 0.05, 0 for an exact hit).
+	 * @param maxFactorArgs max. number of arguments of an edited factor.
+	 * @param maxEdits      max. number of edits before the search is given up.
+	 */
+	public TargetComplexityFactory(World baseWorld, Metric metric, double target, double tolerance,
+			int maxFactorArgs, int maxEdits) {
+		super(baseWorld);
+		this.metric = metric;
+		this.target = target;
+		this.tolerance = tolerance;
+		this.maxFactorArgs = maxFactorArgs;
+		this.maxEdits = maxEdits;
+	}
+
+	/**
+	 * Edits the factors inherited from the base world until the target is hit
+	 * (or the max. number of edits is reached, then a warning is printed).
+	 */
+	@Override
+	public void insertFactors(World w) {
+		List<Factor> factors = w.getFactors();
+		if (factors.isEmpty()) {
+			return;
+		}
+		for (int size : w.getSpecContainer().getDomainSizes()) {
+			this.domainSize = Math.max(this.domainSize, size);
+		}
+		Random r = ConfigSingle.getInstance().getRandom();
+
+		double value = this.evaluate(w);
+		int edit = 0;
+		for (; edit < this.maxEdits && !this.isHit(value); edit++) {
+			Factor f = factors.get(r.nextInt(factors.size()));
+			double before = this.groundings(f);
+			boolean grow = value < this.target;
+
+			Runnable undo;
+			boolean edgesChanged;
+			if (r.nextBoolean()) {
+				// replace an argument
+				RandVar rv = this.drawNewArg(w, f, r);
+				if (rv == null || !f.hasKickOutCandidate()) {
+					continue;
+				}
+				RandVar replaced = f.replaceKickOutRandVar(rv);
+				undo = () -> f.replaceRandVar(f.getArgs().indexOf(rv), replaced);
+				edgesChanged = addedEdge(f, rv) || removedEdge(f, replaced, rv);
+			} else if (grow) {
+				// add an argument
+				RandVar rv = this.drawNewArg(w, f, r);
+				if (rv == null || f.getArgs().size() >= this.maxFactorArgs) {
+					continue;
+				}
+				f.insertRandVar(f.getArgs().size(), rv);
+				undo = () -> f.removeRandVar(f.getArgs().size() - 1);
+				edgesChanged = addedEdge(f, rv);
+			} else {
+				// remove an argument
+				int pos = drawKickOutPosition(f, r);
+				if (pos < 0 || f.getArgs().size() <= 1) {
+					continue;
+				}
+				RandVar removed = f.removeRandVar(pos);
+				undo = () -> f.insertRandVar(pos, removed);
+				edgesChanged = removedEdge(f, removed, null);
+			}
+
+			double next = this.reevaluate(w, value, f, before, edgesChanged);
+			if (Math.abs(next - this.target) <= Math.abs(value - this.target)) {
+				value = next;
+			} else {
+				undo.run();
+			}
+		}
+
+		if (!this.isHit(value)) {
+			System.err.println(String.format("   %s: target %s = %s not reached after %d edits (%s).",
+					w.constructFilePath(), this.metric, format(this.target), edit, format(value)));
+		}
+	}
+
+	private boolean isHit(double value) {
+		return Math.abs(value - this.target) <= this.tolerance * this.target;
+	}
+
+	/**
+	 * Evaluates the metric for the whole world.
+	 */
+	private double evaluate(World w) {
+		if (this.metric == Metric.LIFTED_TREEWIDTH) {
+			int width = InferenceCost.liftedWidth(this.coOccurrenceAdjacency(w));
+			return width < 0 ? Double.POSITIVE_INFINITY : width;
+		}
+		double sum = 0;
+		for (Factor f : w.getFactors()) {
+			sum += this.groundings(f);
+		}
+		return sum;
+	}
+
+	/**
+	 * Copies the co-occurrence graph kept by the randvars into adjacency lists
+	 * (O(V + E)).
+	 */
+	private int[][] coOccurrenceAdjacency(World w) {
+		List<RandVar> randVars = w.getRandVars();
+		if (this.positions == null) {
+			// the edits do not change the randvars
+			this.positions = new IdentityHashMap<RandVar, Integer>();
+			for (int i = 0; i < randVars.size(); i++) {
+				this.positions.put(randVars.get(i), i);
+			}
+		}
+		int[][] adjacency = new int[randVars.size()][];
+		for (int i = 0; i < adjacency.length; i++) {
+			adjacency[i] = new int[randVars.get(i).getCoOccurringRandVars().size()];
+			int k = 0;
+			for (RandVar other : randVars.get(i).getCoOccurringRandVars()) {
+				adjacency[i][k++] = this.positions.get(other);
+			}
+		}
+		return adjacency;
+	}
+
+	/**
+	 * Evaluates the metric after factor f has been edited.
+	 *
+	 * @param value        value before the edit.
+	 * @param before       groundings of f before the edit.
+	 * @param edgesChanged whether the co-occurrence graph has changed.
+	 */
+	private double reevaluate(World w, double value, Factor f, double before, boolean edgesChanged) {
+		if (this.metric == Metric.LIFTED_TREEWIDTH) {
+			return edgesChanged ? this.evaluate(w) : value;
+		}
+		return value - before + this.groundings(f);
+	}
+
+	private double groundings(Factor f) {
+		if (this.metric != Metric.GROUND_FACTORS) {
+			return 0;
+		}
+		return Math.pow(this.domainSize, f.countUniqueArgLogVars());
+	}
+
+	/**
+	 * Draws a randvar that is not an argument of the factor yet (null if none is
+	 * found within a few draws).
+	 */
+	private RandVar drawNewArg(World w, Factor f, Random r) {
+		List<RandVar> randVars = w.getRandVars();
+		for (int i = 0; i < DRAWS; i++) {
+			RandVar rv = randVars.get(r.nextInt(randVars.size()));
+			if (!rv.occursIn(f)) {
+				return rv;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Draws the position of an argument that occurs in other factors as well (-1
+	 * if there is none).
+	 */
+	private static int drawKickOutPosition(Factor f, Random r) {
+		if (!f.hasKickOutCandidate()) {
+			return -1;
+		}
+		List<RandVar> args = f.getArgs();
+		int start = r.nextInt(args.size());
+		for (int i = 0; i < args.size(); i++) {
+			int pos = (start + i) % args.size();
+			if (args.get(pos).getOccurrences() > 1) {
+				return pos;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return true if rv (just added to f) got a new co-occurrence edge.
+	 */
+	private static boolean addedEdge(Factor f, RandVar rv) {
+		for (RandVar other : f.getArgs()) {
+			if (other != rv && rv.getSharedFactorCount(other) == 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if rv (just removed from f, or replaced by added) lost a
+	 *         co-occurrence edge.
+	 */
+	private static boolean removedEdge(Factor f, RandVar rv, RandVar added) {
+		for (RandVar other : f.getArgs()) {
+			if (other != added && !rv.isConnectedTo(other)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String format(double value) {
+		if (Double.isInfinite(value)) {
+			return "elimination given up";
+		}
+		return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+	}
+
+	@Override
+	public ElementFactory getBaseFactory() {
+		return super.baseWorld.getFactorFactory();
+	}
+}
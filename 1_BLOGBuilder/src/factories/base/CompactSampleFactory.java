@@ -0,0 +1,354 @@
+package factories.base;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import blogbuilder.CompactWorld;
+import blogbuilder.ConfigSingle;
+import blogbuilder.SpecContainer;
+
+/**
+ * Samples worlds with the strategy of the {@link RandomSampleFactory} directly
+ * into a {@link CompactWorld}, i.e. without creating element objects.
+ *
+ * The random numbers are drawn in the same order and the occurrence buckets
+ * change in the same order as in the RandomSampleFactory, so for the same
+ * random stream both factories create the same world. Only int arrays are
+ * used, which allows worlds with millions of factors.
+ */
+public class CompactSampleFactory {
+
+	private SpecContainer sc;
+	private Random r;
+
+	private int logVarCount;
+	private int randVarCount;
+
+	// LogVar args of each randvar (CSR)
+	private int[] rvArgStart;
+	private IntList rvArgs;
+
+	// RandVar args of each factor (CSR, without the forced arguments)
+	private IntList facArgStart;
+	private IntList facArgs;
+
+	// Factors each randvar occurs in
+	private int[][] rvFacs;
+	private int[] occurrences;
+
+	// Occurrence buckets (same order of changes as OccurrenceBuckets)
+	private IntList[] buckets;
+	private int[] bucketPos;
+	private IntList withoutFactor;
+	private int[] withoutFactorPos;
+
+	// Swapped positions of the partial Fisher-Yates shuffle (valid if stamp
+	// matches)
+	private int[] swapped;
+	private int[] swappedStamp;
+	private int stamp;
+
+	// (factor, randvar) pairs added by forcing all randvars to be mentioned
+	private IntList forced;
+
+	/**
+	 * Samples a world according to the given spec.
+	 *
+	 * @param sc spec of the world.
+	 * @return sampled world.
+	 */
+	public CompactWorld sample(SpecContainer sc) {
+		this.sc = sc;
+		this.r = ConfigSingle.getInstance().getRandom();
+		this.logVarCount = sc.getLogVarCount();
+		this.randVarCount = sc.getRandVarCount();
+
+		this.insertRandVars();
+		this.insertFactors();
+
+		return this.freeze();
+	}
+
+	/**
+	 * Same strategy as {@link RandomSampleFactory#insertRandVars(blogbuilder.World)}.
+	 */
+	private void insertRandVars() {
+		this.rvArgStart = new int[this.randVarCount + 1];
+		this.rvArgs = new IntList();
+		int[] shuffle = new int[this.logVarCount];
+
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			int argCount = this.r.nextInt(Math.min(this.sc.getMaxRandVarArgs(), this.logVarCount) + 1);
+
+			// Same draws as Collections.shuffle on a fresh list of all logvars
+			for (int i = 0; i < this.logVarCount; i++) {
+				shuffle[i] = i;
+			}
+			for (int i = this.logVarCount; i > 1; i--) {
+				int j = this.r.nextInt(i);
+				int tmp = shuffle[i - 1];
+				shuffle[i - 1] = shuffle[j];
+				shuffle[j] = tmp;
+			}
+			for (int i = 0; i < argCount; i++) {
+				this.rvArgs.add(shuffle[i]);
+			}
+			this.rvArgStart[rv + 1] = this.rvArgs.size();
+		}
+	}
+
+	/**
+	 * Same strategy as {@link RandomSampleFactory#insertFactors(blogbuilder.World)}.
+	 */
+	private void insertFactors() {
+		this.facArgStart = new IntList();
+		this.facArgStart.add(0);
+		this.facArgs = new IntList();
+		this.rvFacs = new int[this.randVarCount][];
+		this.occurrences = new int[this.randVarCount];
+		this.buckets = new IntList[] { new IntList() };
+		this.bucketPos = new int[this.randVarCount];
+		this.withoutFactor = new IntList();
+		this.withoutFactorPos = new int[this.randVarCount];
+		this.swapped = new int[this.randVarCount];
+		this.swappedStamp = new int[this.randVarCount];
+		this.forced = new IntList();
+
+		for (int rv = 0; rv < this.randVarCount; rv++) {
+			this.bucketPos[rv] = rv;
+			this.buckets[0].add(rv);
+			this.withoutFactorPos[rv] = rv;
+			this.withoutFactor.add(rv);
+		}
+
+		IntList args = new IntList();
+		while (this.getFactorCount() < this.sc.getFactorCount()) {
+			int argCount = this.r.nextInt(this.sc.getFactorArgCount()) + 1; // interval: [1, factorArgCount]
+			args.clear();
+
+			if (argCount > 1) {
+				this.collectParfactorRandVars(argCount, args);
+			} else {
+				args.add(this.chooseFactorRandVar());
+			}
+
+			if (argCount > args.size() && ConfigSingle.getInstance().verbose) {
+				System.err.printf(" > Warning: Just found %d instead of %d arguments for factor #%d.\n", args.size(), argCount, this.getFactorCount() + 1);
+			}
+			this.addFactor(args);
+		}
+
+		if (this.buckets[0].size() > 0) {
+			System.err.println("   Initial RandVar-Factor allocation left RandVars not-mentioned.\n   Forcing all RVs to be mentioned...");
+			for (int rv = 0; rv < this.randVarCount; rv++) {
+				if (this.occurrences[rv] == 0) {
+					this.forced.add(this.r.nextInt(this.getFactorCount()));
+					this.forced.add(rv);
+				}
+			}
+		}
+	}
+
+	private int getFactorCount() {
+		return this.facArgStart.size() - 1;
+	}
+
+	/**
+	 * Same as World.addFactor(Factor): factors without args are not created.
+	 */
+	private void addFactor(IntList args) {
+		if (args.size() == 0) {
+			if (ConfigSingle.getInstance().verbose) {
+				System.err.printf(" > Warning: Unknown factor size for factor #%d: %d. Factor not created.\n", this.getFactorCount() + 1, 0);
+			}
+			return;
+		}
+		int fac = this.getFactorCount();
+		for (int i = 0; i < args.size(); i++) {
+			int rv = args.get(i);
+			this.facArgs.add(rv);
+			this.addToFactor(rv, fac);
+		}
+		this.facArgStart.add(this.facArgs.size());
+
+		if (args.size() == 1 && this.withoutFactorPos[args.get(0)] != -1) {
+			// got factor: remove from the randvars without factor
+			int rv = args.get(0);
+			int last = this.withoutFactor.removeLast();
+			if (last != rv) {
+				this.withoutFactor.set(this.withoutFactorPos[rv], last);
+				this.withoutFactorPos[last] = this.withoutFactorPos[rv];
+			}
+			this.withoutFactorPos[rv] = -1;
+		}
+	}
+
+	private void addToFactor(int rv, int fac) {
+		int occ = this.occurrences[rv];
+		if (this.rvFacs[rv] == null) {
+			this.rvFacs[rv] = new int[2];
+		} else if (this.rvFacs[rv].length == occ) {
+			this.rvFacs[rv] = Arrays.copyOf(this.rvFacs[rv], occ * 2);
+		}
+		this.rvFacs[rv][occ] = fac;
+		this.occurrences[rv] = occ + 1;
+
+		// move to the next bucket
+		IntList bucket = this.buckets[occ];
+		int last = bucket.removeLast();
+		if (last != rv) {
+			bucket.set(this.bucketPos[rv], last);
+			this.bucketPos[last] = this.bucketPos[rv];
+		}
+		if (this.buckets.length <= occ + 1) {
+			this.buckets = Arrays.copyOf(this.buckets, occ + 2);
+			this.buckets[occ + 1] = new IntList();
+		}
+		this.bucketPos[rv] = this.buckets[occ + 1].size();
+		this.buckets[occ + 1].add(rv);
+	}
+
+	/**
+	 * Same as RandomSampleFactory.chooseFactorRandVar(World).
+	 */
+	private int chooseFactorRandVar() {
+		if (this.withoutFactor.size() == 0) {
+			return this.r.nextInt(this.randVarCount);
+		}
+		return this.withoutFactor.get(this.r.nextInt(this.withoutFactor.size()));
+	}
+
+	/**
+	 * Same as RandomSampleFactory.collectParfactorRandVars(int, World).
+	 */
+	private void collectParfactorRandVars(int argCount, IntList collected) {
+		// 1. RandVars w/o occurrence: partial Fisher-Yates shuffle
+		IntList nonMentioned = this.buckets[0];
+		this.stamp++;
+		for (int i = 0; i < nonMentioned.size() && collected.size() < argCount; i++) {
+			int j = i + this.r.nextInt(nonMentioned.size() - i);
+			int picked = this.swappedStamp[j] == this.stamp ? this.swapped[j] : j;
+			this.swapped[j] = this.swappedStamp[i] == this.stamp ? this.swapped[i] : i;
+			this.swappedStamp[j] = this.stamp;
+			this.collectIfUnconnected(nonMentioned.get(picked), collected);
+		}
+
+		// 2. RandVars not yet at maxOccurrence
+		int maxOcc = this.sc.getMaxRandVarOccurrences();
+		for (int occ = 1; occ < maxOcc && occ < this.buckets.length && collected.size() < argCount; occ++) {
+			this.collectFromBucket(this.buckets[occ], argCount, collected);
+		}
+
+		// 3. RandVars at maxOccurrence
+		int maxedOcc = this.sc.getMaxRandVarArgs();
+		if (maxedOcc >= maxOcc && maxedOcc < this.buckets.length) {
+			this.collectFromBucket(this.buckets[maxedOcc], argCount, collected);
+		}
+	}
+
+	private void collectFromBucket(IntList bucket, int argCount, IntList collected) {
+		for (int i = 0; i < bucket.size() && collected.size() < argCount; i++) {
+			this.collectIfUnconnected(bucket.get(i), collected);
+		}
+	}
+
+	private void collectIfUnconnected(int next, IntList collected) {
+		for (int i = 0; i < collected.size(); i++) {
+			int c = collected.get(i);
+			if (c == next || this.isConnected(c, next)) {
+				return;
+			}
+		}
+		collected.add(next);
+	}
+
+	/**
+	 * @return true if both randvars occur in a common factor (goes through the
+	 *         factors of the randvar with less occurrences).
+	 */
+	private boolean isConnected(int a, int b) {
+		if (this.occurrences[a] > this.occurrences[b]) {
+			int tmp = a;
+			a = b;
+			b = tmp;
+		}
+		for (int i = 0; i < this.occurrences[a]; i++) {
+			int fac = this.rvFacs[a][i];
+			for (int k = this.facArgStart.get(fac); k < this.facArgStart.get(fac + 1); k++) {
+				if (this.facArgs.get(k) == b) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the CompactWorld, the forced arguments are appended to the
+	 * arguments of their factors (in the order they were added).
+	 */
+	private CompactWorld freeze() {
+		int factorCount = this.getFactorCount();
+		int[] facArgStart = new int[factorCount + 1];
+		int[] extra = new int[factorCount];
+		for (int i = 0; i < this.forced.size(); i += 2) {
+			extra[this.forced.get(i)]++;
+		}
+		for (int f = 0; f < factorCount; f++) {
+			facArgStart[f + 1] = facArgStart[f] + this.facArgStart.get(f + 1) - this.facArgStart.get(f) + extra[f];
+		}
+
+		int[] facArgs = new int[facArgStart[factorCount]];
+		int[] fill = new int[factorCount];
+		for (int f = 0; f < factorCount; f++) {
+			for (int k = this.facArgStart.get(f); k < this.facArgStart.get(f + 1); k++) {
+				facArgs[facArgStart[f] + fill[f]++] = this.facArgs.get(k);
+			}
+		}
+		for (int i = 0; i < this.forced.size(); i += 2) {
+			int f = this.forced.get(i);
+			facArgs[facArgStart[f] + fill[f]++] = this.forced.get(i + 1);
+		}
+
+		return new CompactWorld(this.logVarCount, this.rvArgStart, this.rvArgs.toArray(), facArgStart, facArgs);
+	}
+
+	/**
+	 * Growable int array.
+	 */
+	private static class IntList {
+		private int[] values = new int[8];
+		private int size;
+
+		void add(int v) {
+			if (this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.values[this.size++] = v;
+		}
+
+		int get(int i) {
+			return this.values[i];
+		}
+
+		void set(int i, int v) {
+			this.values[i] = v;
+		}
+
+		int removeLast() {
+			return this.values[--this.size];
+		}
+
+		int size() {
+			return this.size;
+		}
+
+		void clear() {
+			this.size = 0;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(this.values, this.size);
+		}
+	}
+}
@@ -2,9 +2,9 @@ package factories.base;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -12,6 +12,7 @@ import blogbuilder.ConfigSingle;
 import blogbuilder.World;
 import elements.Factor;
 import elements.LogVar;
+import elements.OccurrenceBuckets;
 import elements.RandVar;
 import factories.ElementFactory;
 
@@ -67,7 +68,7 @@ public class RandomSampleFactory implements ElementFactory {
 		ArrayList<LogVar> args = new ArrayList<LogVar>();
 
 		ArrayList<LogVar> shuffleList = new ArrayList<LogVar>(w.getLogVars());
-		Collections.shuffle(shuffleList);
+		Collections.shuffle(shuffleList, r);
 		args.addAll(shuffleList.subList(0, argCount));
 		return args;
 	}
@@ -130,7 +131,7 @@ public class RandomSampleFactory implements ElementFactory {
 	 * @return RandVar object
 	 */
 	private RandVar chooseFactorRandVar(World w) {
-		ArrayList<RandVar> candidates = new ArrayList<RandVar> ( w.getRandVars().stream().filter(x -> !x.hasFactor()).collect(Collectors.toList()));
+		List<RandVar> candidates = w.getRandVarBuckets().getWithoutFactor();
 		
 		// No candidates with hasFactor == false?
 		if (candidates.size() == 0) {
@@ -144,44 +145,72 @@ public class RandomSampleFactory implements ElementFactory {
 	/**
 	 * Collect argCount RandVars with the following priority:
 	 * <ol>
-	 * <li>randVars w/o occurence</li>
-	 * <li>randVars not yet at maxOccurence</li>
+	 * <li>randVars w/o occurence (in random order)</li>
+	 * <li>randVars not yet at maxOccurence (less occurrences first)</li>
 	 * <li>randVars at maxOccurence</li>
 	 * </ol>
 	 * 
 	 * The following restrictions are made:
 	 * A RandVar can occur only (at most) once with each other RandVar.
 	 * 
+	 * The candidates are taken from the world's occurrence buckets, so only as
+	 * many randvars are looked at as are needed (plus the skipped ones).
+	 * 
 	 * @param argCount number of args (randVars) to be collected.
 	 * @return ArrayList of collected RandVars
 	 */
 	private ArrayList<RandVar> collectParfactorRandVars(int argCount, World w) {
-		// 1. Collect all candidates in order
-		LinkedHashSet<RandVar> cand = new LinkedHashSet<RandVar>();
-		
-		ArrayList<RandVar> temp = new ArrayList<RandVar>(w.getNonMentionedRandVars());
-		Collections.shuffle(temp);
-		cand.addAll(temp);
-		temp = new ArrayList<RandVar>(w.getNonMaxedRandVars());
-		cand.addAll(temp);
-		temp = new ArrayList<RandVar>(w.getMaxedRandVars());
-		cand.addAll(temp);
-		
-		// 2. While not enough found and not empty: add to collected
-		HashSet<RandVar> collected = new HashSet<RandVar>();
-		HashSet<RandVar> connected = new HashSet<RandVar>();
-		int missing = argCount;
-		Iterator<RandVar> it = cand.iterator();
-		while (missing > 0 & it.hasNext()) {
-			RandVar next = it.next();
-			if (!collected.contains(next) && !connected.contains(next)) {
-				collected.add(next);
-				connected.addAll(next.getConnectedRandVars());
-				missing--;
+		OccurrenceBuckets buckets = w.getRandVarBuckets();
+		ArrayList<RandVar> collected = new ArrayList<RandVar>();
+
+		// 1. RandVars w/o occurrence: partial Fisher-Yates shuffle (swapped
+		// positions are kept in a map instead of copying the bucket).
+		List<RandVar> nonMentioned = buckets.get(0);
+		HashMap<Integer, Integer> swapped = new HashMap<Integer, Integer>();
+		Random r = ConfigSingle.getInstance().getRandom();
+		for (int i = 0; i < nonMentioned.size() && collected.size() < argCount; i++) {
+			int j = i + r.nextInt(nonMentioned.size() - i);
+			int picked = swapped.getOrDefault(j, j);
+			swapped.put(j, swapped.getOrDefault(i, i));
+			this.collectIfUnconnected(nonMentioned.get(picked), collected);
+		}
+
+		// 2. RandVars not yet at maxOccurrence
+		int maxOcc = w.getSpecContainer().getMaxRandVarOccurrences();
+		for (int occ = 1; occ < maxOcc && occ < buckets.size() && collected.size() < argCount; occ++) {
+			this.collectFromBucket(buckets.get(occ), argCount, collected);
+		}
+
+		// 3. RandVars at maxOccurrence
+		int maxedOcc = w.getSpecContainer().getMaxRandVarArgs();
+		if (maxedOcc >= maxOcc) {
+			this.collectFromBucket(buckets.get(maxedOcc), argCount, collected);
+		}
+
+		return collected;
+	}
+
+	/**
+	 * Goes through the bucket in order and collects randvars until argCount have
+	 * been collected.
+	 */
+	private void collectFromBucket(List<RandVar> bucket, int argCount, ArrayList<RandVar> collected) {
+		for (int i = 0; i < bucket.size() && collected.size() < argCount; i++) {
+			this.collectIfUnconnected(bucket.get(i), collected);
+		}
+	}
+
+	/**
+	 * Adds the randvar to collected, if it is neither collected yet nor connected
+	 * to one of the collected randvars (argCount constant time checks).
+	 */
+	private void collectIfUnconnected(RandVar next, ArrayList<RandVar> collected) {
+		for (RandVar c : collected) {
+			if (c == next || c.isConnectedTo(next)) {
+				return;
 			}
 		}
-		
-		return new ArrayList<RandVar>(collected);
+		collected.add(next);
 	}
 	
 	/**
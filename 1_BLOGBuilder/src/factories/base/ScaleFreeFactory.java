@@ -0,0 +1,358 @@
+package factories.base;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import blogbuilder.CompactWorld;
+import blogbuilder.ConfigSingle;
+import blogbuilder.SpecContainer;
+import blogbuilder.World;
+import elements.Factor;
+import elements.LogVar;
+import elements.RandVar;
+import factories.ElementFactory;
+
+/**
+ * Creates worlds with heavy-tailed (power-law) randvar occurrence and logvar
+ * sharing, as in real relational data, by preferential attachment:
+ * <ul>
+ * <li>the arguments of a randvar are drawn (without repetition) with
+ * probability proportional to <code>uses + logVarOffset</code>, where uses is
+ * the number of randvars the logvar is already an argument of,</li>
+ * <li>the arguments of a factor are drawn (without repetition) with probability
+ * proportional to <code>occurrences + randVarOffset</code>.</li>
+ * </ul>
+ * The smaller the offset, the heavier the tail (the more the first hubs
+ * attract). The occurrence caps of the spec (maxRandVarOccurrences) are not
+ * used; randvars that are not mentioned in the end are added to a random new
+ * factor, as in the {@link RandomSampleFactory}.
+ *
+ * The weights are kept in a Fenwick tree, so drawing and updating a weight
+ * takes O(log n) and a world with 10^6 factors is created in seconds. The
+ * sampling works on int arrays: a world can be sampled directly into a
+ * {@link CompactWorld} (see {@link #sample(SpecContainer)}), which creates the
+ * same world as filling a World with this factory.
+ */
+public class ScaleFreeFactory implements ElementFactory {
+
+	private double randVarOffset;
+
+	private double logVarOffset;
+
+	/**
+	 * Factory with offset 1 for randvars and logvars.
+	 */
+	public ScaleFreeFactory() {
+		this(1, 1);
+	}
+
+	/**
+	 * @param randVarOffset weight of a randvar without occurrence (> 0).
+	 * @param logVarOffset  weight of a logvar that is not used yet (> 0).
+	 */
+	public ScaleFreeFactory(double randVarOffset, double logVarOffset) {
+		this.randVarOffset = randVarOffset;
+		this.logVarOffset = logVarOffset;
+	}
+
+	/**
+	 * Samples a world according to the given spec without creating element
+	 * objects.
+	 *
+	 * @param sc spec of the world.
+	 * @return sampled world.
+	 */
+	public CompactWorld sample(SpecContainer sc) {
+		Random r = ConfigSingle.getInstance().getRandom();
+		int logVarCount = sc.getLogVarCount();
+		int[][] rvArgs = this.drawRandVarArgs(sc.getRandVarCount(), new int[logVarCount], sc.getMaxRandVarArgs(), r);
+		int[][] facArgs = this.drawFactorArgs(sc.getFactorCount(), new int[sc.getRandVarCount()],
+				sc.getFactorArgCount(), r);
+		return new CompactWorld(logVarCount, rvArgs[0], rvArgs[1], facArgs[0], facArgs[1]);
+	}
+
+	/**
+	 * Creates logVarCount logvars (adds the missing ones if called more than
+	 * once).
+	 */
+	@Override
+	public void insertLogVars(World w) {
+		while (w.getLogVars().size() < w.getSpecContainer().getLogVarCount()) {
+			w.addLogVar(new LogVar(w.getNextLogVarIndex()));
+		}
+	}
+
+	/**
+	 * Creates the missing randvars: each gets a random argCount between 0 and
+	 * maxRandVarArgs, its logvars are drawn by preferential attachment.
+	 */
+	@Override
+	public void insertRandVars(World w) {
+		int missing = w.getSpecContainer().getRandVarCount() - w.getRandVars().size();
+		if (missing <= 0) {
+			return;
+		}
+		List<LogVar> logVars = w.getLogVars();
+		IdentityHashMap<LogVar, Integer> positions = new IdentityHashMap<LogVar, Integer>();
+		for (int i = 0; i < logVars.size(); i++) {
+			positions.put(logVars.get(i), i);
+		}
+		int[] uses = new int[logVars.size()];
+		for (RandVar rv : w.getRandVars()) {
+			for (LogVar lv : rv.getArgs()) {
+				uses[positions.get(lv)]++;
+			}
+		}
+
+		int[][] csr = this.drawRandVarArgs(missing, uses, w.getSpecContainer().getMaxRandVarArgs(),
+				ConfigSingle.getInstance().getRandom());
+		for (int rv = 0; rv < missing; rv++) {
+			ArrayList<LogVar> args = new ArrayList<LogVar>();
+			for (int k = csr[0][rv]; k < csr[0][rv + 1]; k++) {
+				args.add(logVars.get(csr[1][k]));
+			}
+			w.addRandVar(new RandVar(w.getNextRandVarIndex(), args));
+		}
+	}
+
+	/**
+	 * Creates the missing factors: each gets a random argCount between 1 and
+	 * factorArgCount (at least 1), its randvars are drawn by preferential
+	 * attachment. No factors are created if there are no randvars.
+	 */
+	@Override
+	public void insertFactors(World w) {
+		int missing = w.getSpecContainer().getFactorCount() - w.getFactors().size();
+		List<RandVar> randVars = w.getRandVars();
+		if (missing <= 0 || randVars.isEmpty()) {
+			return;
+		}
+		int[] occurrences = new int[randVars.size()];
+		for (int i = 0; i < occurrences.length; i++) {
+			occurrences[i] = randVars.get(i).getOccurrences();
+		}
+
+		int[][] csr = this.drawFactorArgs(missing, occurrences, w.getSpecContainer().getFactorArgCount(),
+				ConfigSingle.getInstance().getRandom());
+		for (int fac = 0; fac < missing; fac++) {
+			ArrayList<RandVar> args = new ArrayList<RandVar>();
+			for (int k = csr[0][fac]; k < csr[0][fac + 1]; k++) {
+				args.add(randVars.get(csr[1][k]));
+			}
+			w.addFactor(new Factor(w.getNextFactorIndex(), args));
+		}
+	}
+
+	/**
+	 * Writes the offsets (a world created by this factory keeps it as its base
+	 * factory, e.g. in a checkpoint).
+	 */
+	@Override
+	public void writeParams(DataOutputStream out) throws IOException {
+		out.writeDouble(this.randVarOffset);
+		out.writeDouble(this.logVarOffset);
+	}
+
+	@Override
+	public void readParams(DataInputStream in) throws IOException {
+		this.randVarOffset = in.readDouble();
+		this.logVarOffset = in.readDouble();
+	}
+
+	@Override
+	public ElementFactory getBaseFactory() {
+		return this;
+	}
+
+	@Override
+	public void initLogVars(World w) {
+	}
+
+	@Override
+	public void initRandVars(World w) {
+	}
+
+	@Override
+	public void initFactors(World w) {
+	}
+
+	/**
+	 * Draws the logvar arguments of count new randvars.
+	 *
+	 * @param uses    number of randvars each logvar is an argument of (updated).
+	 * @param maxArgs max. number of arguments of a randvar.
+	 * @return CSR arrays: start of the arguments of each randvar, arguments.
+	 */
+	private int[][] drawRandVarArgs(int count, int[] uses, int maxArgs, Random r) {
+		int[] start = new int[count + 1];
+		if (uses.length == 0) {
+			return new int[][] { start, new int[0] };
+		}
+		FenwickSampler sampler = new FenwickSampler(uses, this.logVarOffset);
+		int[] args = new int[count * Math.min(Math.max(maxArgs, 0), uses.length)];
+		int size = 0;
+		for (int rv = 0; rv < count; rv++) {
+			int argCount = r.nextInt(Math.min(Math.max(maxArgs, 0), uses.length) + 1);
+			size = sampler.drawDistinct(argCount, r, uses, args, size);
+			start[rv + 1] = size;
+		}
+		return new int[][] { start, Arrays.copyOf(args, size) };
+	}
+
+	/**
+	 * Draws the randvar arguments of count new factors. Randvars without
+	 * occurrence in the end are appended to random new factors. Like
+	 * {@link #insertFactors(World)}, no factors are drawn if there are none to
+	 * draw or no randvars.
+	 *
+	 * @param occurrences number of factors each randvar occurs in (updated).
+	 * @param maxArgs     max. number of arguments of a factor (at least 1 is
+	 *                    drawn).
+	 * @return CSR arrays: start of the arguments of each factor, arguments.
+	 */
+	private int[][] drawFactorArgs(int count, int[] occurrences, int maxArgs, Random r) {
+		if (count <= 0 || occurrences.length == 0) {
+			return new int[][] { new int[1], new int[0] };
+		}
+		maxArgs = Math.max(maxArgs, 1);
+		int[] start = new int[count + 1];
+		FenwickSampler sampler = new FenwickSampler(occurrences, this.randVarOffset);
+		int[] args = new int[count * Math.min(maxArgs, occurrences.length)];
+		int size = 0;
+		for (int fac = 0; fac < count; fac++) {
+			int argCount = Math.min(r.nextInt(maxArgs) + 1, occurrences.length);
+			size = sampler.drawDistinct(argCount, r, occurrences, args, size);
+			start[fac + 1] = size;
+		}
+
+		// Force all randvars to be mentioned: append them to random new factors.
+		int[] extra = new int[count];
+		int[] forcedFac = new int[occurrences.length];
+		int forced = 0;
+		for (int rv = 0; rv < occurrences.length; rv++) {
+			if (occurrences[rv] == 0) {
+				forcedFac[rv] = r.nextInt(count);
+				extra[forcedFac[rv]]++;
+				occurrences[rv]++;
+				forced++;
+			} else {
+				forcedFac[rv] = -1;
+			}
+		}
+		if (forced == 0) {
+			return new int[][] { start, Arrays.copyOf(args, size) };
+		}
+		System.err.println("   Initial RandVar-Factor allocation left RandVars not-mentioned.\n   Forcing all RVs to be mentioned...");
+
+		int[] forcedStart = new int[count + 1];
+		for (int fac = 0; fac < count; fac++) {
+			forcedStart[fac + 1] = forcedStart[fac] + start[fac + 1] - start[fac] + extra[fac];
+		}
+		int[] forcedArgs = new int[forcedStart[count]];
+		int[] fill = new int[count];
+		for (int fac = 0; fac < count; fac++) {
+			for (int k = start[fac]; k < start[fac + 1]; k++) {
+				forcedArgs[forcedStart[fac] + fill[fac]++] = args[k];
+			}
+		}
+		for (int rv = 0; rv < occurrences.length; rv++) {
+			if (forcedFac[rv] >= 0) {
+				forcedArgs[forcedStart[forcedFac[rv]] + fill[forcedFac[rv]]++] = rv;
+			}
+		}
+		return new int[][] { forcedStart, forcedArgs };
+	}
+
+	/**
+	 * Fenwick tree (binary indexed tree) of the weights <code>count + offset</code>
+	 * of n items: drawing an item with probability proportional to its weight and
+	 * changing a weight take O(log n).
+	 */
+	private static class FenwickSampler {
+
+		private final double[] tree;
+		private final double[] weight;
+		private final double offset;
+		private int topBit = 1;
+
+		FenwickSampler(int[] counts, double offset) {
+			int n = counts.length;
+			this.offset = offset;
+			this.weight = new double[n];
+			this.tree = new double[n + 1];
+			for (int i = 0; i < n; i++) {
+				this.weight[i] = counts[i] + offset;
+				this.tree[i + 1] += this.weight[i];
+				int parent = i + 1 + ((i + 1) & -(i + 1));
+				if (parent <= n) {
+					this.tree[parent] += this.tree[i + 1];
+				}
+			}
+			while (this.topBit * 2 <= n) {
+				this.topBit *= 2;
+			}
+		}
+
+		private void set(int i, double w) {
+			double delta = w - this.weight[i];
+			this.weight[i] = w;
+			for (int j = i + 1; j < this.tree.length; j += j & -j) {
+				this.tree[j] += delta;
+			}
+		}
+
+		private double total() {
+			double sum = 0;
+			for (int j = this.tree.length - 1; j > 0; j -= j & -j) {
+				sum += this.tree[j];
+			}
+			return sum;
+		}
+
+		/**
+		 * Draws an item with probability proportional to its weight.
+		 */
+		private int draw(Random r) {
+			while (true) {
+				double u = r.nextDouble() * this.total();
+				int pos = 0;
+				for (int step = this.topBit; step > 0; step >>= 1) {
+					if (pos + step < this.tree.length && this.tree[pos + step] <= u) {
+						pos += step;
+						u -= this.tree[pos];
+					}
+				}
+				// rounding can end behind the last item or on a removed one
+				if (pos < this.weight.length && this.weight[pos] > 0) {
+					return pos;
+				}
+			}
+		}
+
+		/**
+		 * Draws argCount distinct items (removed while the others are drawn),
+		 * appends them to args and increments their counts.
+		 *
+		 * @return new size of args.
+		 */
+		int drawDistinct(int argCount, Random r, int[] counts, int[] args, int size) {
+			for (int k = 0; k < argCount; k++) {
+				int i = this.draw(r);
+				this.set(i, 0);
+				args[size + k] = i;
+			}
+			for (int k = 0; k < argCount; k++) {
+				int i = args[size + k];
+				counts[i]++;
+				this.set(i, counts[i] + this.offset);
+			}
+			return size + argCount;
+		}
+	}
+}
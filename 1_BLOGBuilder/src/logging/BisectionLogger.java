@@ -0,0 +1,45 @@
+package logging;
+
+import java.util.Locale;
+
+import blogbuilder.ConfigSingle;
+
+/**
+ * Logs a size bisection (option <code>--bisect</code>, see
+ * strategies.SizeBisection): every engine run to <code>BisectionRuns.csv</code>
+ * and the limit found for every series to <code>BisectionLimits.csv</code>.
+ */
+public class BisectionLogger {
+
+	private LogSink runs;
+
+	private LogSink limits;
+
+	public BisectionLogger(String pathToDir) {
+		this.runs = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("BisectionRuns.csv"));
+		this.limits = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("BisectionLimits.csv"));
+		this.runs.appendLine(String.join(";", "file", "size", "result", "seconds"));
+		this.limits.appendLine(String.join(";", "series", "largestSize", "file", "smallestFailedSize", "runs"));
+	}
+
+	/**
+	 * Adds the line for an engine run.
+	 */
+	public void addRun(String filename, int size, String result, double seconds) {
+		this.runs.appendLine(filename + ";" + size + ";" + result + ";" + String.format(Locale.ROOT, "%.3f", seconds));
+	}
+
+	/**
+	 * Adds the line for the limit of a series (size -1 and an empty file if even
+	 * the smallest size failed, failed size -1 if even the largest size
+	 * succeeded).
+	 */
+	public void addLimit(int series, int largestSize, String filename, int smallestFailedSize, int runs) {
+		this.limits.appendLine(series + ";" + largestSize + ";" + filename + ";" + smallestFailedSize + ";" + runs);
+	}
+
+	public void close() {
+		this.runs.close();
+		this.limits.close();
+	}
+}
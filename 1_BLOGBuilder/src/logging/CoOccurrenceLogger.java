@@ -0,0 +1,88 @@
+package logging;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import blogbuilder.CoOccurrenceGraph;
+import blogbuilder.ConfigSingle;
+import blogbuilder.SweepExecutor;
+import blogbuilder.World;
+
+/**
+ * Logs the randvar co-occurrence graph of each world (see
+ * {@link CoOccurrenceGraph}):
+ * <ul>
+ * <li><code>RVCoOccEdges.csv</code>: edge list (randvar pairs that share
+ * factors and the number of shared factors).</li>
+ * <li><code>RVCoOccStats.csv</code>: edge count, degrees and clustering.</li>
+ * <li><code>RVDegreeDistLog.csv</code>: degree distribution (same layout as
+ * <code>RVOccDistLog.csv</code>).</li>
+ * </ul>
+ */
+public class CoOccurrenceLogger {
+
+	private LogSink edges;
+	private LogSink stats;
+	private LogSink degrees;
+
+	public CoOccurrenceLogger(String pathToDir) {
+		this.edges = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("RVCoOccEdges.csv"));
+		this.stats = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("RVCoOccStats.csv"));
+		this.degrees = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("RVDegreeDistLog.csv"));
+		this.writeHeaders();
+	}
+
+	/**
+	 * Writes the headers (not if a file is continued from a checkpoint).
+	 */
+	private void writeHeaders() {
+		if (!this.edges.isResumed()) {
+			this.edges.appendLine(String.join(";", new String[] { "file", "rv1", "rv2", "sharedFactors" }));
+		}
+		if (!this.stats.isResumed()) {
+			this.stats.appendLine(String.join(";", new String[] { "file", "rvCount", "edges", "maxDegree",
+					"avgDegree", "globalClustering", "avgLocalClustering" }));
+		}
+		if (!this.degrees.isResumed()) {
+			this.degrees.appendLine(String.join(";", new String[] { "file", "degree", "count" }));
+		}
+	}
+
+	/**
+	 * Adds the lines for a world. Safe to be called from the workers of a sweep
+	 * (the graph is created by the worker, the lines are written in sweep
+	 * order).
+	 */
+	public void addLinesForWorld(String filename, World w) {
+		CoOccurrenceGraph g = w.createCoOccurrenceGraph();
+		int[] degreeCounts = g.getDegreeCounts();
+		String statsLine = String.join(";",
+				new String[] { filename, String.valueOf(g.getRandVarCount()), String.valueOf(g.getEdgeCount()),
+						String.valueOf(degreeCounts.length - 1), String.format(Locale.ROOT, "%.4f", g.getAverageDegree()),
+						String.format(Locale.ROOT, "%.4f", g.getGlobalClustering()),
+						String.format(Locale.ROOT, "%.4f", g.getAverageLocalClustering()) });
+
+		StringBuilder degreeLines = new StringBuilder(degreeCounts.length * (filename.length() + 8));
+		for (int i = 0; i < degreeCounts.length; i++) {
+			degreeLines.append(filename).append(';').append(i).append(';').append(degreeCounts[i]).append('\n');
+		}
+
+		SweepExecutor.commit(() -> this.append(filename, g, statsLine, degreeLines));
+	}
+
+	private void append(String filename, CoOccurrenceGraph g, String statsLine, CharSequence degreeLines) {
+		try {
+			g.writeEdges(this.edges, filename);
+		} catch (IOException e) {
+			// LogSink reports write errors itself.
+		}
+		this.stats.appendLine(statsLine);
+		this.degrees.append(degreeLines);
+	}
+
+	public void close() {
+		this.edges.close();
+		this.stats.close();
+		this.degrees.close();
+	}
+}
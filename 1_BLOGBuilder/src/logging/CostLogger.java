@@ -0,0 +1,43 @@
+package logging;
+
+import java.util.Locale;
+
+import blogbuilder.ConfigSingle;
+import blogbuilder.SweepExecutor;
+
+/**
+ * Logs the predicted (see blogbuilder.CostModel) and the actual cost of every
+ * world to <code>WorldCost.csv</code> (option <code>--cost-log</code>), to
+ * calibrate the cost model.
+ */
+public class CostLogger {
+
+	private LogSink sink;
+
+	public CostLogger(String pathToDir) {
+		this.sink = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("WorldCost.csv"));
+		if (!this.sink.isResumed()) {
+			this.writeHeaders();
+		}
+	}
+
+	private void writeHeaders() {
+		String[] headers = { "file", "realLV", "realRV", "realFac", "facArgs", "predictedMs", "actualMs" };
+		this.sink.appendLine(String.join(";", headers));
+	}
+
+	/**
+	 * Adds the line for a world. Safe to be called from the workers of a sweep
+	 * (lines are written in sweep order).
+	 */
+	public void addLine(String filename, int realLV, int realRV, int realFac, int facArgs, double predictedMs,
+			double actualMs) {
+		String line = filename + ";" + realLV + ";" + realRV + ";" + realFac + ";" + facArgs + ";"
+				+ String.format(Locale.ROOT, "%.3f;%.3f", predictedMs, actualMs);
+		SweepExecutor.commit(() -> this.sink.appendLine(line));
+	}
+
+	public void close() {
+		this.sink.close();
+	}
+}
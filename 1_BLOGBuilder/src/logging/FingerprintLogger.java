@@ -0,0 +1,39 @@
+package logging;
+
+import blogbuilder.ConfigSingle;
+
+/**
+ * Logs the fingerprint and the model files of every world that is registered
+ * as new by the duplicate filter (see blogbuilder.DuplicateFilter) to
+ * <code>Fingerprints.csv</code>, one line per model file. Only written by the
+ * shards of a sharded sweep: merging the shards rejects the worlds that
+ * duplicate a world of an earlier shard (see {@link ShardMerger}).
+ */
+public class FingerprintLogger {
+
+	private LogSink sink;
+
+	public FingerprintLogger(String pathToDir) {
+		this.sink = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("Fingerprints.csv"));
+		if (!this.sink.isResumed()) {
+			this.sink.appendLine(String.join(";", "file", "fingerprint", "modelFile"));
+		}
+	}
+
+	/**
+	 * Adds the lines for a world. Has to be called in sweep order (the duplicate
+	 * filter registers worlds when they are committed).
+	 */
+	public void addLines(String filename, long fingerprint, String[] modelFiles) {
+		StringBuilder lines = new StringBuilder();
+		for (String modelFile : modelFiles) {
+			lines.append(filename).append(';').append(Long.toHexString(fingerprint)).append(';').append(modelFile)
+					.append('\n');
+		}
+		this.sink.append(lines);
+	}
+
+	public void close() {
+		this.sink.close();
+	}
+}
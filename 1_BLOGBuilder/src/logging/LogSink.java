@@ -0,0 +1,292 @@
+package logging;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import blogbuilder.Checkpoint;
+import blogbuilder.ConfigSingle;
+import blogbuilder.Helpers;
+
+/**
+ * Buffered, thread-safe log file (e.g. a csv file of the summary loggers).
+ *
+ * Written text is collected in memory and written to the file in batches:
+ * when the buffer reaches the flush size, and periodically by a background
+ * flusher that is shared by all sinks (so the file does not lag behind too
+ * far during long sweeps). Open sinks are flushed by a shutdown hook if the
+ * program exits without closing them.
+ *
+ * Flush size and interval are taken from {@link ConfigSingle}.
+ */
+public class LogSink extends Writer {
+
+	private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "log-flusher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private static final Set<LogSink> openSinks = Collections.newSetFromMap(new IdentityHashMap<LogSink, Boolean>());
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(LogSink::flushAll, "log-shutdown"));
+	}
+
+	private final String path;
+
+	private final Writer out;
+
+	private final StringBuilder buffer = new StringBuilder();
+
+	/**
+	 * Guards buffer and file (a lock instead of synchronized, so the shutdown
+	 * hook cannot wait forever for a thread that exits while writing).
+	 */
+	private final ReentrantLock mutex = new ReentrantLock();
+
+	/**
+	 * Number of buffered chars that triggers writing the buffer.
+	 */
+	private final int flushSize;
+
+	private final ScheduledFuture<?> scheduledFlush;
+
+	private boolean closed = false;
+
+	/**
+	 * True if the file is continued from a checkpoint.
+	 */
+	private final boolean resumed;
+
+	/**
+	 * Creates (replaces) the log file at the given path. If a sweep is resumed
+	 * (see {@link ConfigSingle#resumeFrom}), the file is cut to its length at the
+	 * checkpoint and continued instead.
+	 *
+	 * @param path path to the file.
+	 */
+	public LogSink(String path) {
+		this.path = path;
+		Checkpoint cp = ConfigSingle.getInstance().resumeFrom;
+		long resumeLength = cp == null ? -1 : cp.getLogLength(path);
+		this.resumed = resumeLength >= 0;
+		try {
+			FileOutputStream fos;
+			if (this.resumed) {
+				fos = new FileOutputStream(path, true);
+				fos.getChannel().truncate(resumeLength);
+			} else {
+				fos = new FileOutputStream(Helpers.prepareOutputFile(path));
+			}
+			this.out = new OutputStreamWriter(fos, StandardCharsets.UTF_8);
+		} catch (Exception ex) {
+			System.err.println("   Cannot create/open a file for output: " + path);
+			System.err.println(ex);
+			System.exit(1);
+			throw new IllegalStateException(ex);
+		}
+
+		ConfigSingle config = ConfigSingle.getInstance();
+		this.flushSize = Math.max(config.logFlushSize, 1);
+		synchronized (openSinks) {
+			openSinks.add(this);
+		}
+		this.scheduledFlush = config.logFlushInterval > 0
+				? flusher.scheduleWithFixedDelay(this::flushQuietly, config.logFlushInterval,
+						config.logFlushInterval, TimeUnit.MILLISECONDS)
+				: null;
+	}
+
+	/**
+	 * @return true if the file is continued from a checkpoint (i.e. already has
+	 *         its header).
+	 */
+	public boolean isResumed() {
+		return this.resumed;
+	}
+
+	/**
+	 * Appends a line (the line break is added).
+	 *
+	 * @param line line without line break.
+	 */
+	public void appendLine(CharSequence line) {
+		this.mutex.lock();
+		try {
+			this.buffer.append(line).append('\n');
+			this.writeIfFull();
+		} finally {
+			this.mutex.unlock();
+		}
+	}
+
+	@Override
+	public LogSink append(CharSequence csq) {
+		this.mutex.lock();
+		try {
+			this.buffer.append(csq);
+			this.writeIfFull();
+		} finally {
+			this.mutex.unlock();
+		}
+		return this;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		this.mutex.lock();
+		try {
+			this.buffer.append(cbuf, off, len);
+			this.writeIfFull();
+		} finally {
+			this.mutex.unlock();
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) {
+		this.mutex.lock();
+		try {
+			this.buffer.append(str, off, off + len);
+			this.writeIfFull();
+		} finally {
+			this.mutex.unlock();
+		}
+	}
+
+	private void writeIfFull() {
+		if (this.buffer.length() >= this.flushSize) {
+			this.writeBuffer();
+		}
+	}
+
+	private void writeBuffer() {
+		if (this.closed || this.buffer.length() == 0) {
+			return;
+		}
+		try {
+			this.out.append(this.buffer);
+			this.buffer.setLength(0);
+		} catch (IOException e) {
+			System.err.println("   Cannot write to file: " + this.path);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the buffer to the file.
+	 */
+	@Override
+	public void flush() {
+		this.mutex.lock();
+		try {
+			this.writeAndFlush();
+		} finally {
+			this.mutex.unlock();
+		}
+	}
+
+	private void writeAndFlush() {
+		if (this.closed) {
+			return;
+		}
+		this.writeBuffer();
+		try {
+			this.out.flush();
+		} catch (IOException e) {
+			System.err.println("   Cannot write to file: " + this.path);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Flush of the background flusher and the shutdown hook: gives up if the
+	 * sink is locked for too long.
+	 */
+	private void flushQuietly() {
+		try {
+			if (!this.mutex.tryLock(1, TimeUnit.SECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			return;
+		}
+		try {
+			this.writeAndFlush();
+		} finally {
+			this.mutex.unlock();
+		}
+	}
+
+	/**
+	 * Writes the buffer and closes the file.
+	 */
+	@Override
+	public void close() {
+		this.mutex.lock();
+		try {
+			if (this.closed) {
+				return;
+			}
+			this.writeAndFlush();
+			this.closed = true;
+			try {
+				this.out.close();
+			} catch (IOException e) {
+				System.err.println(e);
+			}
+		} finally {
+			this.mutex.unlock();
+		}
+		if (this.scheduledFlush != null) {
+			this.scheduledFlush.cancel(false);
+		}
+		synchronized (openSinks) {
+			openSinks.remove(this);
+		}
+	}
+
+	/**
+	 * Writes all open sinks to their files (for a checkpoint).
+	 *
+	 * @return length of each open file by path.
+	 */
+	public static Map<String, Long> flushOpenSinks() {
+		LogSink[] sinks;
+		synchronized (openSinks) {
+			sinks = openSinks.toArray(new LogSink[openSinks.size()]);
+		}
+		Map<String, Long> lengths = new LinkedHashMap<String, Long>();
+		for (LogSink s : sinks) {
+			s.flush();
+			lengths.put(s.path, new File(s.path).length());
+		}
+		return lengths;
+	}
+
+	private static void flushAll() {
+		LogSink[] sinks;
+		synchronized (openSinks) {
+			sinks = openSinks.toArray(new LogSink[openSinks.size()]);
+		}
+		for (LogSink s : sinks) {
+			s.flushQuietly();
+		}
+	}
+}
@@ -1,54 +1,49 @@
 package logging;
 
-import java.io.PrintStream;
-
-import blogbuilder.Helpers;
+import blogbuilder.ConfigSingle;
+import blogbuilder.SweepExecutor;
 import blogbuilder.World;
-import elements.RandVar;
 
 public class RVOccDistLogger {
 	
-	private String filename;
-	
-	private PrintStream ps;
+	private LogSink sink;
 	
 	public RVOccDistLogger(String pathToDir) {
-		this.filename = pathToDir + "/" + "RVOccDistLog.csv";
-		ps = Helpers.createFilePrintStream(filename);
-		this.writeHeaders();
+		this.sink = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("RVOccDistLog.csv"));
+		if (!this.sink.isResumed()) {
+			this.writeHeaders();
+		}
 	}
 	
 	private void writeHeaders() {
 		String[] headers = {"file", "rvOccNumber", "count"};
-		this.append(String.join(";", headers));
+		this.sink.appendLine(String.join(";", headers));
 	}
 	
+	/**
+	 * Adds the lines for a world. Safe to be called from the workers of a sweep
+	 * (the lines are built by the worker and written in sweep order).
+	 */
 	public void addLineForWorld(String filename, World w) {
 		int[] counts = getRVOccCountsForWorld(w);
 		
-		//System.out.println(Arrays.toString(counts));
-		
+		StringBuilder lines = new StringBuilder(counts.length * (filename.length() + 8));
 		for (int i = 0; i < counts.length; i++) {
-			this.append(String.join(";", new String[] {filename, String.valueOf(i), String.valueOf(counts[i])}));
+			lines.append(filename).append(';').append(i).append(';').append(counts[i]).append('\n');
 		}
+		
+		SweepExecutor.commit(() -> this.sink.append(lines));
 	}
 	
 	public int[] getRVOccCountsForWorld(World w) {
-		int maxOcc = w.searchRealMaxRVOccurence();
-		int[] counts = new int[maxOcc+1];
-		
-		for (RandVar rv: w.getRandVars()) {
-			counts[rv.getOccurrences()]++; 
-		}
-		return counts;
+		return w.getRandVarOccurrenceCounts();
 	}
 	
-	public void append(String str) {
-		this.ps.append(str + "\n");
-		this.ps.flush();
+	public void append(CharSequence str) {
+		this.sink.appendLine(str);
 	}
 	
 	public void close() {
-		this.ps.close();
+		this.sink.close();
 	}
 }
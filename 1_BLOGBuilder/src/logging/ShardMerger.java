@@ -0,0 +1,188 @@
+package logging;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import blogbuilder.Helpers;
+
+/**
+ * Merges the summary files of a sharded sweep (option <code>--shard</code>)
+ * into the files of a single run (option <code>--merge-shards</code>).
+ *
+ * The shards create contiguous blocks of the sweep (see
+ * blogbuilder.SweepExecutor#selectShard), so the files are concatenated in
+ * shard order and only the header of the first shard is kept.
+ *
+ * If the shards rejected duplicates (see blogbuilder.DuplicateFilter), a shard
+ * did not know the worlds of the earlier shards. Their fingerprint files (see
+ * {@link FingerprintLogger}) are read in shard order first: a world that
+ * duplicates a world of an earlier shard is rejected, i.e. its model files
+ * are deleted and its lines are left out of the merged files (the first
+ * column of all summary files is the world's file).
+ */
+public class ShardMerger {
+
+	/**
+	 * Summary files written by every shard.
+	 */
+	private static final String[] FILES = { "ModelSummary.csv", "RVOccDistLog.csv", "RVCoOccEdges.csv",
+			"RVCoOccStats.csv", "RVDegreeDistLog.csv", "WorldCost.csv", "BisectionRuns.csv", "BisectionLimits.csv" };
+
+	/**
+	 * Merges the shard files of all summary files in a directory. The shard
+	 * files are kept.
+	 *
+	 * @param pathToDir  directory with the shard files (e.g. the output path).
+	 * @param shardCount number of shards of the sweep.
+	 */
+	public static void merge(String pathToDir, int shardCount) {
+		if (shardCount <= 1) {
+			System.out.println("   Nothing to merge: a sweep with 1 shard writes the files of a single run.");
+			return;
+		}
+		Set<String> rejected = rejectDuplicates(pathToDir, shardCount);
+		for (String name : FILES) {
+			String[] shardPaths = new String[shardCount];
+			int found = 0;
+			for (int i = 0; i < shardCount; i++) {
+				shardPaths[i] = pathToDir + "/" + Helpers.shardFileName(name, i, shardCount);
+				if (new File(shardPaths[i]).exists()) {
+					found++;
+				}
+			}
+			if (found == 0) {
+				continue;
+			}
+			if (found < shardCount) {
+				System.err.println("   Cannot merge " + name + ": files of " + (shardCount - found)
+						+ " shard(s) are missing in " + pathToDir);
+				System.exit(1);
+			}
+			if (rejected.isEmpty()) {
+				mergeFile(shardPaths, pathToDir + "/" + name);
+			} else {
+				mergeFile(shardPaths, pathToDir + "/" + name, rejected);
+			}
+			System.out.println("   Merged " + shardCount + " shards into " + pathToDir + "/" + name);
+		}
+	}
+
+	private static void mergeFile(String[] shardPaths, String path) {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(Helpers.prepareOutputFile(path)))) {
+			byte[] buf = new byte[1 << 16];
+			for (int i = 0; i < shardPaths.length; i++) {
+				try (InputStream in = new BufferedInputStream(new FileInputStream(shardPaths[i]))) {
+					if (i > 0) {
+						skipLine(in);
+					}
+					for (int n; (n = in.read(buf)) > 0;) {
+						out.write(buf, 0, n);
+					}
+				}
+			}
+		} catch (Exception e) {
+			System.err.println("   Cannot merge shard files into: " + path);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Rejects the worlds that duplicate a world of an earlier shard (see the
+	 * class doc) and deletes their model files.
+	 *
+	 * @return files of the rejected worlds (empty if the shards did not reject
+	 *         duplicates).
+	 */
+	private static Set<String> rejectDuplicates(String pathToDir, int shardCount) {
+		Set<String> rejected = new HashSet<String>();
+		List<String> report = new ArrayList<String>();
+		// first file of each fingerprint of the earlier shards
+		Map<String, String> firstFiles = new HashMap<String, String>();
+		for (int i = 0; i < shardCount; i++) {
+			String path = pathToDir + "/" + Helpers.shardFileName("Fingerprints.csv", i, shardCount);
+			if (!new File(path).exists()) {
+				// no duplicates rejected (missing files are reported when merging)
+				continue;
+			}
+			Map<String, String> shardFiles = new HashMap<String, String>();
+			try (BufferedReader in = new BufferedReader(
+					new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+				in.readLine();
+				for (String line; (line = in.readLine()) != null;) {
+					String[] columns = line.split(";", 3);
+					String first = firstFiles.get(columns[1]);
+					if (first == null) {
+						shardFiles.put(columns[1], columns[0]);
+						continue;
+					}
+					if (rejected.add(columns[0])) {
+						report.add(columns[0] + " (= " + first + ")");
+					}
+					new File(columns[2]).delete();
+				}
+			} catch (IOException e) {
+				System.err.println("   Cannot read fingerprints: " + path);
+				System.err.println(e);
+				System.exit(1);
+			}
+			firstFiles.putAll(shardFiles);
+		}
+		if (!report.isEmpty()) {
+			System.out.println("   Rejected " + report.size() + " worlds that duplicate a world of an earlier shard:");
+			for (String line : report) {
+				System.out.println("     " + line);
+			}
+		}
+		return rejected;
+	}
+
+	/**
+	 * Merges the shard files line by line and leaves out the lines of rejected
+	 * worlds.
+	 */
+	private static void mergeFile(String[] shardPaths, String path, Set<String> rejected) {
+		try (Writer out = Helpers.createFileWriter(path)) {
+			for (int i = 0; i < shardPaths.length; i++) {
+				try (BufferedReader in = new BufferedReader(
+						new InputStreamReader(new FileInputStream(shardPaths[i]), StandardCharsets.UTF_8))) {
+					if (i > 0) {
+						in.readLine();
+					}
+					for (String line; (line = in.readLine()) != null;) {
+						int sep = line.indexOf(';');
+						if (sep < 0 || !rejected.contains(line.substring(0, sep))) {
+							out.write(line);
+							out.write('\n');
+						}
+					}
+				}
+			}
+		} catch (Exception e) {
+			System.err.println("   Cannot merge shard files into: " + path);
+			System.err.println(e);
+			System.exit(1);
+		}
+	}
+
+	private static void skipLine(InputStream in) throws IOException {
+		for (int c; (c = in.read()) != -1 && c != '\n';) {
+		}
+	}
+}
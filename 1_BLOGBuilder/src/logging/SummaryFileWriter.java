@@ -1,38 +1,54 @@
 package logging;
 
-import java.io.PrintStream;
+import java.util.Locale;
 
-import blogbuilder.Helpers;
+import blogbuilder.ConfigSingle;
+import blogbuilder.InferenceCost;
+import blogbuilder.SweepExecutor;
 
 public class SummaryFileWriter {
 
-	private String filename;
-	
-	private PrintStream ps;
+	private LogSink sink;
 	
 	public SummaryFileWriter(String pathToDir) {
-		this.filename = pathToDir + "/" + "ModelSummary.csv";
-		ps = Helpers.createFilePrintStream(filename);
-		this.writeHeaders();
+		this.sink = new LogSink(pathToDir + "/" + ConfigSingle.getInstance().shardFileName("ModelSummary.csv"));
+		if (!this.sink.isResumed()) {
+			this.writeHeaders();
+		}
 	}
 	
 	private void writeHeaders() {
-		String[] headers = {"filename", "realLV", "realRV", "realFac", "maxRVArgs", "maxRVocc", "facArgs", "allRVMentioned"};
+		String[] headers = {"filename", "realLV", "realRV", "realFac", "maxRVArgs", "maxRVocc", "facArgs", "allRVMentioned",
+				"groundRV", "groundFac", "liftedTWLower", "liftedTW", "groundTW", "jtLog2Size"};
 		
 		this.append(String.join(";", headers));
 	}
 	
-	public void addLine(String filename, int realLV, int realRV, int realFac, int maxRVArgs, int maxRVocc, int facArgs, boolean allRVMentioned) {
-		this.append(filename +";"+ realLV +";"+ realRV +";"+ realFac +";"+ maxRVArgs +";"+ maxRVocc +";"+ facArgs +";"+ allRVMentioned);
+	/**
+	 * Adds a line for a world. Safe to be called from the workers of a sweep
+	 * (lines are written in sweep order).
+	 * 
+	 * @param cost inference cost predictors of the world (ground counts and
+	 *             treewidth estimates, one value per domain size where it
+	 *             depends on the domain size).
+	 */
+	public void addLine(String filename, int realLV, int realRV, int realFac, int maxRVArgs, int maxRVocc, int facArgs, boolean allRVMentioned, InferenceCost cost) {
+		StringBuilder line = new StringBuilder(filename.length() + 80);
+		line.append(filename).append(';').append(realLV).append(';').append(realRV).append(';').append(realFac)
+				.append(';').append(maxRVArgs).append(';').append(maxRVocc).append(';').append(facArgs).append(';')
+				.append(allRVMentioned).append(';').append(cost.getGroundRandVars()).append(';')
+				.append(cost.getGroundFactors()).append(';').append(cost.getLiftedWidthLowerBound()).append(';')
+				.append(cost.getLiftedWidth()).append(';').append(cost.getGroundWidth()).append(';')
+				.append(String.format(Locale.ROOT, "%.2f", cost.getJunctionTreeLog2Size()));
+		SweepExecutor.commit(() -> this.append(line));
 	}
 	
 	
-	public void append(String str) {
-		this.ps.append(str + "\n");
-		this.ps.flush();
+	public void append(CharSequence str) {
+		this.sink.appendLine(str);
 	}
 	
 	public void close() {
-		this.ps.close();
+		this.sink.close();
 	}
 }
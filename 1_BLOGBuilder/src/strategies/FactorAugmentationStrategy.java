@@ -1,8 +1,9 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.Helpers;
-import blogbuilder.Main;
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
@@ -48,8 +49,8 @@ public class FactorAugmentationStrategy extends WorldCreationStrategy {
 
 	
 	@Override
-	public void start() {
-		paramHandlerFactorAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor,
+	public List<WorldSeries> createSeries() {
+		return paramHandlerFactorAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor,
 				params_maxRandVarArgs, params_maxRandVarOcc, params_rerollCount);
 
 	}
@@ -74,8 +75,9 @@ public class FactorAugmentationStrategy extends WorldCreationStrategy {
 	 * @param maxRandVarArgs
 	 * @param maxRandVarOccurrences
 	 * @param rerollCount
+	 * @return List of WorldSeries (1 per factorCounts-chain)
 	 */
-	public void paramHandlerFactorAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
+	public List<WorldSeries> paramHandlerFactorAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
 			int[] factorArgCounts, int[] maxRandVarArgs, int[] maxRandVarOccurrences, int rerollCount) {
 
 		// Check for equal lengths
@@ -90,7 +92,7 @@ public class FactorAugmentationStrategy extends WorldCreationStrategy {
 			System.exit(1);
 		}
 
-		int counter = 1;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		for (int r = 0; r < rerollCount; r++) {
 			for (int model_i = 0; model_i < randVarCounts.length; model_i++) {
@@ -101,43 +103,39 @@ public class FactorAugmentationStrategy extends WorldCreationStrategy {
 					int facArgs = factorArgCounts[adv_i];
 					int maxRVArgs = maxRandVarArgs[adv_i];
 					int maxRVOccs = maxRandVarOccurrences[adv_i];
+					int reroll = r;
+					int model = model_i;
 
-					World temp_w = null;
-					for (int fac_i = 0; fac_i < factorCounts.length; fac_i++) {
-						int n_fac = factorCounts[fac_i];
-						ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-
-						SpecContainer sc = new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, facArgs, maxRVOccs, maxRVArgs);
-						if (fac_i == 0) {
-							// 1. Create base world (with random elements)
-							
-							temp_w = new World(r, model_i, this.allQueries, sc);
-							ElementFactory baseFac = new RandomSampleFactory();
-
-							temp_w.fillWorld(baseFac, baseFac, baseFac);
-						} else {
-							// 2. Augment previous world
-							ElementFactory augmentFac = new FactorAugmentationFactory(temp_w);
-							World new_w = new World(r, model_i, this.allQueries, sc);
-
-							new_w.fillWorld(augmentFac, augmentFac, augmentFac);
-
-							temp_w = new_w;
+					series.add(new WorldSeries(this, factorCounts.length, reroll, n_lv, n_rv, facArgs, maxRVArgs, maxRVOccs) {
+						@Override
+						public SpecContainer specFor(int fac_i) {
+							return new SpecContainer(params_domainSizes, n_lv, n_rv, factorCounts[fac_i], facArgs, maxRVOccs, maxRVArgs);
 						}
 
-						temp_w.createFiles();
-
-						Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(),
-								temp_w.getRandVars().size(), temp_w.getFactors().size(), maxRVArgs,
-								temp_w.searchRealMaxRVOccurence(), facArgs, temp_w.checkAllRVMentioned());
-						Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
-
-						ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, fac_i, temp_w);
-						counter++;
-					}
+						@Override
+						protected World createWorld(int fac_i, SpecContainer sc, World temp_w) {
+							if (fac_i == 0) {
+								// 1. Create base world (with random elements)
+								
+								World base_w = new World(reroll, model, allQueries, sc);
+								ElementFactory baseFac = new RandomSampleFactory();
+
+								base_w.fillWorld(baseFac, baseFac, baseFac);
+								return base_w;
+							} else {
+								// 2. Augment previous world
+								ElementFactory augmentFac = new FactorAugmentationFactory(temp_w);
+								World new_w = new World(reroll, model, allQueries, sc);
+
+								new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+								return new_w;
+							}
+						}
+					});
 				}
 			}
 		}
+		return series;
 	}
 
 }
@@ -1,13 +1,15 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
-import blogbuilder.Main;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
-import com.rits.cloning.Cloner;
-import elements.RandVar;
+import blogbuilder.WorldRandom;
 import factories.ElementFactory;
-import factories.augmentation.IncByWorldFactory;
 import factories.augmentation.IncDegreeFactory;
 import factories.base.RandomSampleFactory;
 
@@ -39,55 +41,67 @@ public class IncDegreeStrategy extends WorldCreationStrategy {
 	int incrementCount = 20;
 
 	@Override
-	public void start() {
+	public List<WorldSeries> createSeries() {
+		this.firstCounter = 0;
 
-		Cloner cloner = new Cloner();
-		RandVar mergePoint = null; // the randvar in the center
+		// the index of the randvar in the center, the same for all rerolls
+		int mergePointIndex = WorldRandom.forKey("IncDegreeStrategy/mergePoint", logVarCount, randVarCount, factorCount)
+				.nextInt(randVarCount) + 1;
 
-		int globalFileCounter = 0;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		int rerollCount = 1;
 		for (int r=0; r < rerollCount; r++) {
-			// Create & fill base World
-			ConfigSingle.getInstance().getProgressLogger().logWorldStart(globalFileCounter);
-			SpecContainer sc = new SpecContainer(domainSizes, logVarCount, randVarCount, factorCount, maxFacArgs, maxRandVarOccurrences, maxRandVarArgs);
-			World bw = new World(r,0, allQueries, sc, noQueries);
-			ElementFactory baseFactory = new RandomSampleFactory();
-			bw.fillWorld(baseFactory, baseFactory, baseFactory);
-
-			// in the first run, get mergePoint randomly
-			if (mergePoint == null)
-				mergePoint = bw.getRandVars().get(ConfigSingle.getInstance().getRandom().nextInt(bw.getRandVars().size()));
-
-			World temp_w = null;
-			for (int i = 0; i < incrementCount; i++) {
-				if (i == 0) {
-					temp_w = cloner.deepClone(bw);
-				} else {
-					ConfigSingle.getInstance().getProgressLogger().logWorldStart(globalFileCounter);
-					ElementFactory augFac = new IncDegreeFactory(temp_w, bw, mergePoint);
-					SpecContainer sc_loc = new SpecContainer(domainSizes,
-							temp_w.getSpecContainer().getLogVarCount() + logVarCount,
-							temp_w.getSpecContainer().getRandVarCount() + randVarCount,
-							temp_w.getSpecContainer().getFactorCount() + factorCount +1, // incWorld's factors + 1 connecting factor
+			int reroll = r;
+			series.add(new WorldSeries(this, incrementCount, reroll, logVarCount, randVarCount, factorCount) {
+				/**
+				 * Base world, every increment adds a copy of it.
+				 */
+				World bw;
+
+				@Override
+				public SpecContainer specFor(int i) {
+					return new SpecContainer(domainSizes,
+							logVarCount * (i + 1),
+							randVarCount * (i + 1),
+							factorCount * (i + 1) + i, // incWorld's factors + 1 connecting factor per increment
 							maxFacArgs,
 							maxRandVarOccurrences,
 							maxRandVarArgs);
-					temp_w = new World(r, 0, allQueries, sc_loc, noQueries);
-
-					temp_w.fillWorld(augFac);
 				}
 
-				temp_w.createFiles();
+				@Override
+				protected World createWorld(int i, SpecContainer sc_loc, World temp_w) {
+					if (i == 0) {
+						// Create & fill base World
+						bw = new World(reroll, 0, allQueries, sc_loc, noQueries);
+						ElementFactory baseFactory = new RandomSampleFactory();
+						bw.fillWorld(baseFactory, baseFactory, baseFactory);
+						World w = bw.copy();
+						w.reuseRenderingOf(null);
+						return w;
+					} else {
+						ElementFactory augFac = new IncDegreeFactory(temp_w, bw, mergePointIndex);
+						World new_w = new World(reroll, 0, allQueries, sc_loc, noQueries);
+
+						new_w.fillWorld(augFac);
+						// Only the increment is rendered.
+						new_w.reuseRenderingOf(temp_w);
+						return new_w;
+					}
+				}
 
-				Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(),
-						temp_w.getRandVars().size(), temp_w.getFactors().size(), maxRandVarArgs,
-						temp_w.searchRealMaxRVOccurence(), maxFacArgs, temp_w.checkAllRVMentioned());
-				Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
+				@Override
+				protected void writeState(DataOutputStream out) throws IOException {
+					bw.write(out);
+				}
 
-				ConfigSingle.getInstance().getProgressLogger().logWorldDone(globalFileCounter, i, temp_w);
-				globalFileCounter++;
-			}
+				@Override
+				protected void readState(DataInputStream in) throws IOException {
+					bw = World.read(in);
+				}
+			});
 		}
+		return series;
 	}
 }
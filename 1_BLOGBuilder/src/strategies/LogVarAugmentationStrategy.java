@@ -1,8 +1,9 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.Helpers;
-import blogbuilder.Main;
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
@@ -36,8 +37,8 @@ public class LogVarAugmentationStrategy extends WorldCreationStrategy {
 
 
 	@Override
-	public void start() {		
-		paramHandlerLogVarAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor, params_maxRandVarArgs, params_maxRandVarOcc, params_rerollCount);
+	public List<WorldSeries> createSeries() {		
+		return paramHandlerLogVarAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor, params_maxRandVarArgs, params_maxRandVarOcc, params_rerollCount);
 	}
 
 	/**
@@ -58,8 +59,9 @@ public class LogVarAugmentationStrategy extends WorldCreationStrategy {
 	 * @param maxRandVarArgs
 	 * @param maxRandVarOccurrences
 	 * @param rerollCount
+	 * @return List of WorldSeries (1 per logVarCounts-chain)
 	 */
-	public void paramHandlerLogVarAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
+	public List<WorldSeries> paramHandlerLogVarAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
 			int[] factorArgCounts, int[] maxRandVarArgs, int[] maxRandVarOccurrences, int rerollCount) {
 
 		// Check for equal lengths
@@ -74,7 +76,7 @@ public class LogVarAugmentationStrategy extends WorldCreationStrategy {
 			System.exit(1);
 		}
 
-		int counter = 1;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		for (int r = 0; r < rerollCount; r++) {
 			for (int model_i = 0; model_i < randVarCounts.length; model_i++) {
@@ -85,42 +87,38 @@ public class LogVarAugmentationStrategy extends WorldCreationStrategy {
 					int facArgs = factorArgCounts[adv_i];
 					int maxRVArgs = maxRandVarArgs[adv_i];
 					int maxRVOccs = maxRandVarOccurrences[adv_i];
+					int reroll = r;
+					int model = model_i;
 
-					World temp_w = null;
-					for (int lv_i = 0; lv_i < logVarCounts.length; lv_i++) {
-						ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-						int n_lv = logVarCounts[lv_i];
-						
-						SpecContainer sc = new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, facArgs, maxRVOccs, maxRVArgs);
-						if (lv_i == 0) {
-							// 1. Create base world (with random elements)
-							temp_w = new World(r, model_i, this.allQueries, sc);
-							ElementFactory baseFac = new RandomSampleFactory();
-
-							temp_w.fillWorld(baseFac, baseFac, baseFac);
-						} else {
-							// 2. Augment previous world
-							ElementFactory augmentFac = new LogVarAugmentationFactory(temp_w);
-							World new_w = new World(r, model_i, this.allQueries,sc);
-
-							new_w.fillWorld(augmentFac, augmentFac, augmentFac);
-
-							temp_w = new_w;
+					series.add(new WorldSeries(this, logVarCounts.length, reroll, n_rv, n_fac, facArgs, maxRVArgs, maxRVOccs) {
+						@Override
+						public SpecContainer specFor(int lv_i) {
+							return new SpecContainer(params_domainSizes, logVarCounts[lv_i], n_rv, n_fac, facArgs, maxRVOccs, maxRVArgs);
 						}
 
-						temp_w.createFiles();
-						
-						Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(),
-								temp_w.getRandVars().size(), temp_w.getFactors().size(), maxRVArgs,
-								temp_w.searchRealMaxRVOccurence(), facArgs, temp_w.checkAllRVMentioned());
-						Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
-
-						ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, lv_i, temp_w);						
-						counter++;
-					}
+						@Override
+						protected World createWorld(int lv_i, SpecContainer sc, World temp_w) {
+							if (lv_i == 0) {
+								// 1. Create base world (with random elements)
+								World base_w = new World(reroll, model, allQueries, sc);
+								ElementFactory baseFac = new RandomSampleFactory();
+
+								base_w.fillWorld(baseFac, baseFac, baseFac);
+								return base_w;
+							} else {
+								// 2. Augment previous world
+								ElementFactory augmentFac = new LogVarAugmentationFactory(temp_w);
+								World new_w = new World(reroll, model, allQueries, sc);
+
+								new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+								return new_w;
+							}
+						}
+					});
 				}
 			}
 		}
+		return series;
 	}
 
 }
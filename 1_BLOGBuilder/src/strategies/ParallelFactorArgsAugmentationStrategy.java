@@ -1,7 +1,8 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
-import blogbuilder.Main;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
@@ -51,70 +52,60 @@ public class ParallelFactorArgsAugmentationStrategy extends WorldCreationStrateg
 	int maxRandVarArgs = 2;
 	
 	@Override
-	public void start() {
-		paramHandlerParaFacArgAugm(params_logVarCounts, params_randVarCounts, augmSteps, maxRandVarArgs, params_rerollCount);
+	public List<WorldSeries> createSeries() {
+		return paramHandlerParaFacArgAugm(params_logVarCounts, params_randVarCounts, augmSteps, maxRandVarArgs, params_rerollCount);
 	}
 
-	public void paramHandlerParaFacArgAugm(int[] logVarCounts, int[] randVarCounts, int augmSteps, int maxRandVarArgs, int rerollCount) {
-		int counter = 1;
-		
+	public List<WorldSeries> paramHandlerParaFacArgAugm(int[] logVarCounts, int[] randVarCounts, int augmSteps, int maxRandVarArgs, int rerollCount) {
 		if (logVarCounts.length != randVarCounts.length) {
 			System.err.println("Specified arrays logVarCounts and randVarCounts need to be of equal lenght which they are not!");
 			System.exit(1);
 		}
 		
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
+		
 		for (int r = 0; r < rerollCount; r++) {
 			
 				
 				for (int i = 0; i < logVarCounts.length; i++) {
 					int n_lv = logVarCounts[i];
-					int n_rv = randVarCounts[i];
-					int n_fac = n_rv - 1;
+					int n_fac = randVarCounts[i] - 1;
 					// RV1 will always be in all factors.
 					int maxRVOccs = n_fac;
+					int reroll = r;
+					int model = i;
 					
-					World temp_w = null;
-					
-					for (int augmStep=0; augmStep < augmSteps; augmStep++) {
-						ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-						
-						int factorArgCount = augmStep + 2;
-						
-						if (augmStep == 0) {
-							// 1. Create base world (with random elements)
-							
-							SpecContainer sc = new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, factorArgCount, maxRVOccs, maxRandVarArgs);
-							temp_w = new World(r, i, allQueries, sc);
-							ElementFactory baseFac = new UniformFactorArgsFactory();
+					series.add(new WorldSeries(this, augmSteps, reroll, n_lv, n_fac) {
+						@Override
+						public SpecContainer specFor(int augmStep) {
+							int n_rv = randVarCounts[model] + (augmStep * n_fac);
+							int factorArgCount = augmStep + 2;
+							return new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, factorArgCount, maxRVOccs, maxRandVarArgs);
+						}
 
-							temp_w.fillWorld(baseFac, baseFac, baseFac);
-						} else {
-							// 2. Augment previous world
-							ElementFactory augmentFac = new ParallelFactorArgAugmentationFactory(temp_w);
-							
-							n_rv = randVarCounts[i] + (augmStep * n_fac); 
-							SpecContainer sc = new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, factorArgCount, maxRVOccs, maxRandVarArgs);
-							
-							World new_w = new World(r, i, this.allQueries, sc);
+						@Override
+						protected World createWorld(int augmStep, SpecContainer sc, World temp_w) {
+							if (augmStep == 0) {
+								// 1. Create base world (with random elements)
+								World base_w = new World(reroll, model, allQueries, sc);
+								ElementFactory baseFac = new UniformFactorArgsFactory();
 
-							new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+								base_w.fillWorld(baseFac, baseFac, baseFac);
+								return base_w;
+							} else {
+								// 2. Augment previous world
+								ElementFactory augmentFac = new ParallelFactorArgAugmentationFactory(temp_w);
+								World new_w = new World(reroll, model, allQueries, sc);
 
-							temp_w = new_w;
+								new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+								return new_w;
+							}
 						}
-						
-						temp_w.createFiles();
-						
-						Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(), temp_w.getRandVars().size(),
-								temp_w.getFactors().size(), maxRandVarArgs, temp_w.searchRealMaxRVOccurence(),
-								factorArgCount, temp_w.checkAllRVMentioned());
-						Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
-
-						ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, augmStep, temp_w);						
-						counter++;
-					}
+					});
 				}
 			
 		}
+		return series;
 	}
 
 }
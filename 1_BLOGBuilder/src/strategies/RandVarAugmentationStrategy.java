@@ -1,8 +1,9 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.Helpers;
-import blogbuilder.Main;
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
@@ -65,9 +66,9 @@ public class RandVarAugmentationStrategy extends WorldCreationStrategy {
 	
 	
 	@Override
-	public void start() {		
+	public List<WorldSeries> createSeries() {		
 		// Additional params
-		paramHandlerRandVarAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor, params_maxRandVarArgs, params_maxRandVarOcc);
+		return paramHandlerRandVarAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor, params_maxRandVarArgs, params_maxRandVarOcc);
 	}
 
 	/**
@@ -89,8 +90,9 @@ public class RandVarAugmentationStrategy extends WorldCreationStrategy {
 	 * @param factorArgCounts
 	 * @param maxRandVarArgs
 	 * @param maxRandVarOccurrences
+	 * @return List of WorldSeries (1 per randVarCounts-chain)
 	 */
-	public void paramHandlerRandVarAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
+	public List<WorldSeries> paramHandlerRandVarAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
 			int[] factorArgCounts, int[] maxRandVarArgs, int[] maxRandVarOccurrences) {
 
 		// Check for equal lengths
@@ -105,7 +107,7 @@ public class RandVarAugmentationStrategy extends WorldCreationStrategy {
 			System.exit(1);
 		}
 		
-		int counter = 1;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		for (int r = 0; r < this.rerollCount; r++) {
 			for (int model_i = 0; model_i < logVarCounts.length; model_i++) {
@@ -116,40 +118,37 @@ public class RandVarAugmentationStrategy extends WorldCreationStrategy {
 					int facArgs = factorArgCounts[adv_i];
 					int maxRVArgs = maxRandVarArgs[adv_i];
 					int maxRVOccs = maxRandVarOccurrences[adv_i];
+					int reroll = r;
+					int model = model_i;
 
-					World temp_w = null;
-					for (int rv_i = 0; rv_i < randVarCounts.length; rv_i++) {
-						int n_rv = randVarCounts[rv_i];
-						ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-						SpecContainer sc = new SpecContainer(this.domainSizes, n_lv, n_rv, n_fac, facArgs, maxRVOccs, maxRVArgs);
-						if (rv_i == 0) {
-							// 1. Create base world (with random elements)
-							temp_w = new World(r, model_i, this.allQueries, sc);
-							ElementFactory baseFac = new RandomSampleFactory();
-							temp_w.fillWorld(baseFac, baseFac, baseFac);
-						} else {
-							// 2. Augment previous world
-							ElementFactory augmentFac = new RandVarAugmentationFactory(temp_w, this.replaceRandVars);
-							World new_w = new World(r, model_i, this.allQueries, sc);
-
-							new_w.fillWorld(augmentFac, augmentFac, augmentFac);
-
-							temp_w = new_w;
+					series.add(new WorldSeries(this, randVarCounts.length, reroll, n_lv, n_fac, facArgs, maxRVArgs, maxRVOccs) {
+						@Override
+						public SpecContainer specFor(int rv_i) {
+							return new SpecContainer(domainSizes, n_lv, randVarCounts[rv_i], n_fac, facArgs, maxRVOccs, maxRVArgs);
 						}
 
-						temp_w.createFiles();
-						
-						Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(),
-								temp_w.getRandVars().size(), temp_w.getFactors().size(), maxRVArgs,
-								temp_w.searchRealMaxRVOccurence(), facArgs, temp_w.checkAllRVMentioned());
-						Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
+						@Override
+						protected World createWorld(int rv_i, SpecContainer sc, World temp_w) {
+							if (rv_i == 0) {
+								// 1. Create base world (with random elements)
+								World base_w = new World(reroll, model, allQueries, sc);
+								ElementFactory baseFac = new RandomSampleFactory();
+								base_w.fillWorld(baseFac, baseFac, baseFac);
+								return base_w;
+							} else {
+								// 2. Augment previous world
+								ElementFactory augmentFac = new RandVarAugmentationFactory(temp_w, replaceRandVars);
+								World new_w = new World(reroll, model, allQueries, sc);
 
-						ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, rv_i, temp_w);						
-						counter++;
-					}
+								new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+								return new_w;
+							}
+						}
+					});
 				}
 			}
 		}
+		return series;
 	}
 
 }
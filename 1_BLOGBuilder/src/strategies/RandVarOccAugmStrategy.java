@@ -1,8 +1,8 @@
 package strategies;
 
-import blogbuilder.ConfigSingle;
-import blogbuilder.Helpers;
-import blogbuilder.Main;
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
@@ -37,7 +37,7 @@ public class RandVarOccAugmStrategy extends WorldCreationStrategy {
 	
 	
 	@Override
-	public void start() {
+	public List<WorldSeries> createSeries() {
 		
 		for (int i = 0; i < params_logVarCounts.length; i++) {
 			params_randVarCounts[i] = (int) Math.floor(params_logVarCounts[i] * 2);
@@ -52,12 +52,12 @@ public class RandVarOccAugmStrategy extends WorldCreationStrategy {
 
 		
 		
-		paramHandlerRandVarOccAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor,
+		return paramHandlerRandVarOccAugm(params_logVarCounts, params_randVarCounts, params_factorCounts, params_argsInFactor,
 				params_rerollCount);
 
 	}
 
-	public void paramHandlerRandVarOccAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
+	public List<WorldSeries> paramHandlerRandVarOccAugm(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
 			int[] factorArgCounts, int rerollCount) {
 		// TODO: Check if factorArgCounts are an increasing sequence of numbers (e.g.
 		// [3,4,5,6]) without jumps.
@@ -65,46 +65,44 @@ public class RandVarOccAugmStrategy extends WorldCreationStrategy {
 		int maxRandVarArgs = 2;
 		int maxRVOccs = 10;
 
-		int counter = 1;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		for (int r = 0; r < rerollCount; r++) {
 			for (int i = 0; i < logVarCounts.length; i++) {
 				int n_lv = logVarCounts[i];
 				int n_rv = randVarCounts[i];
 				int n_fac = factorCounts[i];
+				int reroll = r;
+				int model = i;
 
-				World temp_w = null;
-				for (int j = 0; j < factorArgCounts.length; j++) {
-					ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-					SpecContainer sc = new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, factorArgCounts[j], maxRVOccs, maxRandVarArgs);
-					if (j == 0) {
-						// 1. Create base world (with random elements)
-						temp_w = new World(r, i, this.allQueries, sc);
-						ElementFactory baseFac = new RandomSampleFactory();
-
-						temp_w.fillWorld(baseFac, baseFac, baseFac);
-					} else {
-						// 2. Augment previous world
-						ElementFactory augmentFac = new RandVarOccurenceAugmentationFactory(temp_w);
-						World new_w = new World(r, i, this.allQueries, sc);
-
-						new_w.fillWorld(augmentFac, augmentFac, augmentFac);
-
-						temp_w = new_w;
+				series.add(new WorldSeries(this, factorArgCounts.length, reroll, n_lv, n_rv, n_fac) {
+					@Override
+					public SpecContainer specFor(int j) {
+						return new SpecContainer(params_domainSizes, n_lv, n_rv, n_fac, factorArgCounts[j], maxRVOccs, maxRandVarArgs);
 					}
 
-					temp_w.createFiles();
-
-					Main.sfw.addLine(temp_w.constructFilePath(), temp_w.getLogVars().size(), temp_w.getRandVars().size(),
-							temp_w.getFactors().size(), maxRandVarArgs, temp_w.searchRealMaxRVOccurence(),
-							factorArgCounts[j], temp_w.checkAllRVMentioned());
-					Main.odl.addLineForWorld(temp_w.constructFilePath(), temp_w);
-
-					ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, j, temp_w);						
-					counter++;
-				}
+					@Override
+					protected World createWorld(int j, SpecContainer sc, World temp_w) {
+						if (j == 0) {
+							// 1. Create base world (with random elements)
+							World base_w = new World(reroll, model, allQueries, sc);
+							ElementFactory baseFac = new RandomSampleFactory();
+
+							base_w.fillWorld(baseFac, baseFac, baseFac);
+							return base_w;
+						} else {
+							// 2. Augment previous world
+							ElementFactory augmentFac = new RandVarOccurenceAugmentationFactory(temp_w);
+							World new_w = new World(reroll, model, allQueries, sc);
+
+							new_w.fillWorld(augmentFac, augmentFac, augmentFac);
+							return new_w;
+						}
+					}
+				});
 			}
 		}
+		return series;
 	}
 
 }
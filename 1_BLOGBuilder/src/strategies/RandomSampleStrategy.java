@@ -1,10 +1,14 @@
 package strategies;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import blogbuilder.ConfigSingle;
 import blogbuilder.Main;
 import blogbuilder.SpecContainer;
 import blogbuilder.World;
 import factories.ElementFactory;
+import factories.base.CompactSampleFactory;
 import factories.base.RandomSampleFactory;
 
 public class RandomSampleStrategy extends WorldCreationStrategy {
@@ -35,7 +39,7 @@ public class RandomSampleStrategy extends WorldCreationStrategy {
 	int params_rerollCount = 1;
 
 	@Override
-	public void start() {
+	public List<WorldSeries> createSeries() {
 		for (int i = 0; i < params_logVarCounts.length; i++) {
 			params_randVarCounts[i] = (int) Math.floor(params_logVarCounts[i] * 3);
 		}
@@ -45,14 +49,14 @@ public class RandomSampleStrategy extends WorldCreationStrategy {
 		}
 
 		
-		 paramHandlerAllRandomSample(params_logVarCounts, params_randVarCounts, params_factorCounts,
+		return paramHandlerAllRandomSample(params_logVarCounts, params_randVarCounts, params_factorCounts,
 		 params_maxRandVarArgs, params_maxRandVarOcc, params_argsInFactor);
 
 	}
 
 	/**
-	 * Wrapper function that takes all parameter arrays and handles world & model
-	 * file creation.
+	 * Wrapper function that takes all parameter arrays and creates one series
+	 * (of length 1) per world.
 	 * 
 	 * Goes parallel through logVar, randVar, factorCounts (i.e. must be of equal
 	 * length). Goes power set wise through the remaining args (all possible
@@ -65,8 +69,9 @@ public class RandomSampleStrategy extends WorldCreationStrategy {
 	 * @param maxRandVarArgs
 	 * @param maxRandVarOccurences
 	 * @param factorArgCounts
+	 * @return List of WorldSeries
 	 */
-	public void paramHandlerAllRandomSample(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
+	public List<WorldSeries> paramHandlerAllRandomSample(int[] logVarCounts, int[] randVarCounts, int[] factorCounts,
 			int[] maxRandVarArgs, int[] maxRandVarOccurences, int[] factorArgCounts) {
 		if (logVarCounts.length != randVarCounts.length || randVarCounts.length != factorCounts.length) {
 			System.err.println(String.format(
@@ -75,7 +80,7 @@ public class RandomSampleStrategy extends WorldCreationStrategy {
 			System.exit(1);
 		}
 
-		int counter = 1;
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
 
 		for (int j = 0; j < logVarCounts.length; j++) {
 			int a = logVarCounts[j];
@@ -85,24 +90,43 @@ public class RandomSampleStrategy extends WorldCreationStrategy {
 			for (int d : maxRandVarArgs) {
 				for (int e : maxRandVarOccurences) {
 					for (int f : factorArgCounts) {
-						ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
-						SpecContainer sc = new SpecContainer(params_domainSizes, a, b, c, f, e, d);
-						World w = new World(this.allQueries, sc);
-						ConfigSingle.getInstance().getProgressLogger().logWorldSpecParams(w);
-						ElementFactory fac = new RandomSampleFactory();
-						w.fillWorld(fac, fac, fac);
-						// REAL
-						ConfigSingle.getInstance().getProgressLogger().logWorldRealParams(w);
-						Main.sfw.addLine(w.constructFilePath(), w.getLogVars().size(), w.getRandVars().size(),
-								w.getFactors().size(), d, w.searchRealMaxRVOccurence(), f, w.checkAllRVMentioned());
-						Main.odl.addLineForWorld(w.constructFilePath(), w);
-						w.createFiles();
-						counter++;
+						series.add(new WorldSeries(this, 1, 0, a, b, c, d, e, f) {
+							@Override
+							public SpecContainer specFor(int step) {
+								return new SpecContainer(params_domainSizes, a, b, c, f, e, d);
+							}
+
+							@Override
+							protected World createWorld(int step, SpecContainer sc, World previous) {
+								World w = new World(allQueries, sc);
+								ConfigSingle.getInstance().getProgressLogger().logWorldSpecParams(w);
+								ElementFactory fac = new RandomSampleFactory();
+								if (ConfigSingle.getInstance().compact) {
+									w.fillCompact(new CompactSampleFactory().sample(sc), fac);
+								} else {
+									w.fillWorld(fac, fac, fac);
+								}
+								// REAL
+								ConfigSingle.getInstance().getProgressLogger().logWorldRealParams(w);
+								return w;
+							}
+
+							@Override
+							protected void handleWorld(int counter, int step, World w) {
+								Main.sfw.addLine(w.constructFilePath(), w.getLogVarCount(), w.getRandVarCount(),
+										w.getFactorCount(), d, w.searchRealMaxRVOccurence(), f, w.checkAllRVMentioned(),
+										w.estimateInferenceCost());
+								Main.odl.addLineForWorld(w.constructFilePath(), w);
+								Main.col.addLinesForWorld(w.constructFilePath(), w);
+								Main.mfw.write(w);
+							}
+						});
 					}
 				}
 			}
 		}
 
+		return series;
 	}
 
 }
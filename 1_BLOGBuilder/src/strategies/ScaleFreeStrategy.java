@@ -0,0 +1,111 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import blogbuilder.ConfigSingle;
+import blogbuilder.Main;
+import blogbuilder.SpecContainer;
+import blogbuilder.World;
+import factories.base.ScaleFreeFactory;
+
+/**
+ * Creates worlds with heavy-tailed randvar occurrence and logvar sharing (see
+ * {@link ScaleFreeFactory}), one series (of length 1) per size and offset. With
+ * option <code>--compact</code>, the worlds are sampled directly into their
+ * compact representation, so sizes up to 10^6 factors are feasible.
+ */
+public class ScaleFreeStrategy extends WorldCreationStrategy {
+
+	private boolean allQueries = true;
+
+	// We go through these counts in parallel
+	int[] params_logVarCounts = { 5, 10, 20, 50, 100 };
+	int[] params_randVarCounts = { 20, 50, 100, 300, 1000 };
+	int[] params_factorCounts = { 30, 80, 150, 500, 1500 };
+
+	int[] params_domainSizes = { 10, 100 };
+
+	// We go through these as power set (all combinations)
+	int params_maxRandVarArgs = 2;
+	int params_argsInFactor = 4;
+
+	/**
+	 * Weight of a randvar without occurrence (the smaller, the heavier the tail).
+	 */
+	double[] params_randVarOffsets = { 0.5, 2 };
+
+	/**
+	 * Weight of a logvar that is not used yet.
+	 */
+	double[] params_logVarOffsets = { 1 };
+
+	/**
+	 * How often do you want each size to be created?
+	 */
+	int params_rerollCount = 1;
+
+	@Override
+	public List<WorldSeries> createSeries() {
+		if (params_logVarCounts.length != params_randVarCounts.length
+				|| params_randVarCounts.length != params_factorCounts.length) {
+			System.err.println(String.format(
+					"Counts for logVars (= %d), randVars (= %d), factors (= %d) are *NOT* of equal length!",
+					params_logVarCounts.length, params_randVarCounts.length, params_factorCounts.length));
+			System.exit(1);
+		}
+
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
+
+		for (int j = 0; j < params_logVarCounts.length; j++) {
+			int a = params_logVarCounts[j];
+			int b = params_randVarCounts[j];
+			int c = params_factorCounts[j];
+
+			for (int k = 0; k < params_randVarOffsets.length; k++) {
+				for (int l = 0; l < params_logVarOffsets.length; l++) {
+					double rvOffset = params_randVarOffsets[k];
+					double lvOffset = params_logVarOffsets[l];
+					// distinguishes the files of the offsets (e.g. a-01-10#export...)
+					int offsetIndex = k * params_logVarOffsets.length + l;
+					for (int r = 0; r < params_rerollCount; r++) {
+						int reroll = r;
+						series.add(new WorldSeries(this, 1, reroll, a, b, c, k, l) {
+							@Override
+							public SpecContainer specFor(int step) {
+								// no occurrence cap: the spec's maxRandVarOccurrences is the factor count
+								return new SpecContainer(params_domainSizes, a, b, c, params_argsInFactor, c,
+										params_maxRandVarArgs);
+							}
+
+							@Override
+							protected World createWorld(int step, SpecContainer sc, World previous) {
+								World w = new World(reroll, offsetIndex, allQueries, sc);
+								ConfigSingle.getInstance().getProgressLogger().logWorldSpecParams(w);
+								ScaleFreeFactory fac = new ScaleFreeFactory(rvOffset, lvOffset);
+								if (ConfigSingle.getInstance().compact) {
+									w.fillCompact(fac.sample(sc), fac);
+								} else {
+									w.fillWorld(fac, fac, fac);
+								}
+								ConfigSingle.getInstance().getProgressLogger().logWorldRealParams(w);
+								return w;
+							}
+
+							@Override
+							protected void handleWorld(int counter, int step, World w) {
+								Main.sfw.addLine(w.constructFilePath(), w.getLogVarCount(), w.getRandVarCount(),
+										w.getFactorCount(), params_maxRandVarArgs, w.searchRealMaxRVOccurence(),
+										params_argsInFactor, w.checkAllRVMentioned(), w.estimateInferenceCost());
+								Main.odl.addLineForWorld(w.constructFilePath(), w);
+								Main.col.addLinesForWorld(w.constructFilePath(), w);
+								Main.mfw.write(w);
+							}
+						});
+					}
+				}
+			}
+		}
+		return series;
+	}
+}
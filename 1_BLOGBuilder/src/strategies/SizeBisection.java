@@ -0,0 +1,208 @@
+package strategies;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import blogbuilder.ConfigSingle;
+import blogbuilder.EngineRunner;
+import blogbuilder.Main;
+import blogbuilder.SweepExecutor;
+import blogbuilder.World;
+
+/**
+ * Finds the largest world of every series of a strategy that an inference
+ * engine handles within a timeout (option <code>--bisect</code>), by bisecting
+ * over a size parameter instead of writing and running the whole sweep:
+ * <ul>
+ * <li>the step of the series (e.g. the increment count of the
+ * {@link IncByWorldStrategy} or the augmentation steps of an augmentation
+ * strategy): the engine is run on the files of world #step (all domain sizes,
+ * smallest first), or</li>
+ * <li>the domain size (1 .. max, option <code>--bisect-domain</code>): the
+ * engine is run on the file of the first world of the series with that domain
+ * size.</li>
+ * </ul>
+ * A size is ok if all its runs succeed within the timeout; sizes are assumed
+ * to get harder the larger they are. Thus only O(log n) worlds are written and
+ * run per series. The worlds between two probed steps are created (they are
+ * derived from each other), but not written; the files of a probed world are
+ * the same as in a sweep. A fork of every probed world is kept (see
+ * {@link World#fork()}), so a smaller step is created from the closest probed
+ * world before it, which is the largest ok step so far. Thus the worlds
+ * created for a probe are the ones between the largest ok step and the probe,
+ * at most half of the remaining interval: O(n) worlds per series in total
+ * (n + n/2 + n/4 + ...), plus O(log n) forks.
+ *
+ * The runs and limits are logged by logging.BisectionLogger.
+ */
+public class SizeBisection {
+
+	private EngineRunner runner;
+
+	private long timeoutMs;
+
+	/**
+	 * Largest domain size to bisect over (0: bisect over the steps).
+	 */
+	private int maxDomainSize;
+
+	/**
+	 * Series that is currently bisected.
+	 */
+	private WorldSeries series;
+
+	/**
+	 * Last created world of the series and its step (to continue from if a
+	 * larger step is probed next).
+	 */
+	private World last;
+	private int lastStep;
+
+	/**
+	 * Forks of the probed worlds of the series by step (to start from if a
+	 * smaller step is probed next).
+	 */
+	private TreeMap<Integer, World> probed = new TreeMap<Integer, World>();
+
+	private int runs;
+
+	/**
+	 * @param runner        engine to run on the model files.
+	 * @param timeoutMs     timeout of a run in ms.
+	 * @param maxDomainSize largest domain size to bisect over (0: bisect over the
+	 *                      steps of the series).
+	 */
+	public SizeBisection(EngineRunner runner, long timeoutMs, int maxDomainSize) {
+		this.runner = runner;
+		this.timeoutMs = timeoutMs;
+		this.maxDomainSize = maxDomainSize;
+	}
+
+	/**
+	 * Bisects every series of the strategy (of this shard, see
+	 * {@link SweepExecutor#selectShard(List)}). The worlds are numbered as in a
+	 * sweep of the strategy.
+	 *
+	 * @param strategy strategy whose series are bisected.
+	 */
+	public void run(WorldCreationStrategy strategy) {
+		List<WorldSeries> all = strategy.createSeries();
+		int counter = strategy.firstCounter;
+		for (WorldSeries s : all) {
+			s.setFirstCounter(counter);
+			counter += s.getLength();
+		}
+
+		for (WorldSeries s : SweepExecutor.selectShard(all)) {
+			this.bisect(all.indexOf(s), s);
+		}
+	}
+
+	/**
+	 * Bisects over the sizes 0 .. n-1 (steps) or 1 .. max (domain sizes).
+	 */
+	private void bisect(int index, WorldSeries s) {
+		this.series = s;
+		this.last = null;
+		this.lastStep = -1;
+		this.probed.clear();
+		this.runs = 0;
+
+		// sizes first .. end-1, ok and failed are the bounds known so far
+		int first = this.maxDomainSize > 0 ? 1 : 0;
+		int end = this.maxDomainSize > 0 ? this.maxDomainSize + 1 : s.getLength();
+		int ok = first - 1;
+		int failed = end;
+		String okFile = "";
+		while (failed - ok > 1) {
+			int size = ok + (failed - ok) / 2;
+			String file = this.probe(size);
+			if (file != null) {
+				ok = size;
+				okFile = file;
+			} else {
+				failed = size;
+			}
+		}
+
+		int largest = ok < first ? -1 : ok;
+		int smallestFailed = failed == end ? -1 : failed;
+		Main.bisection.addLimit(index, largest, okFile, smallestFailed, this.runs);
+		System.out.println(String.format("# Series %d: largest %s within %.0f s: %d (%d runs)", index,
+				this.maxDomainSize > 0 ? "domain size" : "step", this.timeoutMs / 1000.0, largest, this.runs));
+		this.last = null;
+		this.probed.clear();
+	}
+
+	/**
+	 * Writes the files of a size and runs the engine on them.
+	 *
+	 * @return path of the (largest) file if all runs succeeded, else null.
+	 */
+	private String probe(int size) {
+		World w;
+		int step;
+		int[] domainSizes;
+		if (this.maxDomainSize > 0) {
+			step = 0;
+			w = this.worldAt(0);
+			domainSizes = new int[] { size };
+			w.getSpecContainer().setDomainSizes(domainSizes);
+		} else {
+			step = size;
+			w = this.worldAt(step);
+			domainSizes = w.getSpecContainer().getDomainSizes().clone();
+			Arrays.sort(domainSizes);
+		}
+
+		ConfigSingle.getInstance().getProgressLogger().logWorldStart(this.series.getFirstCounter() + step);
+		this.series.handleWorld(this.series.getFirstCounter() + step, step, w);
+		Main.mfw.flush();
+
+		String file = null;
+		for (int d : domainSizes) {
+			file = w.constructFilePath(d);
+			long start = System.nanoTime();
+			EngineRunner.Result result = this.runner.run(file, this.timeoutMs);
+			this.runs++;
+			Main.bisection.addRun(file, size, result.name().toLowerCase(Locale.ROOT), (System.nanoTime() - start) / 1e9);
+			if (result != EngineRunner.Result.OK) {
+				return null;
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Creates world #step of the current series, from the last created world if
+	 * that is an earlier one, else from the closest earlier probed world (or from
+	 * the start).
+	 */
+	private World worldAt(int step) {
+		if (this.last != null && this.lastStep == step) {
+			return this.last;
+		}
+		if (this.lastStep > step) {
+			Map.Entry<Integer, World> closest = this.probed.lowerEntry(step);
+			// fork again, the kept world might be needed once more
+			this.last = closest == null ? null : closest.getValue().fork();
+			this.lastStep = closest == null ? -1 : closest.getKey();
+		} else if (this.last != null) {
+			// the last world is probed and retired by its successor, keep a fork
+			this.probed.put(this.lastStep, this.last.fork());
+		}
+		for (int i = this.lastStep + 1; i <= step; i++) {
+			if (this.last != null && i - 1 > this.lastStep && this.last.rendersIncrementally()) {
+				// render the skipped world's increment, so its potentials are the
+				// same as in a sweep
+				this.last.renderFiles();
+			}
+			this.last = this.series.next(i, this.last);
+		}
+		this.lastStep = step;
+		return this.last;
+	}
+}
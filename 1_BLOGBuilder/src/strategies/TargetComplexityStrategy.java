@@ -0,0 +1,127 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import blogbuilder.ConfigSingle;
+import blogbuilder.Main;
+import blogbuilder.SpecContainer;
+import blogbuilder.World;
+import factories.ElementFactory;
+import factories.augmentation.TargetComplexityFactory;
+import factories.augmentation.TargetComplexityFactory.Metric;
+import factories.base.RandomSampleFactory;
+
+/**
+ * Creates a ladder of worlds with evenly spaced complexity: instead of sweeping
+ * the counts of the elements, the factors of a random base world are edited
+ * until a complexity metric (e.g. the treewidth) hits the target of the first
+ * rung, every further rung continues from the world of the previous one (see
+ * {@link TargetComplexityFactory}).
+ * 
+ * The spec of a rung holds the bounds of the search (factors with up to
+ * params_maxFactorArgs arguments, no occurrence cap), not the spec of the
+ * base world, so the worlds are not checked for spec deviations.
+ */
+public class TargetComplexityStrategy extends WorldCreationStrategy {
+
+	private boolean allQueries = true;
+
+	/**
+	 * Metric the worlds are searched for.
+	 */
+	Metric params_metric = Metric.LIFTED_TREEWIDTH;
+
+	/**
+	 * Targets of the rungs of the ladder (e.g. { 1e3, 1e4, 1e5, 1e6 } for
+	 * Metric.GROUND_FACTORS).
+	 */
+	double[] params_targets = { 2, 3, 4, 5, 6, 7, 8 };
+
+	/**
+	 * Relative distance to a target that counts as hit (0 = exact, e.g. 0.05 for
+	 * Metric.GROUND_FACTORS).
+	 */
+	double params_tolerance = 0;
+
+	// Spec of the base world
+	int params_logVarCount = 4;
+	int params_randVarCount = 16;
+	int params_factorCount = 16;
+	int params_argsInFactor = 2;
+	int params_maxRandVarArgs = 2;
+	int params_maxRandVarOcc = 3;
+
+	int[] params_domainSizes = { 10, 100 };
+
+	/**
+	 * Max. number of arguments of an edited factor (factors have 2^args
+	 * potentials).
+	 */
+	int params_maxFactorArgs = 8;
+
+	/**
+	 * Max. number of edits per rung.
+	 */
+	int params_maxEdits = 5000;
+
+	/**
+	 * How often do you want each ladder to be created?
+	 */
+	int params_rerollCount = 2;
+
+	@Override
+	public List<WorldSeries> createSeries() {
+		List<WorldSeries> series = new ArrayList<WorldSeries>();
+
+		for (int r = 0; r < params_rerollCount; r++) {
+			int reroll = r;
+
+			series.add(new WorldSeries(this, params_targets.length, reroll, params_logVarCount, params_randVarCount,
+					params_factorCount, params_argsInFactor) {
+				@Override
+				public SpecContainer specFor(int step) {
+					// no occurrence cap: the spec's maxRandVarOccurrences is the factor count
+					return new SpecContainer(params_domainSizes, params_logVarCount, params_randVarCount,
+							params_factorCount, params_maxFactorArgs, params_factorCount, params_maxRandVarArgs);
+				}
+
+				@Override
+				protected World createWorld(int step, SpecContainer sc, World temp_w) {
+					if (step == 0) {
+						// 1. Create base world (with random elements)
+						SpecContainer baseSpec = new SpecContainer(params_domainSizes, params_logVarCount,
+								params_randVarCount, params_factorCount, params_argsInFactor, params_maxRandVarOcc,
+								params_maxRandVarArgs);
+						temp_w = new World(reroll, step, allQueries, baseSpec);
+						ElementFactory baseFac = new RandomSampleFactory();
+
+						temp_w.fillWorld(baseFac, baseFac, baseFac);
+					}
+
+					// 2. Edit previous world until it hits the target of this rung
+					ElementFactory searchFac = new TargetComplexityFactory(temp_w, params_metric,
+							params_targets[step], params_tolerance, params_maxFactorArgs, params_maxEdits);
+					World new_w = new World(reroll, step, allQueries, sc);
+
+					ConfigSingle.getInstance().getProgressLogger().logWorldSpecParams(new_w);
+					new_w.fillWorld(searchFac, searchFac, searchFac);
+					ConfigSingle.getInstance().getProgressLogger().logWorldRealParams(new_w);
+					return new_w;
+				}
+
+				@Override
+				protected void handleWorld(int counter, int step, World w) {
+					Main.mfw.write(w);
+
+					Main.sfw.addLine(w.constructFilePath(), w.getLogVarCount(), w.getRandVarCount(),
+							w.getFactorCount(), params_maxRandVarArgs, w.searchRealMaxRVOccurence(),
+							w.searchRealMaxFactorArgCount(), w.checkAllRVMentioned(), w.estimateInferenceCost());
+					Main.odl.addLineForWorld(w.constructFilePath(), w);
+					Main.col.addLinesForWorld(w.constructFilePath(), w);
+				}
+			});
+		}
+		return series;
+	}
+}
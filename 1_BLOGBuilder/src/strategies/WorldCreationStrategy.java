@@ -3,12 +3,68 @@ package strategies;
 import java.io.PrintStream;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import blogbuilder.Checkpoint;
+import blogbuilder.ConfigSingle;
 import blogbuilder.Helpers;
 import blogbuilder.Main;
+import blogbuilder.SweepExecutor;
+import blogbuilder.World;
 
 public abstract class WorldCreationStrategy {
-	public abstract void start();
+
+	/**
+	 * Number of the first world (used for the console log).
+	 */
+	protected int firstCounter = 1;
+
+	/**
+	 * Creates the (independent) series of worlds of this strategy in sweep order.
+	 * No world is created yet, this happens when the series are run.
+	 *
+	 * @return List of WorldSeries.
+	 */
+	public abstract List<WorldSeries> createSeries();
+
+	/**
+	 * Creates all worlds of this strategy (in parallel if more than 1 thread is
+	 * configured in {@link ConfigSingle}). A resumed sweep continues after the
+	 * last world of its checkpoint.
+	 */
+	public void start() {
+		Checkpoint cp = ConfigSingle.getInstance().resumeFrom;
+		if (cp != null && !cp.getStrategy().equals(this.getClass().getName())) {
+			System.err.println("   Checkpoint was created by another strategy: " + cp.getStrategy());
+			System.exit(1);
+		}
+		List<WorldSeries> series = this.createSeries();
+		new SweepExecutor(ConfigSingle.getInstance().threads).run(series, this.firstCounter);
+	}
+
+	/**
+	 * Returns the worlds of this strategy as a lazy stream in sweep order, e.g.
+	 * to use BLOGBuilder as a library. A world is created when it is pulled from
+	 * the stream; no files or summary lines are written (the files of a world can
+	 * be written with {@link World#createFiles()}).
+	 * 
+	 * With sharding (see {@link ConfigSingle#shardCount}), only the worlds of
+	 * this shard are created.
+	 * 
+	 * The stream can be run in parallel: it is split between series (see
+	 * {@link WorldSeries}) and creates the same worlds as a sequential stream.
+	 * The emitted worlds are independent (the next world of a series is derived
+	 * from a fork of the previous one, see {@link World#fork()}), so they can be
+	 * collected. Each world keeps its random stream, so its files are the same
+	 * as in {@link #start()} whenever they are written.
+	 * 
+	 * @return Stream of the worlds of this strategy.
+	 */
+	public Stream<World> worlds() {
+		return StreamSupport.stream(new WorldSpliterator(SweepExecutor.selectShard(this.createSeries())), false);
+	}
 	
 	public void createWorldCreationSummary() {
 		//String content = this.createWorldCreationSummaryString();
@@ -53,7 +109,9 @@ public abstract class WorldCreationStrategy {
 	                    value.getClass() == java.lang.Long.class ||
 	                    value.getClass() == java.lang.String.class ||
 	                    value.getClass() == java.lang.Integer.class ||
-	                    value.getClass() == java.lang.Boolean.class
+	                    value.getClass() == java.lang.Boolean.class ||
+	                    value.getClass() == java.lang.Double.class ||
+	                    value instanceof Enum
 	                    ) {
 	                buffer.append(value + ((i == Array.getLength(o) - 1) ? "" : ", "));
 	            } else {
@@ -80,7 +138,9 @@ public abstract class WorldCreationStrategy {
 	                                value.getClass() == java.lang.Long.class ||
 	                                value.getClass() == java.lang.String.class ||
 	                                value.getClass() == java.lang.Integer.class ||
-	                                value.getClass() == java.lang.Boolean.class
+	                                value.getClass() == java.lang.Boolean.class ||
+	                                value.getClass() == java.lang.Double.class ||
+	                                value instanceof Enum
 	                                ) {
 	                            buffer.append(value + "; ");
 	                        } else {
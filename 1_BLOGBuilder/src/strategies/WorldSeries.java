@@ -0,0 +1,340 @@
+package strategies;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+import blogbuilder.Checkpoint;
+import blogbuilder.ConfigSingle;
+import blogbuilder.CostModel;
+import blogbuilder.DuplicateFilter;
+import blogbuilder.Main;
+import blogbuilder.SpecContainer;
+import blogbuilder.SweepExecutor;
+import blogbuilder.World;
+import blogbuilder.WorldRandom;
+
+/**
+ * A series of worlds that has to be created in order, e.g. a base world and
+ * its augmentations (world #i is created from world #i-1).
+ *
+ * Different series of a strategy do not share any elements and can thus be
+ * created independently (see {@link blogbuilder.SweepExecutor}).
+ * 
+ * Every world is created with its own random stream, keyed by strategy,
+ * parameters of the series, reroll and index of the world in the series (see
+ * {@link #streamFor(int)}).
+ */
+public abstract class WorldSeries {
+
+	/**
+	 * Number of worlds in this series.
+	 */
+	private int length;
+
+	/**
+	 * Name of the strategy this series belongs to (part of the stream key).
+	 */
+	private String strategyName;
+
+	/**
+	 * Class name of the strategy (saved with checkpoints).
+	 */
+	private String strategyClass;
+
+	/**
+	 * Index of the reroll (part of the stream key).
+	 */
+	private int reroll;
+
+	/**
+	 * Parameters that identify this series within its strategy (part of the
+	 * stream key).
+	 */
+	private int[] params;
+
+	/**
+	 * Global number (counter) of the first world of this series.
+	 */
+	private int firstCounter = 1;
+
+	/**
+	 * @param strategy strategy the series belongs to.
+	 * @param length   number of worlds in this series.
+	 * @param reroll   index of the reroll.
+	 * @param params   parameters that identify this series within the strategy.
+	 */
+	public WorldSeries(WorldCreationStrategy strategy, int length, int reroll, int... params) {
+		this.strategyName = strategy.getClass().getSimpleName();
+		this.strategyClass = strategy.getClass().getName();
+		this.length = length;
+		this.reroll = reroll;
+		this.params = params;
+	}
+
+	/**
+	 * Returns the spec of world #step of this series.
+	 *
+	 * @param step index of the world in the series.
+	 * @return SpecContainer for that world.
+	 */
+	public abstract SpecContainer specFor(int step);
+
+	/**
+	 * Creates and fills world #step of this series.
+	 *
+	 * @param step     index of the world in this series.
+	 * @param sc       spec of the world (see {@link #specFor(int)}).
+	 * @param previous world #step-1 of this series (null for step 0).
+	 * @return the filled world.
+	 */
+	protected abstract World createWorld(int step, SpecContainer sc, World previous);
+
+	/**
+	 * Creates all worlds of this series and writes their files and summaries.
+	 * 
+	 * If the sweep is resumed (see {@link ConfigSingle#resumeFrom}), the worlds
+	 * up to the checkpoint are skipped and the series continues from its state
+	 * saved with the checkpoint. Checkpoints are taken as configured in
+	 * {@link ConfigSingle#checkpointInterval}.
+	 * 
+	 * If duplicates are rejected (see {@link ConfigSingle#duplicates}), worlds
+	 * that are identical up to renaming to an earlier world are not written (in
+	 * a parallel sweep, they are deleted when they are committed). The first
+	 * world of the series is created again with another random stream instead,
+	 * as long as regenerations are left.
+	 */
+	public void run() {
+		World previous = null;
+		int first = 0;
+		Checkpoint cp = ConfigSingle.getInstance().resumeFrom;
+		DuplicateFilter duplicates = ConfigSingle.getInstance().duplicates;
+		if (cp != null && cp.getCounter() >= this.firstCounter) {
+			first = cp.getCounter() - this.firstCounter + 1;
+			if (first >= this.length) {
+				return;
+			}
+			previous = this.restoreState(cp.getSeriesState());
+		}
+
+		for (int step = first; step < this.length; step++) {
+			int counter = this.firstCounter + step;
+			ConfigSingle.getInstance().getProgressLogger().logWorldStart(counter);
+			long start = System.nanoTime();
+			World w = this.next(step, previous);
+			String duplicateOf = duplicates == null ? null : duplicates.check(w);
+			for (int attempt = 1; duplicateOf != null && previous == null
+					&& attempt <= duplicates.getRegenerations(); attempt++) {
+				// a world without predecessor can be created again with another stream
+				ConfigSingle.getInstance().getProgressLogger().addRegeneratedDuplicate();
+				w = this.next(step, null, attempt);
+				duplicateOf = duplicates.check(w);
+			}
+			if (duplicateOf != null) {
+				ConfigSingle.getInstance().getProgressLogger().addToDuplicateFiles(w.constructFilePath(), duplicateOf);
+				if (cp != null) {
+					// an interrupted parallel sweep may have written it before it was decided
+					Main.mfw.delete(w.constructFilePaths());
+				}
+				if (w.rendersIncrementally()) {
+					// render anyway, so the next world's potentials are the same
+					w.renderFiles();
+				}
+			} else {
+				// in a parallel sweep, a world is decided when it is committed
+				BooleanSupplier accepted = duplicates != null && SweepExecutor.defersCommits()
+						? duplicates.registerOnCommit(w)
+						: null;
+				World world = w;
+				int index = step;
+				SweepExecutor.runCommitsIf(accepted, () -> this.handleWorld(counter, index, world, start));
+				if (accepted != null) {
+					duplicates.deleteOnCommitIfRejected(w, accepted);
+				}
+			}
+			if (Checkpoint.isDue(counter)) {
+				Checkpoint next = new Checkpoint(this.strategyClass, counter,
+						step + 1 < this.length ? this.saveState(w) : null);
+				SweepExecutor.commit(next::save);
+			}
+			previous = w;
+		}
+	}
+
+	/**
+	 * Writes the files and summary lines of a world (see
+	 * {@link #handleWorld(int, int, World)}) and its cost line.
+	 */
+	private void handleWorld(int counter, int step, World w, long start) {
+		this.handleWorld(counter, step, w);
+		if (Main.cost != null) {
+			SpecContainer sc = w.getSpecContainer();
+			Main.cost.addLine(w.constructFilePath(), w.getLogVarCount(), w.getRandVarCount(), w.getFactorCount(),
+					sc.getFactorArgCount(), CostModel.estimate(sc), (System.nanoTime() - start) / 1e6);
+		}
+	}
+
+	/**
+	 * @return estimated cost (in ms) of all worlds of this series (see
+	 *         {@link CostModel}).
+	 */
+	public double estimateCost() {
+		double cost = 0;
+		for (int step = 0; step < this.length; step++) {
+			cost += CostModel.estimate(this.specFor(step));
+		}
+		return cost;
+	}
+
+	/**
+	 * Writes the state of this series after a world has been created (the world
+	 * and what else {@link #writeState(DataOutputStream)} adds).
+	 */
+	private byte[] saveState(World w) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			w.write(out);
+			this.writeState(out);
+		} catch (IOException e) {
+			// ByteArrayOutputStream does not throw.
+		}
+		return bytes.toByteArray();
+	}
+
+	private World restoreState(DataInputStream in) {
+		try {
+			World w = World.read(in);
+			this.readState(in);
+			return w;
+		} catch (IOException e) {
+			System.err.println("   Cannot restore series from checkpoint.");
+			System.err.println(e);
+			System.exit(1);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes what the next world depends on besides its predecessor (e.g. a base
+	 * world kept by the series) for a checkpoint. Nothing by default.
+	 * 
+	 * @param out stream to write to.
+	 * @throws IOException if writing fails.
+	 */
+	protected void writeState(DataOutputStream out) throws IOException {
+	}
+
+	/**
+	 * Reads what {@link #writeState(DataOutputStream)} has written.
+	 * 
+	 * @param in stream to read from.
+	 * @throws IOException if reading fails.
+	 */
+	protected void readState(DataInputStream in) throws IOException {
+	}
+
+	/**
+	 * Creates world #step of this series (and its predecessors, which it is
+	 * derived from) without writing anything. The world is the same as the one
+	 * created by {@link #run()}.
+	 * 
+	 * @param step index of the world in the series.
+	 * @return the created world.
+	 */
+	public World generate(int step) {
+		World w = null;
+		for (int i = 0; i <= step; i++) {
+			w = this.next(i, w);
+		}
+		return w;
+	}
+
+	/**
+	 * Creates world #step of this series from its predecessor with the random
+	 * stream of that world. Nothing is written. The world keeps its stream and
+	 * draws its potentials from it when it is rendered (see
+	 * {@link World#setRandom(java.util.Random)}).
+	 * 
+	 * @param step     index of the world in this series.
+	 * @param previous world #step-1 of this series (null for step 0). Must not be
+	 *                 used any more afterwards, as the new world shares its
+	 *                 elements.
+	 * @return the created world.
+	 */
+	World next(int step, World previous) {
+		return this.next(step, previous, 0);
+	}
+
+	private World next(int step, World previous, int attempt) {
+		WorldRandom random = this.streamFor(step, attempt);
+		ConfigSingle.getInstance().setRandom(random);
+		World w = this.createWorld(step, this.specFor(step), previous);
+		w.setRandom(random);
+		return w;
+	}
+
+	/**
+	 * Returns the random stream of world #step of this series. It only depends on
+	 * the key (strategy, parameters, reroll, step) and the configured seed.
+	 * 
+	 * @param step index of the world in the series.
+	 * @return WorldRandom for that world.
+	 */
+	public WorldRandom streamFor(int step) {
+		return this.streamFor(step, 0);
+	}
+
+	/**
+	 * Returns the random stream of world #step of this series when it is created
+	 * again as it was a duplicate (see {@link DuplicateFilter}).
+	 * 
+	 * @param step    index of the world in the series.
+	 * @param attempt 0 for the first creation, n for the n-th regeneration.
+	 * @return WorldRandom for that world.
+	 */
+	public WorldRandom streamFor(int step, int attempt) {
+		int[] key = new int[this.params.length + (attempt == 0 ? 2 : 3)];
+		System.arraycopy(this.params, 0, key, 0, this.params.length);
+		key[this.params.length] = this.reroll;
+		key[this.params.length + 1] = step;
+		if (attempt > 0) {
+			key[this.params.length + 2] = attempt;
+		}
+		return WorldRandom.forKey(this.strategyName, key);
+	}
+
+	/**
+	 * Writes the files of a created world, adds it to the summary files and logs
+	 * that it is done.
+	 *
+	 * @param counter global number of the world.
+	 * @param step    index of the world in this series.
+	 * @param w       created world.
+	 */
+	protected void handleWorld(int counter, int step, World w) {
+		Main.mfw.write(w);
+
+		SpecContainer sc = w.getSpecContainer();
+		Main.sfw.addLine(w.constructFilePath(), w.getLogVarCount(), w.getRandVarCount(),
+				w.getFactorCount(), sc.getMaxRandVarArgs(), w.searchRealMaxRVOccurence(),
+				sc.getFactorArgCount(), w.checkAllRVMentioned(), w.estimateInferenceCost());
+		Main.odl.addLineForWorld(w.constructFilePath(), w);
+		Main.col.addLinesForWorld(w.constructFilePath(), w);
+
+		ConfigSingle.getInstance().getProgressLogger().logWorldDone(counter, step, w);
+	}
+
+	public int getLength() {
+		return this.length;
+	}
+
+	public int getFirstCounter() {
+		return this.firstCounter;
+	}
+
+	public void setFirstCounter(int firstCounter) {
+		this.firstCounter = firstCounter;
+	}
+}
@@ -0,0 +1,129 @@
+package strategies;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import blogbuilder.World;
+
+/**
+ * Lazily creates the worlds of a list of series in sweep order (see
+ * {@link WorldCreationStrategy#worlds()}). A world is only created when it is
+ * pulled from the stream, nothing is written.
+ *
+ * Splitting hands over whole series that have not been started yet, so the
+ * worlds of a series are always created one after another by the same thread
+ * (world #i is derived from world #i-1). As every world is created with its
+ * own random stream, a split stream creates the same worlds as a sequential
+ * one.
+ *
+ * The emitted worlds are independent of each other: the next world of a series
+ * is derived from a fork of the emitted one (see {@link World#fork()}), which
+ * costs O(size of the world) per world. Every world keeps its random stream, so
+ * its files are the same as in a sweep, no matter when and on which thread they
+ * are written. Worlds that are rendered incrementally are rendered before they
+ * are emitted (their successor continues their rendering).
+ */
+class WorldSpliterator implements Spliterator<World> {
+
+	private final List<WorldSeries> series;
+
+	/**
+	 * Index of the series that is currently created.
+	 */
+	private int current;
+
+	/**
+	 * Index after the last series of this spliterator.
+	 */
+	private final int end;
+
+	/**
+	 * Index of the next world in the current series.
+	 */
+	private int step = 0;
+
+	/**
+	 * Fork of the last created world of the current series (null at the start
+	 * of a series).
+	 */
+	private World previous = null;
+
+	/**
+	 * Number of worlds that have not been created yet.
+	 */
+	private long remaining;
+
+	WorldSpliterator(List<WorldSeries> series) {
+		this(series, 0, series.size());
+	}
+
+	private WorldSpliterator(List<WorldSeries> series, int from, int to) {
+		this.series = series;
+		this.current = from;
+		this.end = to;
+		for (int i = from; i < to; i++) {
+			this.remaining += series.get(i).getLength();
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super World> action) {
+		while (this.current < this.end && this.step >= this.series.get(this.current).getLength()) {
+			this.current++;
+			this.step = 0;
+			this.previous = null;
+		}
+		if (this.current >= this.end) {
+			return false;
+		}
+
+		World w = this.series.get(this.current).next(this.step, this.previous);
+		if (w.rendersIncrementally()) {
+			// render the increment before forking, so the next world continues
+			// with the same potentials as in a sweep
+			w.renderFiles();
+		}
+		// the next world takes over the elements of its predecessor, so it is
+		// derived from a fork and w stays intact for the consumer
+		this.step++;
+		this.previous = this.step < this.series.get(this.current).getLength() ? w.fork() : null;
+		this.remaining--;
+		action.accept(w);
+		return true;
+	}
+
+	/**
+	 * Splits off the first half of the remaining series. The series that is
+	 * currently created (if it has been started) stays with the first half.
+	 */
+	@Override
+	public Spliterator<World> trySplit() {
+		int from = this.step == 0 ? this.current : this.current + 1;
+		int mid = from + (this.end - from) / 2;
+		if (mid <= from) {
+			return null;
+		}
+
+		WorldSpliterator prefix = new WorldSpliterator(this.series, this.current, mid);
+		prefix.step = this.step;
+		prefix.previous = this.previous;
+		prefix.remaining -= this.step;
+
+		this.current = mid;
+		this.step = 0;
+		this.previous = null;
+		this.remaining -= prefix.remaining;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return this.remaining;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | SIZED | SUBSIZED;
+	}
+}